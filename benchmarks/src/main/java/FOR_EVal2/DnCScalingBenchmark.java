@@ -0,0 +1,56 @@
+package FOR_EVal2;
+
+import TowersPuzzle.PuzzleGenerator;
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive ForkJoin {@code StrategyDnC} on boards larger than the game's
+ * 4×4, a third of the cells pre-filled from each puzzle's solution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class DnCScalingBenchmark {
+
+    private static final int PUZZLES = 16;
+
+    @Param({"4", "6", "9"})
+    public int size;
+
+    private StrategyDnC[] strategies;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator(size, PuzzleFixtures.SEED);
+        strategies = new StrategyDnC[PUZZLES];
+        for (int i = 0; i < PUZZLES; i++) {
+            PuzzleData p = generator.generatePuzzle();
+            int[][] grid = PuzzleFixtures.prefill(p.solution, size * size / 3, PuzzleFixtures.SEED + i);
+            strategies[i] = new StrategyDnC(grid, p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+        }
+    }
+
+    private StrategyDnC nextStrategy() {
+        StrategyDnC s = strategies[next];
+        next = (next + 1) % PUZZLES;
+        return s;
+    }
+
+    @Benchmark
+    public int[] findBestMove() {
+        return nextStrategy().findBestMove();
+    }
+
+    @Benchmark
+    public double[][] evaluateBoard() {
+        return nextStrategy().evaluateBoard();
+    }
+}
@@ -0,0 +1,103 @@
+package FOR_EVal2;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * How far each CPU player is from perfect play, measured against the
+ * {@link GameTablebase} of a fixture puzzle. Every strategy moves from the
+ * same seeded random positions, and each move's loss is the exact value of
+ * the best move minus the exact value of the chosen one.
+ *
+ * Not a JMH benchmark – it measures move quality, not time:
+ * <pre>java -cp benchmarks/target/benchmarks.jar FOR_EVal2.StrategyAudit [positions]</pre>
+ * The first run builds the tablebase (about 1.5 min) and saves it under
+ * {@code tablebases/}.
+ */
+public class StrategyAudit {
+
+    private static final int N = 4;
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        PuzzleData p = PuzzleFixtures.puzzles()[0];
+        GameState clues = new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+        GameTablebase tb = GameTablebase.request(clues).join();
+
+        Map<String, Function<GameState, Supplier<int[]>>> players = new LinkedHashMap<>();
+        players.put("LIVES",      s -> new StrategyLives(s)::findBestMove);
+        players.put("COMPLETION", s -> new StrategyCompletion(s)::findBestMove);
+        players.put("SCORE",      s -> new StrategyScore(s)::findBestMove);
+        players.put("MRV",        s -> new StrategyMRV(s)::findBestMove);
+        players.put("DP",         s -> {
+            StrategyDP dp = new StrategyDP(s);
+            dp.timeBudgetMs = 100;
+            return dp::findBestMove;
+        });
+        players.put("DNC",        s -> new StrategyDnC(s)::findBestMove);
+        players.put("ALPHA_BETA", s -> {
+            StrategyAlphaBeta ab = new StrategyAlphaBeta(s);
+            ab.timeBudgetMs = 100;
+            return ab::findBestMove;
+        });
+        players.put("MCTS", s -> {
+            StrategyMCTS mcts = new StrategyMCTS(s);
+            mcts.timeBudgetMs = 100;
+            return mcts::findBestMove;
+        });
+        players.put("EXPECTIMAX", s -> {
+            StrategyExpectimax em = new StrategyExpectimax(s, new HumanMoveModel());
+            em.timeBudgetMs = 100;
+            return em::findBestMove;
+        });
+
+        System.out.printf("%-11s %10s %10s %10s%n", "strategy", "mean loss", "optimal", "worst");
+        for (Map.Entry<String, Function<GameState, Supplier<int[]>>> e : players.entrySet()) {
+            Random rnd = new Random(PuzzleFixtures.SEED);   // same positions for every player
+            long totalLoss = 0;
+            int optimal = 0, worst = 0, audited = 0;
+            while (audited < positions) {
+                GameState s = randomPosition(p, rnd);
+                if (s == null) continue;
+                GameSim sim = new GameSim(s);
+                int bestMove = tb.bestMove(sim);
+                int best = tb.moveValue(sim, bestMove >> 3, bestMove & 7);
+
+                int[] m = e.getValue().apply(s).get();
+                int loss;
+                if (m == null) loss = best;
+                else if ((sim.legal(m[0] * N + m[1]) & 1 << (m[2] - 1)) == 0) loss = best + 100;   // rejected: −10 lives
+                else loss = best - tb.moveValue(sim, m[0] * N + m[1], m[2]);
+                totalLoss += loss;
+                worst = Math.max(worst, loss);
+                if (loss == 0) optimal++;
+                audited++;
+            }
+            System.out.printf("%-11s %10.2f %9.1f%% %10.1f%n", e.getKey(),
+                    totalLoss / 10.0 / positions, 100.0 * optimal / positions, worst / 10.0);
+        }
+    }
+
+    /** 1–12 random legal moves from the empty board, CPU to move; null if the game ended. */
+    private static GameState randomPosition(PuzzleData p, Random rnd) {
+        GameState s = new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+        int moves = 1 + rnd.nextInt(12);
+        for (int i = 0; i < moves; i++) {
+            if (s.isGameOver()) return null;
+            int r, c, v;
+            do {
+                r = rnd.nextInt(N); c = rnd.nextInt(N); v = 1 + rnd.nextInt(N);
+            } while (s.getGrid()[r][c] != 0 || !s.checkLegalMove(r, c, v));
+            s.makeMove(r, c, v, i % 2 == 0);
+        }
+        if (s.isGameOver()) return null;
+        s.setHumanTurn(false);
+        return s;
+    }
+}
@@ -0,0 +1,120 @@
+package FOR_EVal2;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Greedy, DP, D&C and alpha-beta CPU players of {@code FOR_EVal2.TowersssGameGUI}.
+ * Lives in the game's package because its {@code GameState} is package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+
+    private static final int N = 4;
+
+    @Param({"LIVES", "COMPLETION", "SCORE", "MRV", "DP", "DNC", "ALPHA_BETA", "MCTS", "EXPECTIMAX"})
+    public String strategy;
+
+    /** Cells already on the board when the CPU is asked to move. */
+    @Param({"2", "6", "10"})
+    public int filled;
+
+    private interface CellScorer {
+        double evaluateCell(int row, int col);
+    }
+
+    private GameState[] states;
+    private Supplier<int[]>[] bestMove;
+    private CellScorer[] heat;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        PuzzleData[] puzzles = PuzzleFixtures.puzzles();
+        states   = new GameState[puzzles.length];
+        bestMove = new Supplier[puzzles.length];
+        heat     = new CellScorer[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            PuzzleData p = puzzles[i];
+            GameState s = new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+            PuzzleFixtures.load(s.getGrid(),
+                    PuzzleFixtures.prefill(p.solution, filled, PuzzleFixtures.SEED + i));
+            states[i] = s;
+            switch (strategy) {
+                case "LIVES" -> {
+                    StrategyLives st = new StrategyLives(s);
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "COMPLETION" -> {
+                    StrategyCompletion st = new StrategyCompletion(s);
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "SCORE" -> {
+                    StrategyScore st = new StrategyScore(s);
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "MRV" -> {
+                    StrategyMRV st = new StrategyMRV(s);
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "DP" -> {
+                    StrategyDP st = new StrategyDP(s);
+                    st.timeBudgetMs = 20;
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "DNC" -> {
+                    StrategyDnC st = new StrategyDnC(s);
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "ALPHA_BETA" -> {
+                    StrategyAlphaBeta st = new StrategyAlphaBeta(s);
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "MCTS" -> {
+                    StrategyMCTS st = new StrategyMCTS(s);
+                    st.timeBudgetMs = 20;
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                case "EXPECTIMAX" -> {
+                    StrategyExpectimax st = new StrategyExpectimax(s, new HumanMoveModel());
+                    st.timeBudgetMs = 20;
+                    bestMove[i] = st::findBestMove; heat[i] = st::evaluateCell;
+                }
+                default -> throw new IllegalArgumentException("Unknown strategy: " + strategy);
+            }
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) % states.length;
+        return i;
+    }
+
+    @Benchmark
+    public int[] findBestMove() {
+        return bestMove[nextIndex()].get();
+    }
+
+    /** What {@code updateHeatMap} does: {@code evaluateCell} for every empty cell. */
+    @Benchmark
+    public void evaluateCell(Blackhole bh) {
+        int i = nextIndex();
+        int[][] grid = states[i].getGrid();
+        CellScorer scorer = heat[i];
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++)
+                if (grid[r][c] == 0) bh.consume(scorer.evaluateCell(r, c));
+    }
+}
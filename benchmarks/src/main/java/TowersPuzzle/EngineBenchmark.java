@@ -0,0 +1,103 @@
+package TowersPuzzle;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Engine hot paths: constraint check, visibility counting, move application
+ * and puzzle generation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    private static final int N = 4;
+
+    /** Cells pre-filled on the mid-game board used by {@code hasConflict}. */
+    private static final int FILLED = 6;
+
+    private PuzzleData[] puzzles;
+    private int[][][] midGame;
+    private GameState[] solved;
+    private TowersConstraintGraph graph;
+    private PuzzleGenerator generator;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        puzzles  = PuzzleFixtures.puzzles();
+        midGame  = new int[puzzles.length][][];
+        solved   = new GameState[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            PuzzleData p = puzzles[i];
+            midGame[i] = PuzzleFixtures.prefill(p.solution, FILLED, PuzzleFixtures.SEED + i);
+            solved[i]  = new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+            PuzzleFixtures.load(solved[i].getGrid(), p.solution);
+        }
+        graph     = new TowersConstraintGraph();
+        generator = new PuzzleGenerator(PuzzleFixtures.SEED);
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) % puzzles.length;
+        return i;
+    }
+
+    /** Every (cell, value) probe on one mid-game board – 64 calls. */
+    @Benchmark
+    public int hasConflict() {
+        int[][] grid = midGame[nextIndex()];
+        int conflicts = 0;
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++)
+                for (int v = 1; v <= N; v++)
+                    if (graph.hasConflict(grid, r, c, v)) conflicts++;
+        return conflicts;
+    }
+
+    /** All four rows and four columns of a solved board. */
+    @Benchmark
+    public void visibility(Blackhole bh) {
+        GameState s = solved[nextIndex()];
+        for (int i = 0; i < N; i++) {
+            bh.consume(s.validateRowVisibility(i));
+            bh.consume(s.validateColumnVisibility(i));
+        }
+    }
+
+    /** Baseline for {@link #makeMove}: building the state and its constraint graph. */
+    @Benchmark
+    public GameState newGameState() {
+        PuzzleData p = puzzles[nextIndex()];
+        return new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+    }
+
+    /** Plays the whole solution (16 moves, alternating players) onto a fresh state. */
+    @Benchmark
+    public GameState makeMove() {
+        PuzzleData p = puzzles[nextIndex()];
+        GameState s = new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+        boolean human = true;
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++) {
+                s.makeMove(r, c, p.solution[r][c], human);
+                human = !human;
+            }
+        return s;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public PuzzleData generatePuzzle() {
+        return generator.generatePuzzle();
+    }
+}
@@ -0,0 +1,58 @@
+package TowersPuzzle;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Random access into a memory-mapped {@link PuzzleBank} built from the fixture set. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PuzzleBankBenchmark {
+
+    private static final int PUZZLES = 1 << 16;
+
+    private Path file;
+    private PuzzleBank bank;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("bench", ".bank");
+        PuzzleGenerator generator = new PuzzleGenerator(PuzzleFixtures.SEED);
+        try (PuzzleBankWriter w = new PuzzleBankWriter(file, 4)) {
+            for (int i = 0; i < PUZZLES; i++) w.add(generator.generatePuzzle());
+        }
+        bank = new PuzzleBank(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        bank.close();
+        Files.deleteIfExists(file);
+    }
+
+    /** Stride through the bank so consecutive reads hit different pages. */
+    private long nextIndex() {
+        next = (next + 4099) & (PUZZLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public PuzzleData get() {
+        return bank.get(nextIndex());
+    }
+
+    @Benchmark
+    public long rawClueWord() {
+        return bank.word(nextIndex(), 0);
+    }
+}
@@ -0,0 +1,49 @@
+package TowersPuzzle;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link SolverEngine} runs with no step delay and a no-op callback,
+ * so the cost is the search itself plus the per-event grid snapshots.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    /** {@code SolverEngine.maxSolutions}; 0 enumerates every solution. */
+    @Param({"1", "0"})
+    public int maxSolutions;
+
+    private static final SolverEngine.SolverCallback NO_OP =
+            (type, row, col, value, gridSnapshot, stats, message) -> { };
+
+    private PuzzleData[] puzzles;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        puzzles = PuzzleFixtures.puzzles();
+    }
+
+    @Benchmark
+    public long solve() {
+        PuzzleData p = puzzles[next];
+        next = (next + 1) % puzzles.length;
+
+        StatsTracker stats = new StatsTracker();
+        SolverEngine engine = new SolverEngine(stats, NO_OP,
+                p.topClues, p.bottomClues, p.leftClues, p.rightClues);
+        engine.stepDelay    = 0;
+        engine.maxSolutions = maxSolutions;
+        engine.run();
+        return stats.getNodesExplored();
+    }
+}
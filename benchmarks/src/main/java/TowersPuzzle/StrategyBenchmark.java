@@ -0,0 +1,74 @@
+package TowersPuzzle;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backtracking CPU players of {@code TowersGameGUI}: one CPU move and one
+ * full heat-map sweep per invocation, over the seeded puzzle set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+
+    private static final int N = 4;
+
+    @Param({"FC", "TS"})
+    public String algo;
+
+    /** Cells already on the board when the CPU is asked to move. */
+    @Param({"2", "6", "10"})
+    public int filled;
+
+    private GameState[] states;
+    private StrategyBTForwardCheck[] fc;
+    private StrategyBTTrapSetter[] ts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PuzzleData[] puzzles = PuzzleFixtures.puzzles();
+        states = new GameState[puzzles.length];
+        fc = new StrategyBTForwardCheck[puzzles.length];
+        ts = new StrategyBTTrapSetter[puzzles.length];
+        for (int i = 0; i < puzzles.length; i++) {
+            PuzzleData p = puzzles[i];
+            states[i] = new GameState(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+            PuzzleFixtures.load(states[i].getGrid(),
+                    PuzzleFixtures.prefill(p.solution, filled, PuzzleFixtures.SEED + i));
+            fc[i] = new StrategyBTForwardCheck(states[i]);
+            ts[i] = new StrategyBTTrapSetter(states[i]);
+        }
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = (i + 1) % states.length;
+        return i;
+    }
+
+    @Benchmark
+    public int[] findBestMove() {
+        int i = nextIndex();
+        return "FC".equals(algo) ? fc[i].findBestMove() : ts[i].findBestMove();
+    }
+
+    /** What {@code updateHeat} does: {@code evaluateCell} for every empty cell. */
+    @Benchmark
+    public void evaluateCell(Blackhole bh) {
+        int i = nextIndex();
+        int[][] grid = states[i].getGrid();
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++)
+                if (grid[r][c] == 0)
+                    bh.consume("FC".equals(algo) ? fc[i].evaluateCell(r, c) : ts[i].evaluateCell(r, c));
+    }
+}
@@ -0,0 +1,70 @@
+package TowersPuzzle;
+
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+import bench.PuzzleFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unique, minimal-clue puzzle generation throughput (target: thousands per
+ * second at 4×4 and 5×5), and the uniqueness check alone – bounded search
+ * vs. {@link ClueDatabase} lookup – and {@link DifficultyRater} throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class UniquePuzzleBenchmark {
+
+    @Param({"4", "5"})
+    public int size;
+
+    private PuzzleGenerator generator;
+    private SolutionCounter counter;
+    private ClueDatabase database;
+    private DifficultyRater rater;
+    private PuzzleData[] minimal;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generator = new PuzzleGenerator(size, PuzzleFixtures.SEED);
+        counter   = new SolutionCounter(size);
+        database  = ClueDatabase.forSize(size);
+        rater     = new DifficultyRater(size);
+
+        PuzzleGenerator fixtures = new PuzzleGenerator(size, PuzzleFixtures.SEED + 1);
+        minimal = new PuzzleData[PuzzleFixtures.SET_SIZE];
+        for (int i = 0; i < minimal.length; i++) minimal[i] = fixtures.generateUniquePuzzle();
+    }
+
+    @Benchmark
+    public PuzzleData generateUniquePuzzle() {
+        return generator.generateUniquePuzzle();
+    }
+
+    /** Uniqueness check on minimal-clue puzzles – the counter's worst case, a full search. */
+    @Benchmark
+    public boolean isUnique() {
+        PuzzleData p = minimal[next];
+        next = (next + 1) % minimal.length;
+        return counter.isUnique(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+    }
+
+    @Benchmark
+    public boolean isUniqueLookup() {
+        PuzzleData p = minimal[next];
+        next = (next + 1) % minimal.length;
+        return database.isUnique(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+    }
+
+    @Benchmark
+    public DifficultyRater.Rating rate() {
+        PuzzleData p = minimal[next];
+        next = (next + 1) % minimal.length;
+        return rater.rate(p);
+    }
+}
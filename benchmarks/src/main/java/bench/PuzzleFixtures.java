@@ -0,0 +1,61 @@
+package bench;
+
+import TowersPuzzle.PuzzleGenerator;
+import TowersPuzzle.PuzzleGenerator.PuzzleData;
+
+import java.util.Random;
+
+/**
+ * Fixed, seeded puzzle sets shared by every benchmark so runs are comparable
+ * across machines and commits.
+ */
+public final class PuzzleFixtures {
+
+    /** Seed for the benchmark puzzle set – change it and results are no longer comparable. */
+    public static final long SEED = 20_231_017L;
+
+    /** Number of puzzles each benchmark cycles through. */
+    public static final int SET_SIZE = 64;
+
+    private PuzzleFixtures() {
+    }
+
+    public static PuzzleData[] puzzles() {
+        return puzzles(SEED, SET_SIZE);
+    }
+
+    public static PuzzleData[] puzzles(long seed, int count) {
+        PuzzleGenerator generator = new PuzzleGenerator(seed);
+        PuzzleData[] set = new PuzzleData[count];
+        for (int i = 0; i < count; i++) set[i] = generator.generatePuzzle();
+        return set;
+    }
+
+    /**
+     * A mid-game board: {@code filled} cells copied from the solution,
+     * chosen by a seeded shuffle so every cell is always consistent with the clues.
+     */
+    public static int[][] prefill(int[][] solution, int filled, long seed) {
+        int n = solution.length;
+        int[] order = new int[n * n];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+
+        Random random = new Random(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+
+        int[][] grid = new int[n][n];
+        for (int i = 0; i < filled; i++) {
+            int r = order[i] / n, c = order[i] % n;
+            grid[r][c] = solution[r][c];
+        }
+        return grid;
+    }
+
+    /** Copies {@code src} into the live grid returned by a {@code GameState}. */
+    public static void load(int[][] dest, int[][] src) {
+        for (int r = 0; r < src.length; r++) System.arraycopy(src[r], 0, dest[r], 0, src[r].length);
+    }
+}
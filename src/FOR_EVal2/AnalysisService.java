@@ -0,0 +1,316 @@
+package FOR_EVal2;
+
+import FOR_EVal2.TowersssGameGUI.AlgoChoice;
+import TowersPuzzle.FlightEvents;
+import TowersPuzzle.Metrics;
+import TowersPuzzle.SearchCounters;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * AnalysisService – keeps every strategy's move and heat map current for the
+ * board on screen, so switching or comparing strategies is instant.
+ *
+ * Each {@link AlgoChoice} has a lane: one daemon thread and a private copy of
+ * the game that the lane's strategy plays on. Work on a lane runs in order,
+ * so a strategy and its caches only ever see one thread, while the lanes run
+ * side by side. {@link #analyse} snapshots the board and queues a fresh
+ * analysis on every lane. Work queued for an older board is cancelled, and
+ * work already running for one stops at its next heat-map cell, or within
+ * about a thousand nodes of a move search. Heat-map
+ * cells are published one at a time through a {@link HeatStream}, so the
+ * GUI can paint them while the rest are still being scored.
+ *
+ * Perfect play builds a tablebase per puzzle, so its lane only runs once it
+ * has been chosen. Call everything except the returned futures from the EDT.
+ */
+public class AnalysisService {
+
+    /** One strategy's view of one board. */
+    public static class Analysis {
+        public final AlgoChoice algo;
+        public final int        board;         // generation it was computed for
+        public final double[][] heat;          // normalised to [0, 1]
+        public final int[]      move;          // {row, col, value}, null = no legal move
+        public final String     explanation;
+        public final long       micros;
+
+        Analysis(AlgoChoice algo, int board, double[][] heat, int[] move, String explanation, long micros) {
+            this.algo = algo;
+            this.board = board;
+            this.heat = heat;
+            this.move = move;
+            this.explanation = explanation;
+            this.micros = micros;
+        }
+    }
+
+    /**
+     * One strategy's heat map for one board, filled in row-major order while
+     * it is computed. Cells below {@link #ready()} are final; a failed or
+     * cancelled search marks the stream {@link #finished()} early.
+     */
+    public static class HeatStream {
+        public final int board;                // generation it belongs to
+        private final double[] raw;            // unnormalised scores, 0 = filled cell
+        private volatile int     ready;
+        private volatile boolean stopped;
+
+        HeatStream(int board, int cells) {
+            this.board = board;
+            this.raw = new double[cells];
+        }
+
+        /** Cells scored so far. */
+        public int ready() { return ready; }
+
+        /** True once no more cells will arrive. */
+        public boolean finished() { return stopped || ready == raw.length; }
+
+        /** The best score among the first {@code upTo} cells. */
+        public double max(int upTo) {
+            double max = 0;
+            for (int i = 0; i < upTo; i++) max = Math.max(max, raw[i]);
+            return max;
+        }
+
+        /** The cell's score relative to {@code max}, in [0, 1]. */
+        public double normalised(int cell, double max) {
+            return max > 0 ? raw[cell] / max : 0;
+        }
+
+        void publish(int cell, double score) {
+            raw[cell] = score;
+            ready = cell + 1;                  // volatile write publishes raw[cell]
+        }
+
+        void stop() { stopped = true; }
+    }
+
+    /** What a lane needs from a strategy. */
+    private static final class Player {
+        final Supplier<int[]>      move;
+        final CellScorer           cell;       // per-cell heat, or
+        final Supplier<double[][]> board;      // the whole board in one pass
+        final SearchCounters       counters;   // for the MoveSearch event, or null
+
+        Player(Supplier<int[]> move, CellScorer cell, Supplier<double[][]> board, SearchCounters counters) {
+            this.move = move;
+            this.cell = cell;
+            this.board = board;
+            this.counters = counters;
+        }
+    }
+
+    private interface CellScorer { double score(int row, int col); }
+
+    private static final class Lane {
+        final AlgoChoice      algo;
+        final ExecutorService thread;
+        boolean  enabled;
+        GameState mirror;                      // lane thread only
+        Player    player;                      // lane thread only
+        volatile int working;                  // generation being analysed, read by search workers
+        CompletableFuture<Analysis> result;
+        volatile HeatStream heat;
+
+        Lane(AlgoChoice algo) {
+            this.algo = algo;
+            this.thread = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "analysis-" + algo.name().toLowerCase());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private final Lane[] lanes;
+    private GameState    latest;               // snapshot of the last board analysed
+    private int          generation;
+    private volatile int live;                 // generation lanes should still work on
+    private volatile Consumer<Analysis> listener;
+
+    public AnalysisService() {
+        AlgoChoice[] algos = AlgoChoice.values();
+        lanes = new Lane[algos.length];
+        for (int i = 0; i < algos.length; i++) lanes[i] = new Lane(algos[i]);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PUBLIC API
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Fresh strategies for a new puzzle; {@code selected} is the one playing. */
+    public void newGame(GameState game, AlgoChoice selected) {
+        latest = game.copy();
+        live = ++generation;
+        for (Lane lane : lanes) {
+            cancel(lane);
+            lane.enabled = lane.algo != AlgoChoice.PERFECT || lane.algo == selected;
+            if (lane.enabled) reset(lane, latest.copy());
+        }
+    }
+
+    /** Re-analyses {@code game} on every lane, dropping work for older boards. */
+    public void analyse(GameState game) {
+        latest = game.copy();
+        live = ++generation;
+        for (Lane lane : lanes) {
+            cancel(lane);
+            if (lane.enabled) submit(lane);
+        }
+    }
+
+    /** The strategy's analysis of the current board, started now if its lane was idle. */
+    public CompletableFuture<Analysis> result(AlgoChoice algo) {
+        return lane(algo).result;
+    }
+
+    /** The strategy's heat map for the current board, as far as it has got. */
+    public HeatStream heat(AlgoChoice algo) {
+        return lane(algo).heat;
+    }
+
+    /** The analysis if it is in for the current board, else null. */
+    public Analysis ready(AlgoChoice algo) {
+        CompletableFuture<Analysis> f = lanes[algo.ordinal()].result;
+        return f != null && f.isDone() && !f.isCompletedExceptionally() ? f.join() : null;
+    }
+
+    /** False for a lane that has not been chosen yet (Perfect play). */
+    public boolean enabled(AlgoChoice algo) { return lanes[algo.ordinal()].enabled; }
+
+    /** Called on the lane's thread as each analysis finishes. */
+    public void onResult(Consumer<Analysis> listener) { this.listener = listener; }
+
+    /** Bumped by every {@link #newGame} and {@link #analyse}. */
+    public int generation() { return generation; }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  LANES
+    // ════════════════════════════════════════════════════════════════════════
+
+    private Lane lane(AlgoChoice algo) {
+        Lane lane = lanes[algo.ordinal()];
+        if (!lane.enabled) {
+            lane.enabled = true;
+            reset(lane, latest.copy());
+            submit(lane);
+        }
+        return lane;
+    }
+
+    private void reset(Lane lane, GameState start) {
+        lane.thread.execute(() -> {
+            lane.mirror = start;
+            lane.player = player(lane.algo, start, () -> live != lane.working);
+        });
+    }
+
+    private void submit(Lane lane) {
+        GameState board = latest;
+        int gen = generation;
+        HeatStream heat = new HeatStream(gen, board.getSize() * board.getSize());
+        lane.heat = heat;
+        lane.result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return run(lane, board, heat);
+            } finally {
+                heat.stop();
+            }
+        }, lane.thread);
+        lane.result.thenAccept(a -> {
+            Consumer<Analysis> l = listener;
+            if (l != null) l.accept(a);
+        });
+    }
+
+    private static void cancel(Lane lane) {
+        if (lane.result != null) lane.result.cancel(false);
+        if (lane.heat != null) lane.heat.stop();
+    }
+
+    private Analysis run(Lane lane, GameState board, HeatStream stream) {
+        long start = System.nanoTime();
+        int gen = stream.board;
+        lane.working = gen;
+        lane.mirror.copyFrom(board);
+        int[][] grid = lane.mirror.getGrid();
+        int n = lane.mirror.getSize();
+
+        FlightEvents.CellBatch batch = new FlightEvents.CellBatch();
+        batch.begin();
+        Metrics.Strategy metrics = Metrics.strategy(lane.algo.name());
+        double[][] all = lane.player.board != null ? lane.player.board.get() : null;
+        for (int r = 0; r < n; r++)
+            for (int c = 0; c < n; c++) {
+                if (live != gen) throw new CancellationException();
+                double score;
+                if (grid[r][c] != 0) score = 0;
+                else if (all != null) score = all[r][c];
+                else {
+                    long t = System.nanoTime();
+                    score = lane.player.cell.score(r, c);
+                    metrics.cellEvaluated(System.nanoTime() - t);
+                }
+                stream.publish(r * n + c, score);
+            }
+        batch.end();
+        if (batch.shouldCommit()) {
+            batch.strategy = lane.algo.name();
+            batch.cells    = n * n;
+            batch.commit();
+        }
+        double[][] heat = new double[n][n];
+        double max = stream.max(n * n);
+        for (int i = 0; i < n * n; i++) heat[i / n][i % n] = stream.normalised(i, max);
+
+        if (live != gen) throw new CancellationException();
+        int[] move = FlightEvents.searchMove(lane.algo.name(), lane.player.counters, lane.player.move);
+        if (live != gen) throw new CancellationException();      // cut short for a newer board
+        return new Analysis(lane.algo, gen, heat, move, lane.mirror.getCpuReasoningExplanation(),
+                (System.nanoTime() - start) / 1_000);
+    }
+
+    /** {@code stale} turns true when a newer board arrives; the timed searches poll it. */
+    private static Player player(AlgoChoice algo, GameState s, BooleanSupplier stale) {
+        return switch (algo) {
+            case DP -> {
+                StrategyDP p = new StrategyDP(s);
+                p.abortWhen = stale;
+                yield new Player(p::findBestMove, p::evaluateCell, null, p);
+            }
+            case DNC -> {
+                // D&C scores the whole board in one parallel pass
+                StrategyDnC p = new StrategyDnC(s);
+                yield new Player(p::findBestMove, null, p::evaluateBoard, null);
+            }
+            case ALPHA_BETA -> {
+                StrategyAlphaBeta p = new StrategyAlphaBeta(s);
+                p.abortWhen = stale;
+                yield new Player(p::findBestMove, p::evaluateCell, null, p);
+            }
+            case MCTS -> {
+                StrategyMCTS p = new StrategyMCTS(s);
+                p.abortWhen = stale;
+                yield new Player(p::findBestMove, p::evaluateCell, null, p);
+            }
+            case EXPECTIMAX -> {
+                StrategyExpectimax p = new StrategyExpectimax(s);
+                p.abortWhen = stale;
+                yield new Player(p::findBestMove, p::evaluateCell, null, p);
+            }
+            case PERFECT -> {
+                // starts loading (or building) this puzzle's tablebase in the background
+                StrategyPerfect p = new StrategyPerfect(s);
+                yield new Player(p::findBestMove, p::evaluateCell, null, null);
+            }
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package FOR_EVal2;
 
+import TowersPuzzle.FlightEvents;
+
 import java.util.ArrayList;
 import java.util.List;
 //core class of the game file responsible for the core activities of the game
@@ -109,7 +111,43 @@ class GameState {
         System.arraycopy(left, 0, this.leftClues, 0, SIZE);
     }
 
+    /** An independent copy of this game, for searching off the EDT. */
+    public GameState copy() {
+        GameState g = new GameState(topClues, rightClues, bottomClues, leftClues);
+        g.copyFrom(this);
+        return g;
+    }
+
+    /** Takes over another game's board, scores, lives and turn; the clues must match. */
+    public void copyFrom(GameState o) {
+        for (int r = 0; r < SIZE; r++) System.arraycopy(o.grid[r], 0, grid[r], 0, SIZE);
+        humanScore = o.humanScore;  cpuScore = o.cpuScore;
+        humanLives = o.humanLives;  cpuLives = o.cpuLives;
+        isHumanTurn = o.isHumanTurn;
+    }
+
     public boolean makeMove(int row, int col, int value, boolean isHuman) {
+        FlightEvents.MakeMove e = new FlightEvents.MakeMove();
+        if (!e.isEnabled()) return applyMove(row, col, value, isHuman);
+        int score = isHuman ? humanScore : cpuScore;
+        int lives = isHuman ? humanLives : cpuLives;
+        e.begin();
+        boolean placed = applyMove(row, col, value, isHuman);
+        e.end();
+        if (e.shouldCommit()) {
+            e.row        = row;
+            e.col        = col;
+            e.value      = value;
+            e.human      = isHuman;
+            e.placed     = placed;
+            e.scoreDelta = (isHuman ? humanScore : cpuScore) - score;
+            e.livesDelta = (isHuman ? humanLives : cpuLives) - lives;
+            e.commit();
+        }
+        return placed;
+    }
+
+    private boolean applyMove(int row, int col, int value, boolean isHuman) {
         // 1. Check if cell is occupied
         if (grid[row][col] != 0) {
             statusMessage = "❌ Cell already filled!";
@@ -194,7 +232,9 @@ class GameState {
     public boolean validateRowVisibility(int row) {
         int leftCount = countVisible(grid[row], true);
         int rightCount = countVisible(grid[row], false);
-        return leftCount == leftClues[row] && rightCount == rightClues[row];
+        // A clue of 0 means the puzzle gives no clue on that side
+        return (leftClues[row] == 0 || leftCount == leftClues[row])
+                && (rightClues[row] == 0 || rightCount == rightClues[row]);
     }
 
     public boolean validateColumnVisibility(int col) {
@@ -203,7 +243,8 @@ class GameState {
             colVals[r] = grid[r][col];
         int topCount = countVisible(colVals, true);
         int bottomCount = countVisible(colVals, false);
-        return topCount == topClues[col] && bottomCount == bottomClues[col];
+        return (topClues[col] == 0 || topCount == topClues[col])
+                && (bottomClues[col] == 0 || bottomCount == bottomClues[col]);
     }
 
     private int countVisible(int[] buildings, boolean forward) {
@@ -0,0 +1,161 @@
+package FOR_EVal2;
+
+/**
+ * GameSim – compact, undoable copy of a {@link GameState} for game-tree search.
+ *
+ * Plays by the same rules as {@code GameState.makeMove}:
+ * <ul>
+ *   <li>+1 point when the move completes neither its row nor its column;</li>
+ *   <li>+15 per completed line whose clues hold, −15 lives per line whose clues fail;</li>
+ *   <li>the game ends when a player has no lives left or nobody can move. No
+ *       legal move for anyone is the same test as {@code isGameOver}, so the
+ *       deadlock skip in {@code checkForDeadlock} never fires before the end.</li>
+ * </ul>
+ * Only legal placements are generated – the GUI disables conflicting values
+ * and no strategy plays one. Totals are kept in tenths of a point
+ * (score × 10 + lives), the final {@code getWinner} comparison with lives
+ * not rounded down.
+ */
+class GameSim {
+
+    static final int SIZE  = 4;
+    static final int CELLS = SIZE * SIZE;
+    static final int FULL  = (1 << SIZE) - 1;
+
+    static final int KO = 100_000;   // a win by lives, in tenths
+
+    final int[] cells = new int[CELLS];
+    final int[] rowUsed = new int[SIZE], colUsed = new int[SIZE];   // height bits
+    private final int[] top, right, bottom, left;
+
+    int humanScore, cpuScore, humanLives, cpuLives;
+    boolean humanToMove;
+    int empty;
+
+    private final int[] undoReward = new int[CELLS + 1];
+    private final int[] undoLives  = new int[CELLS + 1];
+    private int ply;
+
+    GameSim(GameState s) {
+        top = s.getTopClues(); right = s.getRightClues();
+        bottom = s.getBottomClues(); left = s.getLeftClues();
+        int[][] g = s.getGrid();
+        for (int r = 0; r < SIZE; r++)
+            for (int c = 0; c < SIZE; c++) {
+                int v = g[r][c];
+                cells[r * SIZE + c] = v;
+                if (v == 0) { empty++; continue; }
+                rowUsed[r] |= 1 << (v - 1);
+                colUsed[c] |= 1 << (v - 1);
+            }
+        humanScore = s.getHumanScore(); cpuScore = s.getCpuScore();
+        humanLives = s.getHumanLives(); cpuLives = s.getCpuLives();
+        humanToMove = s.isHumanTurn();
+    }
+
+    /** Legal heights at {@code cell} as bits (bit v-1 = height v); 0 if filled. */
+    int legal(int cell) {
+        if (cells[cell] != 0) return 0;
+        return FULL & ~(rowUsed[cell / SIZE] | colUsed[cell % SIZE]);
+    }
+
+    boolean hasMoves() {
+        for (int i = 0; i < CELLS; i++) if (legal(i) != 0) return true;
+        return false;
+    }
+
+    boolean isOver() {
+        return humanLives <= 0 || cpuLives <= 0 || !hasMoves();
+    }
+
+    /**
+     * Plays {@code v} at {@code cell} for the side to move and passes the turn.
+     * Returns the mover's gain in tenths (points × 10 − lives lost).
+     */
+    int play(int cell, int v) {
+        int r = cell / SIZE, c = cell % SIZE, bit = 1 << (v - 1);
+        cells[cell] = v;
+        rowUsed[r] |= bit;
+        colUsed[c] |= bit;
+        empty--;
+
+        int points = 0, lost = 0;
+        boolean rowDone = rowUsed[r] == FULL, colDone = colUsed[c] == FULL;
+        if (rowDone) { if (rowValid(r)) points += 15; else lost += 15; }
+        if (colDone) { if (colValid(c)) points += 15; else lost += 15; }
+        if (!rowDone && !colDone) points = 1;
+
+        if (humanToMove) { humanScore += points; lost = Math.min(lost, humanLives); humanLives -= lost; }
+        else             { cpuScore   += points; lost = Math.min(lost, cpuLives);   cpuLives   -= lost; }
+        undoReward[ply] = points;
+        undoLives[ply]  = lost;
+        ply++;
+        humanToMove = !humanToMove;
+        return points * 10 - lost;
+    }
+
+    void undo(int cell) {
+        ply--;
+        humanToMove = !humanToMove;
+        if (humanToMove) { humanScore -= undoReward[ply]; humanLives += undoLives[ply]; }
+        else             { cpuScore   -= undoReward[ply]; cpuLives   += undoLives[ply]; }
+        int v = cells[cell], bit = 1 << (v - 1);
+        cells[cell] = 0;
+        rowUsed[cell / SIZE] &= ~bit;
+        colUsed[cell % SIZE] &= ~bit;
+        empty++;
+    }
+
+    /** Gain in tenths {@link #play} would return, without playing. */
+    int previewGain(int cell, int v) {
+        int gain = play(cell, v);
+        undo(cell);
+        return gain;
+    }
+
+    /**
+     * Value of a finished game for the side to move, in tenths: its total
+     * minus the opponent's, or ±{@link #KO} when someone is out of lives.
+     */
+    int terminalValue() {
+        int mine  = humanToMove ? humanLives : cpuLives;
+        int yours = humanToMove ? cpuLives : humanLives;
+        if (mine <= 0 && yours <= 0) return 0;
+        if (mine <= 0)  return -KO;
+        if (yours <= 0) return KO;
+        return 0;
+    }
+
+    /** Board, lives and side to move – everything the rest of the game depends on. */
+    long key() {
+        long k = 0;
+        for (int v : cells) k = (k << 3) | v;                 // 48 bits
+        k = (k << 7) | Math.min(humanLives, 127);
+        k = (k << 7) | Math.min(cpuLives, 127);
+        return (k << 1) | (humanToMove ? 1 : 0);
+    }
+
+    int movesMade() { return ply; }
+
+    // ── Clue checks on a full line ───────────────────────────────────────────
+
+    private boolean rowValid(int r) {
+        int fromLeft = 0, fromRight = 0, maxL = 0, maxR = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int a = cells[r * SIZE + i], b = cells[r * SIZE + SIZE - 1 - i];
+            if (a > maxL) { maxL = a; fromLeft++; }
+            if (b > maxR) { maxR = b; fromRight++; }
+        }
+        return (left[r] == 0 || left[r] == fromLeft) && (right[r] == 0 || right[r] == fromRight);
+    }
+
+    private boolean colValid(int c) {
+        int fromTop = 0, fromBottom = 0, maxT = 0, maxB = 0;
+        for (int i = 0; i < SIZE; i++) {
+            int a = cells[i * SIZE + c], b = cells[(SIZE - 1 - i) * SIZE + c];
+            if (a > maxT) { maxT = a; fromTop++; }
+            if (b > maxB) { maxB = b; fromBottom++; }
+        }
+        return (top[c] == 0 || top[c] == fromTop) && (bottom[c] == 0 || bottom[c] == fromBottom);
+    }
+}
@@ -0,0 +1,407 @@
+package FOR_EVal2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * GameTablebase – perfect-play value of every position of the 4×4 game for
+ * one clue set.
+ *
+ * A position is a partial Latin square. The side to move follows from the
+ * number of filled cells (the human moves first and nobody ever passes), and
+ * scoring follows {@link GameSim}. Each position's value, in tenths of a
+ * point for the side to move, is one short in a dense array.
+ *
+ * Dense index: a partial row is one of 209 codes. A board's rank counts the
+ * boards that come before it, row by row, using precomputed completion
+ * counts for each set of heights already used per column. The 127,545,137
+ * positions rank into 0..count-1 with no gaps. That is 255 MB of values.
+ *
+ * File layout (big-endian): 32-byte header – magic 'TWTB', version short,
+ * N byte, a reserved byte, 16 clue bytes (top, right, bottom, left), then
+ * int count and 4 reserved bytes. The values follow as shorts. Loaded files
+ * are memory-mapped read-only.
+ *
+ * Lives only decide the game when one player botches 7 of the 8 lines, so a
+ * knock-out is not modelled: a lost life is worth a tenth of a point, with
+ * no floor at zero lives.
+ */
+public class GameTablebase implements Closeable {
+
+    public static final int MAGIC        = 0x54575442;   // "TWTB"
+    public static final int VERSION      = 1;
+    public static final int HEADER_BYTES = 32;
+
+    private static final int  N      = GameSim.SIZE;
+    private static final int  CODES  = 209;               // partial rows of 1..4
+    private static final short UNKNOWN = Short.MIN_VALUE;
+
+    // ── Shared index tables (clue-independent) ───────────────────────────────
+    private static final int[]   CODE_OF = new int[625];  // base-5 row → code, -1 if not a partial permutation
+    private static final int[]   ROW_MASK = new int[CODES]; // bit c*4 + v-1 per filled cell
+    private static final int[][] USED_INDEX = new int[N][]; // USED_INDEX[i][U] – dense index of U before row i, -1 if unreachable
+    private static final int[][] PREFIX = new int[N][];     // PREFIX[i][index * CODES + code] – boards ranked before
+
+    private static final int     COUNT;
+
+    static {
+        Arrays.fill(CODE_OF, -1);
+        int codes = 0;
+        for (int b5 = 0; b5 < 625; b5++) {
+            int mask = 0, seen = 0;
+            boolean ok = true;
+            for (int c = 0, x = b5; c < N; c++, x /= 5) {
+                int v = x % 5;       // column 0 in the lowest digit
+                if (v == 0) continue;
+                if ((seen & (1 << v)) != 0) { ok = false; break; }
+                seen |= 1 << v;
+                mask |= 1 << (c * N + v - 1);
+            }
+            if (!ok) continue;
+            CODE_OF[b5] = codes;
+            ROW_MASK[codes++] = mask;
+        }
+
+        // completions[i][U] – ways to fill rows i..N-1 given the used-height set U
+        int[][] completions = new int[N + 1][1 << 16];
+        Arrays.fill(completions[N], 1);
+        for (int i = N - 1; i >= 0; i--)
+            for (int u = 0; u < 1 << 16; u++) {
+                int sum = 0;
+                for (int code = 0; code < CODES; code++)
+                    if ((ROW_MASK[code] & u) == 0) sum += completions[i + 1][u | ROW_MASK[code]];
+                completions[i][u] = sum;
+            }
+        COUNT = completions[0][0];
+
+        // Row i only meets the used sets rows 0..i-1 can make; index those densely
+        USED_INDEX[0] = new int[1 << 16];
+        Arrays.fill(USED_INDEX[0], -1);
+        USED_INDEX[0][0] = 0;
+        int reachable = 1;
+        for (int i = 0; i < N; i++) {
+            if (i + 1 < N) {
+                USED_INDEX[i + 1] = new int[1 << 16];
+                Arrays.fill(USED_INDEX[i + 1], -1);
+            }
+            PREFIX[i] = new int[reachable * CODES];
+            int next = 0;
+            for (int u = 0; u < 1 << 16; u++) {
+                int idx = USED_INDEX[i][u];
+                if (idx < 0) continue;
+                int sum = 0;
+                for (int code = 0; code < CODES; code++) {
+                    PREFIX[i][idx * CODES + code] = sum;
+                    if ((ROW_MASK[code] & u) != 0) continue;
+                    int v = u | ROW_MASK[code];
+                    sum += completions[i + 1][v];
+                    if (i + 1 < N && USED_INDEX[i + 1][v] < 0) USED_INDEX[i + 1][v] = next++;
+                }
+            }
+            reachable = next;
+        }
+    }
+
+    private final int[]       clues;     // top, right, bottom, left – 16 values
+    private final ShortBuffer values;
+    private final FileChannel channel;   // null when built in memory
+
+    private GameTablebase(int[] clues, ShortBuffer values, FileChannel channel) {
+        this.clues = clues;
+        this.values = values;
+        this.channel = channel;
+    }
+
+    /** Number of positions – partial Latin squares of order 4. */
+    public static int positionCount() { return COUNT; }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  LOOKUPS
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Perfect-play value for the side to move, in tenths of a point. */
+    public int value(int[] cells) {
+        return values.get(rank(cells));
+    }
+
+    /** Value of playing {@code v} at {@code cell} for the side to move: its gain minus the reply's value. */
+    int moveValue(GameSim sim, int cell, int v) {
+        int gain = sim.play(cell, v);
+        int after = sim.hasMoves() ? value(sim.cells) : 0;
+        sim.undo(cell);
+        return gain - after;
+    }
+
+    /** Best move as cell*8 + value, or -1 when nobody can move. */
+    int bestMove(GameSim sim) {
+        int best = -1, bestValue = Integer.MIN_VALUE;
+        for (int cell = 0; cell < GameSim.CELLS; cell++)
+            for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1) {
+                int v = Integer.numberOfTrailingZeros(bits) + 1;
+                int mv = moveValue(sim, cell, v);
+                if (mv > bestValue) { bestValue = mv; best = cell * 8 + v; }
+            }
+        return best;
+    }
+
+    boolean matches(GameState s) {
+        return Arrays.equals(clues, cluesOf(s));
+    }
+
+    /** Dense index of a board, 0..positionCount()-1. */
+    static int rank(int[] cells) {
+        int rank = 0, used = 0;
+        for (int r = 0; r < N; r++) {
+            int b5 = 0;
+            for (int c = N - 1; c >= 0; c--) b5 = b5 * 5 + cells[r * N + c];
+            int code = CODE_OF[b5];
+            rank += PREFIX[r][USED_INDEX[r][used] * CODES + code];
+            used |= ROW_MASK[code];
+        }
+        return rank;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  SOLVER
+    // ════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Solves every position for this clue set by memoised negamax from the
+     * empty board; each position is computed once. Takes minutes and 255 MB.
+     */
+    public static GameTablebase build(GameState clueSource) {
+        return build(clueSource, () -> false);
+    }
+
+    /** {@link #build(GameState)} that gives up with a {@link CancellationException} once {@code stop} is true. */
+    static GameTablebase build(GameState clueSource, BooleanSupplier stop) {
+        GameState empty = new GameState(clueSource.getTopClues(), clueSource.getRightClues(),
+                clueSource.getBottomClues(), clueSource.getLeftClues());
+        GameSim sim = new GameSim(empty);
+        sim.humanLives = sim.cpuLives = Integer.MAX_VALUE / 2;   // no knock-outs
+
+        short[] memo = new short[COUNT];
+        Arrays.fill(memo, UNKNOWN);
+        solve(sim, memo, stop);
+        return new GameTablebase(cluesOf(empty), ShortBuffer.wrap(memo), null);
+    }
+
+    private static int solve(GameSim sim, short[] memo, BooleanSupplier stop) {
+        int rank = rank(sim.cells);
+        if (memo[rank] != UNKNOWN) return memo[rank];
+        if (stop.getAsBoolean()) throw new CancellationException();
+
+        int best = Integer.MIN_VALUE;
+        for (int cell = 0; cell < GameSim.CELLS; cell++)
+            for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1) {
+                int v = Integer.numberOfTrailingZeros(bits) + 1;
+                int gain = sim.play(cell, v);
+                int value = gain - solve(sim, memo, stop);
+                sim.undo(cell);
+                if (value > best) best = value;
+            }
+        if (best == Integer.MIN_VALUE) best = 0;   // nobody can move: the game is over
+        memo[rank] = (short) best;
+        return best;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PERSISTENCE
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Writes the table to {@code file} via a temporary file, so readers never see half a table. */
+    public void save(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = dir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+            header.putInt(MAGIC).putShort((short) VERSION).put((byte) N).put((byte) 0);
+            for (int v : clues) header.put((byte) v);
+            header.putInt(COUNT);
+            header.position(HEADER_BYTES);
+            out.write(header.flip());
+
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.BIG_ENDIAN);
+            for (int i = 0; i < COUNT; i++) {
+                if (!buf.hasRemaining()) { buf.flip(); while (buf.hasRemaining()) out.write(buf); buf.clear(); }
+                buf.putShort(values.get(i));
+            }
+            buf.flip();
+            while (buf.hasRemaining()) out.write(buf);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Maps a saved table read-only. */
+    public static GameTablebase load(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            map.order(ByteOrder.BIG_ENDIAN);
+            if (map.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a tablebase (bad magic)");
+            if (map.getShort(4) != VERSION || map.get(6) != N)
+                throw new IOException(file + ": unsupported tablebase version or size");
+            if (map.getInt(24) != COUNT || ch.size() != HEADER_BYTES + 2L * COUNT)
+                throw new IOException(file + ": truncated or corrupt");
+            int[] clues = new int[4 * N];
+            for (int i = 0; i < clues.length; i++) clues[i] = map.get(8 + i);
+            return new GameTablebase(clues, map.position(HEADER_BYTES).slice().order(ByteOrder.BIG_ENDIAN)
+                    .asShortBuffer(), ch);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** Closes the file; a mapped table stays readable until it is garbage. */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    // ── The current puzzle's table, for the GUI ──────────────────────────────
+
+    /** A requested table: its file name and the future the builder completes. */
+    private static final class Request {
+        final String key;
+        final CompletableFuture<GameTablebase> table = new CompletableFuture<>();
+
+        Request(String key) { this.key = key; }
+    }
+
+    private static final Object  LOCK = new Object();
+    private static volatile Request current;                 // the puzzle being played, or null
+    private static final ExecutorService BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "tablebase-builder");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /**
+     * The table for {@code s}'s clues: mapped from
+     * {@code <-Dtowers.tablebases=tablebases>/<clues>.tb} if that file exists,
+     * else built on a background thread, saved there and mapped back, so the
+     * 255 MB build array does not outlive the build.
+     *
+     * Only one puzzle's table is kept: repeated requests for it share one
+     * future, and a request for another puzzle replaces it. The old future is
+     * cancelled if it is still queued or building (a build stops at its next
+     * new position), and the old table's file is closed. A failed request is
+     * dropped, so asking again retries.
+     */
+    public static CompletableFuture<GameTablebase> request(GameState s) {
+        Path file = pathFor(cluesOf(s));
+        Request req, old;
+        synchronized (LOCK) {
+            old = current;
+            if (old != null && old.key.equals(file.toString()) && !old.table.isCompletedExceptionally())
+                return old.table;
+            req = current = new Request(file.toString());
+        }
+        if (old != null) retire(old);
+
+        BooleanSupplier stale = () -> current != req;
+        BUILDER.execute(() -> {
+            if (stale.getAsBoolean()) { req.table.cancel(false); return; }
+            try {
+                GameTablebase tb = loadOrBuild(s, file, stale);
+                if (!req.table.complete(tb)) tb.close();      // replaced while loading
+            } catch (CancellationException e) {
+                req.table.cancel(false);
+            } catch (IOException | RuntimeException e) {
+                req.table.completeExceptionally(new IllegalStateException("Cannot load tablebase " + file, e));
+            }
+        });
+        req.table.whenComplete((tb, e) -> {
+            if (e == null) return;
+            synchronized (LOCK) {
+                if (current == req) current = null;
+            }
+        });
+        return req.table;
+    }
+
+    private static GameTablebase loadOrBuild(GameState s, Path file, BooleanSupplier stale) throws IOException {
+        if (Files.isReadable(file)) return load(file);
+        GameTablebase built = build(s, stale);
+        try {
+            built.save(file);
+            return load(file);
+        } catch (IOException e) {
+            System.err.println("Could not save tablebase " + file + ": " + e.getMessage());
+            return built;
+        }
+    }
+
+    /** Cancels a replaced request, or closes its table once it has one. */
+    private static void retire(Request old) {
+        old.table.cancel(false);
+        old.table.thenAccept(tb -> {
+            try {
+                tb.close();
+            } catch (IOException e) {
+                System.err.println("Could not close tablebase " + old.key + ": " + e.getMessage());
+            }
+        });
+    }
+
+    static Path pathFor(int[] clues) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < clues.length; i++) {
+            if (i > 0 && i % N == 0) name.append('-');
+            name.append(clues[i]);
+        }
+        return Paths.get(System.getProperty("towers.tablebases", "tablebases"), name + ".tb");
+    }
+
+    private static int[] cluesOf(GameState s) {
+        int[] clues = new int[4 * N];
+        int i = 0;
+        for (int[] side : new int[][] { s.getTopClues(), s.getRightClues(), s.getBottomClues(), s.getLeftClues() })
+            for (int v : side) clues[i++] = v;
+        return clues;
+    }
+
+    //  ENTRY POINT – build and save the tablebase for one puzzle
+    //  java FOR_EVal2.GameTablebase "<top> <right> <bottom> <left>"   e.g. "1322 3212 3122 1322"
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: GameTablebase \"<top> <right> <bottom> <left>\"");
+            System.exit(2);
+        }
+        String[] sides = args[0].trim().split("\\s+");
+        if (sides.length != 4)
+            throw new IllegalArgumentException("Expected 4 clue groups, got " + sides.length);
+        int[][] c = new int[4][N];
+        for (int s = 0; s < 4; s++)
+            for (int i = 0; i < N; i++) c[s][i] = sides[s].charAt(i) - '0';
+        GameState clues = new GameState(c[0], c[1], c[2], c[3]);
+
+        long start = System.currentTimeMillis();
+        GameTablebase tb = build(clues);
+        Path file = pathFor(cluesOf(clues));
+        tb.save(file);
+        System.out.printf("Solved %,d positions in %d ms -> %s  (value of the empty board for the first player: %+.1f)%n",
+                COUNT, System.currentTimeMillis() - start, file, tb.value(new int[GameSim.CELLS]) / 10.0);
+    }
+}
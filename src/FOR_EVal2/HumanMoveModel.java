@@ -0,0 +1,197 @@
+package FOR_EVal2;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HumanMoveModel – how likely a human is to play each legal move, learned
+ * from recorded games.
+ *
+ * Every legal move falls into a bucket: its immediate gain class (loses
+ * lives, +1 point, one clean line, two clean lines) times the number of
+ * values its cell still allows (1–4). For each bucket the model counts how
+ * often it was on offer and how often the human took it. A move's weight is
+ * (taken + 1) / (offered + 2), and its probability is its share of the
+ * position's total weight. With no data every move is equally likely.
+ *
+ * Recorded moves are appended to a text file, one line per human move:
+ * {@code <16 clue digits> <16 board digits> <cell> <value>}. Training replays
+ * the file. The GUI records on the EDT while strategies read from their own
+ * threads, so counting and predicting hold the model's lock. Appends run in
+ * order on a background thread, so recording never waits for the disk; the
+ * shared model finishes pending appends when the JVM exits.
+ */
+public class HumanMoveModel {
+
+    private static final int GAIN_CLASSES = 4;
+    static final int         BUCKETS      = GAIN_CLASSES * GameSim.SIZE;
+
+    private final long[] offered = new long[BUCKETS];
+    private final long[] taken   = new long[BUCKETS];
+    private long moves;
+
+    private final Path            log;      // null = in memory only
+    private final ExecutorService writer;   // appends to log in order; null with no log
+
+    public HumanMoveModel() { this(null); }
+
+    private HumanMoveModel(Path log) {
+        this.log = log;
+        this.writer = log == null ? null : Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "human-log-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static HumanMoveModel shared;
+
+    /**
+     * The GUI's model, trained from {@code -Dtowers.humanlog} (default
+     * {@code human-moves.txt} in the working directory), which it also appends to.
+     */
+    public static synchronized HumanMoveModel shared() {
+        if (shared == null) {
+            shared = new HumanMoveModel(Paths.get(System.getProperty("towers.humanlog", "human-moves.txt")));
+            try {
+                shared.train(shared.log);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ignoring human move log " + shared.log + ": " + e.getMessage());
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::finishWrites, "human-log-flush"));
+        }
+        return shared;
+    }
+
+    /** Human moves learned from so far. */
+    public synchronized long movesSeen() { return moves; }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PREDICTION
+    // ════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Fills {@code moves} (cell*8 + value) and {@code probs} for the side to
+     * move in {@code sim}; returns the number of legal moves. The arrays need
+     * room for {@code CELLS * SIZE} entries.
+     */
+    synchronized int distribution(GameSim sim, int[] moves, double[] probs) {
+        int n = 0;
+        double total = 0;
+        for (int cell = 0; cell < GameSim.CELLS; cell++) {
+            int bits = sim.legal(cell);
+            if (bits == 0) continue;
+            int options = Integer.bitCount(bits);
+            for (; bits != 0; bits &= bits - 1) {
+                int v = Integer.numberOfTrailingZeros(bits) + 1;
+                int b = bucket(sim.previewGain(cell, v), options);
+                double w = (taken[b] + 1.0) / (offered[b] + 2.0);
+                moves[n] = cell * 8 + v;
+                probs[n++] = w;
+                total += w;
+            }
+        }
+        for (int i = 0; i < n; i++) probs[i] /= total;
+        return n;
+    }
+
+    private static int bucket(int gain, int options) {
+        int g = gain < 0 ? 0 : gain <= 10 ? 1 : gain < 300 ? 2 : 3;
+        return g * GameSim.SIZE + options - 1;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  LEARNING
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Learns from the human playing {@code value} at (row, col) in {@code s}, before the move is made. */
+    public void record(GameState s, int row, int col, int value) {
+        GameSim sim = new GameSim(s);
+        sim.humanToMove = true;
+        int cell = row * GameSim.SIZE + col;
+        if ((sim.legal(cell) & 1 << (value - 1)) == 0) return;   // rejected moves say nothing
+        observe(sim, cell, value);
+        if (log == null) return;
+
+        StringBuilder line = new StringBuilder();
+        for (int[] side : new int[][] { s.getTopClues(), s.getRightClues(), s.getBottomClues(), s.getLeftClues() })
+            for (int v : side) line.append(v);
+        line.append(' ');
+        for (int v : sim.cells) line.append(v);
+        line.append(' ').append(cell).append(' ').append(value).append('\n');
+        try {
+            writer.execute(() -> {
+                try {
+                    Files.writeString(log, line, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                } catch (IOException e) {
+                    System.err.println("Could not record move to " + log + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the JVM is exiting; the move is still learned in memory
+        }
+    }
+
+    /** Waits briefly for queued appends; after this, moves are only learned in memory. */
+    private void finishWrites() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(2, TimeUnit.SECONDS))
+                System.err.println("Gave up waiting for moves to reach " + log);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Replays a move log; a missing file is an empty log. */
+    public void train(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                String[] f = line.trim().split("\\s+");
+                if (f.length != 4 || f[0].length() != 4 * GameSim.SIZE || f[1].length() != GameSim.CELLS)
+                    throw new IOException(file + ":" + lineNo + ": malformed move record");
+                int[][] c = new int[4][GameSim.SIZE];
+                for (int i = 0; i < 4 * GameSim.SIZE; i++) c[i / GameSim.SIZE][i % GameSim.SIZE] = f[0].charAt(i) - '0';
+                GameState s = new GameState(c[0], c[1], c[2], c[3]);
+                for (int i = 0; i < GameSim.CELLS; i++)
+                    s.getGrid()[i / GameSim.SIZE][i % GameSim.SIZE] = f[1].charAt(i) - '0';
+                GameSim sim = new GameSim(s);
+                sim.humanToMove = true;
+                int cell = Integer.parseInt(f[2]), value = Integer.parseInt(f[3]);
+                if (cell < 0 || cell >= GameSim.CELLS || value < 1 || value > GameSim.SIZE
+                        || (sim.legal(cell) & 1 << (value - 1)) == 0)
+                    throw new IOException(file + ":" + lineNo + ": illegal move in record");
+                observe(sim, cell, value);
+            }
+        }
+    }
+
+    private synchronized void observe(GameSim sim, int cell, int value) {
+        for (int c = 0; c < GameSim.CELLS; c++) {
+            int bits = sim.legal(c);
+            int options = Integer.bitCount(bits);
+            for (; bits != 0; bits &= bits - 1) {
+                int v = Integer.numberOfTrailingZeros(bits) + 1;
+                int b = bucket(sim.previewGain(c, v), options);
+                offered[b]++;
+                if (c == cell && v == value) taken[b]++;
+            }
+        }
+        moves++;
+    }
+}
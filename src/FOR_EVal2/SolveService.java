@@ -0,0 +1,598 @@
+package FOR_EVal2;
+
+import FOR_EVal2.TowersssGameGUI.AlgoChoice;
+import TowersPuzzle.ClueDatabase;
+import TowersPuzzle.FlightEvents;
+import TowersPuzzle.LatencyHistogram;
+import TowersPuzzle.SearchCounters;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * SolveService – a small local HTTP/JSON service over the solvers and CPU
+ * strategies, for scripting and load testing without the GUI.
+ *
+ * Every endpoint is a GET whose arguments are query parameters. A puzzle is
+ * {@code clues=top+right+bottom+left} in {@link TowersPuzzle.PuzzleGenerator.PuzzleData#toLine()}
+ * form (0 = no clue), and a board is {@code grid=1200/0000/0000/0000}
+ * (0 = empty cell, empty board if left out):
+ * <ul>
+ *   <li>{@code /solve} – the first solution and whether it is unique;</li>
+ *   <li>{@code /count} – the number of solutions, up to {@code limit}
+ *       (all if left out);</li>
+ *   <li>{@code /hint} – an empty cell that every solution agrees on, or the
+ *       one with the fewest candidates if there is none;</li>
+ *   <li>{@code /move} – the move {@code strategy} (an {@link AlgoChoice}
+ *       name) would play as the CPU, searched within {@code budgetMs};</li>
+ *   <li>{@code /stats} – request counts and latency percentiles per endpoint.</li>
+ * </ul>
+ * The first three answer from the {@link ClueDatabase} (sizes up to 5) in
+ * microseconds. Moves are 4×4 only, like the game.
+ *
+ * Each request runs on its own virtual thread when the runtime has them
+ * (Java 21+), or on a fixed pool of platform threads otherwise, so a request
+ * waiting for a search costs next to nothing. Searches themselves are
+ * CPU-bound and run on a separate pool with one thread per core and a
+ * bounded queue, so each search is single-threaded (MCTS grows one tree) and
+ * alpha-beta gets a small transposition table. A move's budget starts when
+ * its request arrives: the strategy gets what is left of it when its search
+ * starts, and a request whose search has not finished by the budget plus
+ * {@link #GRACE_MS} gets 503, and its search is aborted. A request that
+ * finds the queue full gets 503 too. Bad arguments get 400.
+ *
+ * The service binds to the loopback address only.
+ */
+public class SolveService {
+
+    public static final int  DEFAULT_PORT      = 8080;
+    public static final long DEFAULT_BUDGET_MS = 250;
+    public static final long MAX_BUDGET_MS     = 10_000;
+    public static final long GRACE_MS          = 250;      // past the budget before a move request gives up
+    private static final int BACKLOG           = 4096;     // pending connections
+    private static final int FALLBACK_THREADS  = 256;      // request threads without virtual threads
+    private static final int SEARCHES_QUEUED   = 64;       // waiting searches per core
+    private static final int TT_BITS           = 16;       // alpha-beta table per request, about 1 MB
+
+    private static final String[] ENDPOINTS = { "solve", "count", "hint", "move", "stats" };
+
+    private final HttpServer      server;
+    private final ExecutorService requests;
+    private final ExecutorService searches;
+    private final boolean         virtualThreads;
+    private final Map<String, LatencyHistogram> latency = new LinkedHashMap<>();
+    private final AtomicLongArray errors = new AtomicLongArray(ENDPOINTS.length);
+
+    /** Binds to {@code port} on the loopback address (0 = any free port); call {@link #start()}. */
+    public SolveService(int port) throws IOException {
+        ExecutorService virtual = virtualThreadExecutor();
+        virtualThreads = virtual != null;
+        requests = virtual != null ? virtual
+                 : Executors.newFixedThreadPool(FALLBACK_THREADS, daemon("solve-request"));
+        int cores = Runtime.getRuntime().availableProcessors();
+        searches = new ThreadPoolExecutor(cores, cores, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(cores * SEARCHES_QUEUED), daemon("solve-search"));
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(requests);
+        for (String name : ENDPOINTS) {
+            latency.put(name, new LatencyHistogram());
+            server.createContext("/" + name, ex -> dispatch(name, ex));
+        }
+        server.createContext("/", ex -> send(ex, Reply.error(404, "no such endpoint: " + ex.getRequestURI().getPath())));
+    }
+
+    public void start() { server.start(); }
+
+    /** Stops accepting requests, waits up to {@code delaySeconds} for open ones, then stops. */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        requests.shutdownNow();
+        searches.shutdownNow();
+    }
+
+    public int port() { return server.getAddress().getPort(); }
+
+    /** True when each request gets its own virtual thread. */
+    public boolean usesVirtualThreads() { return virtualThreads; }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  REQUESTS
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** A JSON reply and its status code. */
+    private static final class Reply {
+        final int    status;
+        final String body;
+
+        Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Reply ok(Json json)                   { return new Reply(200, json.toString()); }
+        static Reply error(int status, String error) { return new Reply(status, new Json().put("error", error).toString()); }
+    }
+
+    /** Thrown when a request cannot be served in time or at all right now. */
+    private static final class BusyException extends Exception {
+        BusyException(String message) { super(message); }
+    }
+
+    private void dispatch(String name, HttpExchange ex) throws IOException {
+        long start = System.nanoTime();
+        Reply reply;
+        try {
+            if (!ex.getRequestURI().getPath().equals("/" + name))
+                reply = Reply.error(404, "no such endpoint: " + ex.getRequestURI().getPath());
+            else if (!ex.getRequestMethod().equals("GET"))
+                reply = Reply.error(405, "use GET");
+            else
+                reply = handle(name, query(ex.getRequestURI().getRawQuery()), start);
+        } catch (IllegalArgumentException e) {
+            reply = Reply.error(400, e.getMessage());
+        } catch (BusyException e) {
+            reply = Reply.error(503, e.getMessage());
+        } catch (RuntimeException e) {
+            reply = Reply.error(500, e.toString());
+        }
+
+        try {
+            send(ex, reply);
+        } finally {
+            latency.get(name).record(System.nanoTime() - start);
+            if (reply.status != 200) errors.incrementAndGet(indexOf(name));
+        }
+    }
+
+    private static void send(HttpExchange ex, Reply reply) throws IOException {
+        byte[] body = reply.body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (reply.status == 503) ex.getResponseHeaders().set("Retry-After", "1");
+        try (OutputStream out = ex.getResponseBody()) {
+            ex.sendResponseHeaders(reply.status, body.length);
+            out.write(body);
+        }
+    }
+
+    private Reply handle(String name, Map<String, String> q, long start) throws BusyException {
+        return switch (name) {
+            case "solve" -> solve(q);
+            case "count" -> count(q);
+            case "hint"  -> hint(q);
+            case "move"  -> move(q, start);
+            case "stats" -> stats();
+            default      -> Reply.error(404, "no such endpoint: /" + name);
+        };
+    }
+
+    // ── /solve, /count, /hint ────────────────────────────────────────────────
+
+    private static Reply solve(Map<String, String> q) {
+        Puzzle p = Puzzle.parse(q);
+        List<int[][]> sols = p.table().solutions(p.top, p.right, p.bottom, p.left, p.grid, 2);
+        return Reply.ok(new Json()
+                .put("size", p.n)
+                .put("solutions", sols.size())          // 2 = two or more
+                .put("unique", sols.size() == 1)
+                .put("solution", sols.isEmpty() ? null : rows(sols.get(0))));
+    }
+
+    private static Reply count(Map<String, String> q) {
+        Puzzle p = Puzzle.parse(q);
+        int limit = intParam(q, "limit", 0, 0, Integer.MAX_VALUE);
+        int n = p.table().count(p.top, p.right, p.bottom, p.left, p.grid, limit);
+        return Reply.ok(new Json()
+                .put("size", p.n)
+                .put("count", n)
+                .put("capped", limit > 0 && n >= limit));
+    }
+
+    /**
+     * Tries every value in every empty cell against the table. A cell with
+     * one candidate left is forced; without one, the cell with the fewest
+     * candidates gets its value from the first solution.
+     */
+    private static Reply hint(Map<String, String> q) {
+        Puzzle p = Puzzle.parse(q);
+        ClueDatabase db = p.table();
+        int[][] grid = p.grid != null ? p.grid : new int[p.n][p.n];
+        int bestR = -1, bestC = -1, bestV = 0, fewest = Integer.MAX_VALUE;
+        for (int r = 0; r < p.n && fewest > 1; r++)
+            for (int c = 0; c < p.n && fewest > 1; c++) {
+                if (grid[r][c] != 0) continue;
+                int candidates = 0, only = 0;
+                for (int v = 1; v <= p.n; v++) {
+                    grid[r][c] = v;
+                    if (db.count(p.top, p.right, p.bottom, p.left, grid, 1) > 0) { candidates++; only = v; }
+                }
+                grid[r][c] = 0;
+                if (candidates == 0)
+                    return Reply.error(422, "no solution matches the clues and grid");
+                if (candidates < fewest) { fewest = candidates; bestR = r; bestC = c; bestV = only; }
+            }
+        if (bestR < 0) {
+            boolean solved = db.count(p.top, p.right, p.bottom, p.left, grid, 1) > 0;
+            return solved ? Reply.ok(new Json().put("hint", null))
+                          : Reply.error(422, "no solution matches the clues and grid");
+        }
+        if (fewest > 1)
+            bestV = db.solutions(p.top, p.right, p.bottom, p.left, grid, 1).get(0)[bestR][bestC];
+        return Reply.ok(new Json()
+                .put("row", bestR)
+                .put("col", bestC)
+                .put("value", bestV)
+                .put("forced", fewest == 1)
+                .put("candidates", fewest));
+    }
+
+    // ── /move ────────────────────────────────────────────────────────────────
+
+    private Reply move(Map<String, String> q, long start) throws BusyException {
+        Puzzle p = Puzzle.parse(q);
+        if (p.n != 4) throw new IllegalArgumentException("moves are 4x4 only, got " + p.n + "x" + p.n);
+        AlgoChoice algo = strategy(q.get("strategy"));
+        long budgetMs = intParam(q, "budgetMs", DEFAULT_BUDGET_MS, 1, MAX_BUDGET_MS);
+        long deadline = start + budgetMs * 1_000_000L;
+
+        GameState game = new GameState(p.top, p.right, p.bottom, p.left);
+        if (p.grid != null)
+            for (int r = 0; r < 4; r++) System.arraycopy(p.grid[r], 0, game.getGrid()[r], 0, 4);
+        game.setHumanTurn(false);
+
+        AtomicBoolean gaveUp = new AtomicBoolean();
+        Future<int[]> search;
+        try {
+            search = searches.submit(() -> {
+                long left = (deadline - System.nanoTime()) / 1_000_000;
+                if (left <= 0) throw new BusyException("no move within " + budgetMs + " ms");
+                Player player = player(algo, game, left, gaveUp::get);
+                return FlightEvents.searchMove(algo.name(), player.counters, player.move);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new BusyException("search queue full");
+        }
+        int[] move;
+        try {
+            move = search.get(deadline - System.nanoTime() + GRACE_MS * 1_000_000L, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            gaveUp.set(true);                               // frees the search thread
+            search.cancel(false);
+            throw new BusyException("no move within " + budgetMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusyException("interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusyException) throw (BusyException) e.getCause();
+            throw new IllegalStateException(algo.name() + " failed: " + e.getCause(), e.getCause());
+        }
+        return Reply.ok(new Json()
+                .put("strategy", algo.name())
+                .put("move", move == null ? null : new Json()
+                        .put("row", move[0]).put("col", move[1]).put("value", move[2]))
+                .put("explanation", game.getCpuReasoningExplanation())
+                .put("micros", (System.nanoTime() - start) / 1_000));
+    }
+
+    /** A strategy's move search and its counters (null for D&C). */
+    private static final class Player {
+        final Supplier<int[]> move;
+        final SearchCounters  counters;
+
+        Player(Supplier<int[]> move, SearchCounters counters) {
+            this.move = move;
+            this.counters = counters;
+        }
+    }
+
+    /** The strategy, sized for many searches at once, with {@code budgetMs} and an abort hook. */
+    private static Player player(AlgoChoice algo, GameState s, long budgetMs, BooleanSupplier abort) {
+        return switch (algo) {
+            case DP -> {
+                StrategyDP p = new StrategyDP(s);
+                p.timeBudgetMs = budgetMs;
+                p.abortWhen = abort;
+                yield new Player(p::findBestMove, p);
+            }
+            case DNC -> {
+                // no budget to set: D&C on a 4×4 board finishes well inside one
+                StrategyDnC p = new StrategyDnC(s);
+                yield new Player(p::findBestMove, null);
+            }
+            case ALPHA_BETA -> {
+                StrategyAlphaBeta p = new StrategyAlphaBeta(s, TT_BITS);
+                p.timeBudgetMs = budgetMs;
+                p.abortWhen = abort;
+                yield new Player(p::findBestMove, p);
+            }
+            case MCTS -> {
+                // one tree: the search pool already runs a search per core
+                StrategyMCTS p = new StrategyMCTS(s);
+                p.timeBudgetMs = budgetMs;
+                p.workers = 1;
+                p.abortWhen = abort;
+                yield new Player(p::findBestMove, p);
+            }
+            case EXPECTIMAX -> {
+                StrategyExpectimax p = new StrategyExpectimax(s);
+                p.timeBudgetMs = budgetMs;
+                p.abortWhen = abort;
+                yield new Player(p::findBestMove, p);
+            }
+            case PERFECT -> throw new IllegalArgumentException(
+                    "PERFECT builds a tablebase per puzzle and is not served");
+        };
+    }
+
+    private static AlgoChoice strategy(String name) {
+        if (name == null) throw new IllegalArgumentException("missing strategy");
+        try {
+            AlgoChoice algo = AlgoChoice.valueOf(name.toUpperCase());
+            if (algo != AlgoChoice.PERFECT) return algo;
+        } catch (IllegalArgumentException ignored) { }
+        throw new IllegalArgumentException("unknown strategy " + name
+                + "; use DP, DNC, ALPHA_BETA, MCTS or EXPECTIMAX");
+    }
+
+    // ── /stats ───────────────────────────────────────────────────────────────
+
+    private Reply stats() {
+        Json out = new Json().put("virtualThreads", virtualThreads);
+        for (int i = 0; i < ENDPOINTS.length; i++) {
+            LatencyHistogram h = latency.get(ENDPOINTS[i]);
+            out.put(ENDPOINTS[i], new Json()
+                    .put("requests", h.count())
+                    .put("errors", errors.get(i))
+                    .put("p50Micros", h.percentileNanos(50) / 1_000)
+                    .put("p99Micros", h.percentileNanos(99) / 1_000)
+                    .put("maxMicros", h.maxNanos() / 1_000));
+        }
+        return Reply.ok(out);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PARSING
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** The {@code clues} and {@code grid} parameters, checked. */
+    private static final class Puzzle {
+        final int     n;
+        final int[]   top, right, bottom, left;
+        final int[][] grid;                     // null = empty board
+
+        private Puzzle(int[][] clues, int[][] grid) {
+            this.n = clues[0].length;
+            this.top = clues[0];
+            this.right = clues[1];
+            this.bottom = clues[2];
+            this.left = clues[3];
+            this.grid = grid;
+        }
+
+        ClueDatabase table() { return ClueDatabase.forSize(n); }
+
+        static Puzzle parse(Map<String, String> q) {
+            String text = q.get("clues");
+            if (text == null) throw new IllegalArgumentException("missing clues");
+            String[] fields = text.trim().split("[\\s,]+");
+            if (fields.length != 4)
+                throw new IllegalArgumentException("clues need 4 fields (top right bottom left), got " + fields.length);
+            int n = fields[0].length();
+            if (!ClueDatabase.supports(n))
+                throw new IllegalArgumentException("sizes 1.." + ClueDatabase.MAX_SIZE + " are served, got " + n);
+            int[][] clues = new int[4][];
+            for (int i = 0; i < 4; i++) clues[i] = digits(fields[i], n, "clues");
+
+            int[][] grid = null;
+            String g = q.get("grid");
+            if (g != null && !g.isEmpty()) {
+                String[] rows = g.split("/");
+                if (rows.length != n)
+                    throw new IllegalArgumentException("grid needs " + n + " rows, got " + rows.length);
+                grid = new int[n][];
+                for (int r = 0; r < n; r++) grid[r] = digits(rows[r], n, "grid");
+            }
+            return new Puzzle(clues, grid);
+        }
+
+        private static int[] digits(String s, int n, String what) {
+            if (s.length() != n)
+                throw new IllegalArgumentException(what + ": expected " + n + " digits, got \"" + s + "\"");
+            int[] out = new int[n];
+            for (int i = 0; i < n; i++) {
+                int d = s.charAt(i) - '0';
+                if (d < 0 || d > n)
+                    throw new IllegalArgumentException(what + ": digits must be 0.." + n + ", got \"" + s + "\"");
+                out[i] = d;
+            }
+            return out;
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null) return out;
+        for (String pair : raw.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String val = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.put(key, val);
+        }
+        return out;
+    }
+
+    private static int intParam(Map<String, String> q, String name, long dflt, long min, long max) {
+        String s = q.get(name);
+        if (s == null) return (int) dflt;
+        try {
+            long v = Long.parseLong(s);
+            if (v >= min && v <= max) return (int) v;
+        } catch (NumberFormatException ignored) { }
+        throw new IllegalArgumentException(name + " must be " + min + ".." + max + ", got \"" + s + "\"");
+    }
+
+    private static String rows(int[][] grid) {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < grid.length; r++) {
+            if (r > 0) sb.append('/');
+            for (int v : grid[r]) sb.append((char) ('0' + v));
+        }
+        return sb.toString();
+    }
+
+    private static int indexOf(String endpoint) {
+        for (int i = 0; i < ENDPOINTS.length; i++) if (ENDPOINTS[i].equals(endpoint)) return i;
+        return -1;
+    }
+
+    /** A JSON object built in insertion order; values are numbers, booleans, strings, null or nested objects. */
+    private static final class Json {
+        private final StringBuilder sb = new StringBuilder("{");
+
+        Json put(String key, Object value) {
+            if (sb.length() > 1) sb.append(',');
+            string(key);
+            sb.append(':');
+            if (value == null || value instanceof Number || value instanceof Boolean) sb.append(value);
+            else if (value instanceof Json) sb.append(value);
+            else string(value.toString());
+            return this;
+        }
+
+        private void string(String s) {
+            sb.append('"');
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                switch (ch) {
+                    case '"'  -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default   -> {
+                        if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                        else sb.append(ch);
+                    }
+                }
+            }
+            sb.append('"');
+        }
+
+        @Override public String toString() { return sb + "}"; }
+    }
+
+    // ── threads ──────────────────────────────────────────────────────────────
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} when the runtime has
+     * it, else null. Looked up reflectively because the build targets Java 17.
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  LOAD TEST
+    // ════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Sends {@code total} GETs to {@code url}, at most {@code concurrency} at
+     * a time, and prints the throughput, status codes and latency percentiles.
+     */
+    public static void load(URI url, int total, int concurrency) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(4, daemon("solve-load")))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(url).GET().build();
+        LatencyHistogram h = new LatencyHistogram();
+        Map<Integer, Integer> statuses = new ConcurrentHashMap<>();
+        Semaphore slots = new Semaphore(concurrency);
+        CompletableFuture<?>[] all = new CompletableFuture<?>[total];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            slots.acquire();
+            long sent = System.nanoTime();
+            all[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resp, err) -> {
+                        h.record(System.nanoTime() - sent);
+                        statuses.merge(err != null ? -1 : resp.statusCode(), 1, Integer::sum);
+                        slots.release();
+                    });
+        }
+        CompletableFuture.allOf(all).exceptionally(e -> null).join();
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d requests in %.2f s (%.0f/s, %d concurrent)%n", total, secs, total / secs, concurrency);
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                h.percentileNanos(50) / 1e6, h.percentileNanos(99) / 1e6, h.maxNanos() / 1e6);
+        System.out.println("status " + statuses + (statuses.containsKey(-1) ? " (-1 = connection error)" : ""));
+    }
+
+    //  ENTRY POINT
+    //  java FOR_EVal2.SolveService [port=8080]
+    //  java FOR_EVal2.SolveService load <url> <requests> [concurrency=256]
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("load")) {
+            if (args.length < 3) {
+                System.err.println("usage: SolveService load <url> <requests> [concurrency]");
+                System.exit(2);
+            }
+            load(URI.create(args[1]), Integer.parseInt(args[2]),
+                 args.length > 3 ? Integer.parseInt(args[3]) : 256);
+            return;
+        }
+        if (args.length > 1) {
+            System.err.println("usage: SolveService [port]  |  SolveService load <url> <requests> [concurrency]");
+            System.exit(2);
+        }
+        SolveService service = new SolveService(args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT);
+        service.start();
+        System.out.printf("Serving on http://localhost:%d/ (%s)%n", service.port(),
+                service.usesVirtualThreads() ? "virtual threads" : FALLBACK_THREADS + " request threads");
+    }
+}
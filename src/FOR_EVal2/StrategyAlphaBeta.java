@@ -0,0 +1,275 @@
+package FOR_EVal2;
+
+import TowersPuzzle.SearchCounters;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * ┌─────────────────────────────────────────────────────────────────────────┐
+ *  STRATEGY  :  Alpha-Beta (negamax)                                        │
+ *  APPROACH  :  Searches the real two-player game: the human replies to     │
+ *               every CPU move, and both sides collect points and lose     │
+ *               lives exactly as GameState.makeMove scores them.           │
+ *               Iterative deepening under a time budget, moves ordered by  │
+ *               the transposition-table move, then immediate gain, then   │
+ *               MRV (fewest legal values first).                           │
+ * └─────────────────────────────────────────────────────────────────────────┘
+ *
+ * Values are the side to move's future total minus the opponent's, in
+ * tenths of a point. The transposition table outlives a single move, so the
+ * next CPU turn starts from what this one already proved.
+ */
+public class StrategyAlphaBeta implements SearchCounters {
+
+    // ── core fields ──────────────────────────────────────────────────────────
+    private final GameState state;
+    private final int       SIZE;
+
+    /** Wall-clock budget per CPU move. */
+    public volatile long timeBudgetMs = 1000;
+    /** Polled with the deadline; the search stops early once it returns true. */
+    public volatile BooleanSupplier abortWhen = () -> false;
+
+    private static final int INF        = Integer.MAX_VALUE / 2;
+    private static final int HEAT_DEPTH = 3;        // plies per heat-map probe
+
+    // ── transposition table ──────────────────────────────────────────────────
+    private static final int  TT_BITS = 20;         // 1M entries, about 15 MB
+    private static final byte EXACT = 0, LOWER = 1, UPPER = 2;
+    private static final int  SOLVED = 127;         // depth of an entry no horizon touched
+
+    private final int    ttMask;
+    private final long[] ttKey;
+    private final int[]  ttValue;
+    private final byte[] ttDepth;
+    private final byte[] ttFlag;
+    private final byte[] ttMove;                    // cell*8 + value, -1 = none
+
+    // ── per-search state ─────────────────────────────────────────────────────
+    private GameSim sim;
+    private long    deadline;
+    private boolean aborted, hitHorizon;
+    private long    nodes, ttHits, cutoffs;
+    private final int[][] moveBuf = new int[GameSim.CELLS + 1][GameSim.CELLS * GameSim.SIZE];
+    private final int[][] keyBuf  = new int[GameSim.CELLS + 1][GameSim.CELLS * GameSim.SIZE];
+
+    // ── constructor ──────────────────────────────────────────────────────────
+    public StrategyAlphaBeta(GameState state) {
+        this(state, TT_BITS);
+    }
+
+    /** With a transposition table of 2^ttBits entries, 15 bytes each. */
+    public StrategyAlphaBeta(GameState state, int ttBits) {
+        this.state = state;
+        this.SIZE  = state.getSize();
+        int entries = 1 << ttBits;
+        ttMask  = entries - 1;
+        ttKey   = new long[entries];
+        ttValue = new int[entries];
+        ttDepth = new byte[entries];
+        ttFlag  = new byte[entries];
+        ttMove  = new byte[entries];
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PUBLIC API
+    // ════════════════════════════════════════════════════════════════════════
+
+    // ── SearchCounters ───────────────────────────────────────────────────────
+    @Override public long nodesSearched()  { return nodes; }
+    @Override public long branchesPruned() { return cutoffs; }
+    @Override public long memoHits()       { return ttHits; }
+
+    /** Returns int[]{row, col, value} or null if no legal move exists. */
+    public int[] findBestMove() {
+        long start = System.nanoTime();
+        sim = new GameSim(state);
+        sim.humanToMove = false;                       // asked on the CPU's turn
+        deadline = start + timeBudgetMs * 1_000_000L;
+        nodes = ttHits = cutoffs = 0;
+
+        int[] rootMoves = moveBuf[0];
+        int n = generateMoves(rootMoves, 0, -1);
+        if (n == 0) return null;
+
+        int bestMove = rootMoves[0], bestValue = -INF, depthDone = 0;
+        boolean solved = false;
+        int maxDepth = sim.empty;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            hitHorizon = false;
+            aborted = false;
+            int alpha = -INF, iterBest = -1;
+            orderFirst(rootMoves, n, bestMove);
+            for (int i = 0; i < n; i++) {
+                int m = rootMoves[i];
+                int gain = sim.play(m >> 3, m & 7);
+                int v = gain - negamax(depth - 1, -INF, gain - alpha, 1);
+                sim.undo(m >> 3);
+                if (aborted) break;
+                if (v > alpha) { alpha = v; iterBest = m; }
+            }
+            if (aborted) break;          // keep the last finished iteration
+            bestMove = iterBest;
+            bestValue = alpha;
+            depthDone = depth;
+            if (!hitHorizon) { solved = true; break; }
+        }
+
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        state.setCpuReasoningExplanation(buildExplanation(bestMove, bestValue, depthDone, solved, ms));
+        int cell = bestMove >> 3;
+        return new int[]{ cell / SIZE, cell % SIZE, bestMove & 7 };
+    }
+
+    /** Heat-map score: best shallow minimax value over the cell's legal values. */
+    public double evaluateCell(int row, int col) {
+        if (state.getGrid()[row][col] != 0) return 0.0;
+        sim = new GameSim(state);
+        sim.humanToMove = false;
+        deadline = Long.MAX_VALUE;
+        aborted = false;
+
+        int cell = row * SIZE + col;
+        int best = -INF;
+        for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1) {
+            int v = Integer.numberOfTrailingZeros(bits) + 1;
+            int gain = sim.play(cell, v);
+            best = Math.max(best, gain - negamax(HEAT_DEPTH - 1, -INF, INF, 1));
+            sim.undo(cell);
+        }
+        // shift into a positive range; the GUI normalises by the max
+        return best == -INF ? 0.0 : Math.max(0.01, 1000.0 + best);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  NEGAMAX CORE
+    // ════════════════════════════════════════════════════════════════════════
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if ((++nodes & 1023) == 0 && (System.nanoTime() > deadline || abortWhen.getAsBoolean())) aborted = true;
+        if (aborted) return 0;
+
+        if (sim.humanLives <= 0 || sim.cpuLives <= 0) return sim.terminalValue();
+
+        long key = sim.key();
+        int slot = (int) (mix(key) & ttMask);
+        int ttBest = -1;
+        if (ttKey[slot] == key) {
+            ttBest = ttMove[slot];
+            if (ttDepth[slot] >= depth) {
+                int v = ttValue[slot];
+                byte f = ttFlag[slot];
+                if (f == EXACT || (f == LOWER && v >= beta) || (f == UPPER && v <= alpha)) {
+                    ttHits++;
+                    if (ttDepth[slot] < SOLVED) hitHorizon = true;
+                    return v;
+                }
+            }
+        }
+
+        if (depth == 0) {
+            if (!sim.hasMoves()) return sim.terminalValue();
+            hitHorizon = true;
+            return 0;
+        }
+        int[] moves = moveBuf[ply];
+        int n = generateMoves(moves, ply, ttBest);
+        if (n == 0) return sim.terminalValue();   // nobody can move: game over
+
+        boolean horizonBefore = hitHorizon;
+        hitHorizon = false;
+        int alphaOrig = alpha, best = -INF, bestMove = -1;
+        for (int i = 0; i < n; i++) {
+            int m = moves[i];
+            int gain = sim.play(m >> 3, m & 7);
+            int v = gain - negamax(depth - 1, gain - beta, gain - alpha, ply + 1);
+            sim.undo(m >> 3);
+            if (aborted) return 0;
+            if (v > best) { best = v; bestMove = m; }
+            if (v > alpha) alpha = v;
+            if (alpha >= beta) { cutoffs++; break; }
+        }
+
+        byte flag = best <= alphaOrig ? UPPER : best >= beta ? LOWER : EXACT;
+        ttKey[slot]   = key;
+        ttValue[slot] = best;
+        ttDepth[slot] = (byte) (hitHorizon ? depth : SOLVED);
+        ttFlag[slot]  = flag;
+        ttMove[slot]  = (byte) bestMove;
+        hitHorizon |= horizonBefore;
+        return best;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  MOVE GENERATION & ORDERING
+    // ════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Fills {@code out} with legal moves (cell*8 + value) ordered by
+     * TT move first, then immediate gain, then MRV. Returns the count.
+     */
+    private int generateMoves(int[] out, int ply, int ttBest) {
+        int n = 0;
+        int[] keys = keyBuf[ply];
+        for (int cell = 0; cell < GameSim.CELLS; cell++) {
+            int bits = sim.legal(cell);
+            if (bits == 0) continue;
+            int options = Integer.bitCount(bits);
+            for (; bits != 0; bits &= bits - 1) {
+                int v = Integer.numberOfTrailingZeros(bits) + 1;
+                int m = cell * 8 + v;
+                int gain = sim.previewGain(cell, v);
+                // higher sorts first: TT move, gain, then fewer options
+                keys[n] = m == ttBest ? Integer.MAX_VALUE : gain * 16 + (SIZE - options);
+                out[n++] = m;
+            }
+        }
+        for (int i = 1; i < n; i++) {
+            int m = out[i], k = keys[i], j = i - 1;
+            for (; j >= 0 && keys[j] < k; j--) { out[j + 1] = out[j]; keys[j + 1] = keys[j]; }
+            out[j + 1] = m;
+            keys[j + 1] = k;
+        }
+        return n;
+    }
+
+    private static void orderFirst(int[] moves, int n, int first) {
+        for (int i = 0; i < n; i++) {
+            if (moves[i] != first) continue;
+            System.arraycopy(moves, 0, moves, 1, i);
+            moves[0] = first;
+            return;
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  EXPLANATION TEXT  (shown in reasoning panel)
+    // ════════════════════════════════════════════════════════════════════════
+
+    private String buildExplanation(int move, int value, int depth, boolean solved, long ms) {
+        int cell = move >> 3;
+        return String.format(
+                "【ALPHA-BETA NEGAMAX】\n" +
+                        "════════════════════════════\n" +
+                        " Move : %d  at  (%d , %d)\n" +
+                        " Outlook (CPU − you): %+.1f\n" +
+                        "────────────────────────────\n" +
+                        " Depth reached : %d plies%s\n" +
+                        " Nodes searched: %d\n" +
+                        " TT hits / cuts: %d / %d\n" +
+                        " Time          : %d ms\n" +
+                        "════════════════════════════\n" +
+                        "STRATEGY: Plans both players'\n" +
+                        "turns and assumes you reply\n" +
+                        "with your best move.",
+                move & 7, cell / SIZE + 1, cell % SIZE + 1,
+                value / 10.0, depth, solved ? " (to the end)" : "",
+                nodes, ttHits, cutoffs, ms);
+    }
+}
@@ -1,5 +1,8 @@
 package FOR_EVal2;
+import TowersPuzzle.SearchCounters;
+
 import java.util.*;
+import java.util.function.BooleanSupplier;
 
 /**
  * ┌─────────────────────────────────────────────────────────────────────────┐
@@ -10,17 +13,29 @@ import java.util.*;
  *               cumulative score reachable from that state, stored in a     │
  *               HashMap<Long, Double> memo table.                            │
  *               Heat-map uses the top-1 DP value per cell.                  │
+ *               Iterative deepening: the horizon grows one ply at a time    │
+ *               until the time budget runs out.                             │
  * └─────────────────────────────────────────────────────────────────────────┘
  */
-public class StrategyDP {
+public class StrategyDP implements SearchCounters {
 
     // ── core fields ──────────────────────────────────────────────────────────
     private final GameState state;
     private final int       SIZE;
 
-    /** memo table  :  board-state key  →  best achievable score */
+    /** memo table  :  board-state key × plies left  →  best achievable score */
     private final Map<Long, Double> memo = new HashMap<>();
 
+    /** Wall-clock budget per CPU move. */
+    public volatile long timeBudgetMs = 1000;
+    /** Polled with the deadline; the search stops early once it returns true. */
+    public volatile BooleanSupplier abortWhen = () -> false;
+
+    // ── iterative-deepening state ────────────────────────────────────────────
+    private long    deadline = Long.MAX_VALUE;
+    private boolean aborted;
+    private long    calls, memoHits;
+
     // ── reward constants (same philosophy as StrategyScore) ──────────────────
     private static final double BASE_REWARD          =  1.0;
     private static final double ROW_COMPLETE_REWARD  = 12.0;
@@ -29,6 +44,7 @@ public class StrategyDP {
     private static final double DOUBLE_BONUS         = 30.0;
     private static final double LOW_OPTIONS_PENALTY  = -6.0;
     private static final double FUTURE_DEPTH_WEIGHT  =  0.6;   // discount per look-ahead ply
+    private static final int    HEAT_HORIZON         =  3;     // plies, including the move itself
 
     // ── constructor ──────────────────────────────────────────────────────────
     public StrategyDP(GameState state) {
@@ -40,54 +56,96 @@ public class StrategyDP {
     //  PUBLIC API
     // ════════════════════════════════════════════════════════════════════════
 
+    // ── SearchCounters ───────────────────────────────────────────────────────
+    @Override public long nodesSearched()  { return calls; }
+    @Override public long memoHits()       { return memoHits; }
+    @Override public long memoEntries()    { return memo.size(); }
+
     /**
-     * Find the globally best (row, col, value) triple using DP look-ahead.
+     * Find the globally best (row, col, value) triple using DP look-ahead,
+     * deepening the horizon until the time budget is spent.
      * Returns int[]{row, col, value} or null if no legal move exists.
      */
     public int[] findBestMove() {
         memo.clear();   // fresh memo each CPU turn
+        calls = memoHits = 0;
+        long start = System.nanoTime();
+        deadline = start + timeBudgetMs * 1_000_000L;
+        aborted  = false;
 
-        List<MoveEval> candidates = new ArrayList<>();
-
+        List<MoveEval> ranked = new ArrayList<>();
+        int empty = 0;
         for (int r = 0; r < SIZE; r++) {
             for (int c = 0; c < SIZE; c++) {
                 if (state.getGrid()[r][c] != 0) continue;
+                empty++;
                 for (int v = 1; v <= SIZE; v++) {
                     if (state.getGraph().hasConflict(state.getGrid(), r, c, v)) continue;
-
                     int[][] after = deepCopy(state.getGrid());
                     after[r][c] = v;
-
                     double immediateScore = immediateReward(after, r, c, v);
-                    double futureScore    = dpValue(after, gridKey(after), 1);
-                    double total          = immediateScore + futureScore;
+                    ranked.add(new MoveEval(r, c, v, immediateScore, 0, immediateScore));
+                }
+            }
+        }
 
-                    candidates.add(new MoveEval(r, c, v, immediateScore, futureScore, total));
+        if (ranked.isEmpty()) return null;
+
+        // horizon 1 is the immediate reward alone; each pass adds a ply and
+        // walks the moves in the previous pass's ranking, best first
+        int depth = 1, deeper = 0;
+        sortRanked(ranked);
+        for (int horizon = 2; horizon <= empty; horizon++) {
+            List<MoveEval> next = new ArrayList<>(ranked.size());
+            for (MoveEval m : ranked) {
+                int[][] after = deepCopy(state.getGrid());
+                after[m.row][m.col] = m.value;
+                double futureScore = dpValue(after, gridKey(after), horizon - 1);
+                if (aborted) break;
+                next.add(new MoveEval(m.row, m.col, m.value, m.immediate, futureScore, m.immediate + futureScore));
+            }
+            if (aborted) {
+                // The searched moves include the previous best, so the best of
+                // them at this horizon is at least as well founded; the rest
+                // keep their shallower scores behind them.
+                if (!next.isEmpty()) {
+                    deeper = next.size();
+                    sortRanked(next);
+                    next.addAll(ranked.subList(deeper, ranked.size()));
+                    ranked = next;
                 }
+                break;
             }
+            sortRanked(next);
+            ranked = next;
+            depth  = horizon;
         }
+        deadline = Long.MAX_VALUE;
+        aborted  = false;
 
-        if (candidates.isEmpty()) return null;
+        MoveEval best = ranked.get(0);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        state.setCpuReasoningExplanation(buildExplanation(best, ranked, depth, deeper, depth == empty, ms));
+        return new int[]{ best.row, best.col, best.value };
+    }
 
-        // sort: highest total first; tie-break by fewer legal options (forcing)
-        candidates.sort(Comparator
+    /** highest total first; tie-break by fewer legal options (forcing) */
+    private void sortRanked(List<MoveEval> moves) {
+        moves.sort(Comparator
                 .comparingDouble(MoveEval::total).reversed()
                 .thenComparingInt(m -> legalCount(m.row, m.col)));
-
-        MoveEval best = candidates.get(0);
-        state.setCpuReasoningExplanation(buildExplanation(best, candidates));
-        return new int[]{ best.row, best.col, best.value };
     }
 
     public double evaluateCell(int row, int col) {
         if (state.getGrid()[row][col] != 0) return 0.0;
+        aborted = false;            // no deadline here, but a stale board can still abort it
         double max = 0;
         for (int v = 1; v <= SIZE; v++) {
             if (state.getGraph().hasConflict(state.getGrid(), row, col, v)) continue;
             int[][] after = deepCopy(state.getGrid());
             after[row][col] = v;
             double score = immediateReward(after, row, col, v)
-                    + dpValue(after, gridKey(after), 1) * 0.5; // cheaper for heat-map
+                    + dpValue(after, gridKey(after), HEAT_HORIZON - 1) * 0.5; // cheaper for heat-map
             max = Math.max(max, score);
         }
         return max;
@@ -103,12 +161,16 @@ public class StrategyDP {
      *
      * @param grid  current board (after a hypothetical move)
      * @param key   compact long key of the board
-     * @param depth recursion depth (used for discounting)
+     * @param plies plies left before the horizon
      */
-    private double dpValue(int[][] grid, long key, int depth) {
-        if (depth >= 3) return 0;   // horizon limit – keeps it snappy
+    private double dpValue(int[][] grid, long key, int plies) {
+        if (plies <= 0) return 0;   // horizon reached
+        if ((++calls & 255) == 0 && (System.nanoTime() > deadline || abortWhen.getAsBoolean())) aborted = true;
+        if (aborted) return 0;
 
-        if (memo.containsKey(key)) return memo.get(key);
+        long memoKey = key * 32 + plies;
+        Double known = memo.get(memoKey);
+        if (known != null) { memoHits++; return known; }
 
         double best = 0;
 
@@ -122,7 +184,7 @@ public class StrategyDP {
                     next[r][c] = v;
 
                     double reward = immediateReward(next, r, c, v);
-                    double future = dpValue(next, gridKey(next), depth + 1);
+                    double future = dpValue(next, gridKey(next), plies - 1);
                     double total  = reward + FUTURE_DEPTH_WEIGHT * future;
 
                     if (total > best) best = total;
@@ -130,7 +192,8 @@ public class StrategyDP {
             }
         }
 
-        memo.put(key, best);
+        if (aborted) return 0;      // partial – never memoise it
+        memo.put(memoKey, best);
         return best;
     }
 
@@ -248,7 +311,8 @@ public class StrategyDP {
     //  EXPLANATION TEXT  (shown in reasoning panel)
     // ════════════════════════════════════════════════════════════════════════
 
-    private String buildExplanation(MoveEval best, List<MoveEval> all) {
+    private String buildExplanation(MoveEval best, List<MoveEval> all, int depth, int deeper,
+                                    boolean complete, long ms) {
         int explored = all.size();
         int memoHits = memo.size();
 
@@ -262,14 +326,18 @@ public class StrategyDP {
                         "────────────────────────────\n" +
                         " States memoised  : %d\n" +
                         " Moves explored   : %d\n" +
-                        " Look-ahead depth : 3 plies\n" +
+                        " Look-ahead depth : %d plies%s\n" +
+                        " Time             : %d ms\n" +
                         "════════════════════════════\n" +
                         "STRATEGY: Memoised sub-problem\n" +
                         "optimisation — picks globally\n" +
                         "best reachable outcome.",
                 best.value, best.row + 1, best.col + 1,
                 best.immediate, best.future, best.total,
-                memoHits, explored
+                memoHits, explored, depth,
+                complete ? " (to the end)"
+                         : deeper > 0 ? String.format("\n  (+1 for %d of %d moves)", deeper, explored) : "",
+                ms
         );
     }
 
@@ -1,16 +1,26 @@
 package FOR_EVal2;
 
-import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
- * STRATEGY : Divide & Conquer (Simplified Version)
- * Full board scan without quadrant merging.
+ * STRATEGY : Divide & Conquer
+ * The board is split into quadrants, and each quadrant again, until a region
+ * has at most LEAF_CELLS cells. Leaf regions are scored as ForkJoin tasks;
+ * each merge keeps the better champion of its four children. Row and column
+ * masks are built once per call and shared read-only by every task, so a
+ * leaf checks conflicts and line completion without copying the board.
+ * Works for any N up to 31 – use the array constructor for boards larger
+ * than GameState's.
  */
 public class StrategyDnC {
 
     // ── core fields ──────────────────────────────────────────
-    private final GameState state;
+    private final GameState state;      // null when built from arrays
+    private final int[][]   grid;
+    private final int[]     top, right, bottom, left;
     private final int SIZE;
+    private String explanation = "";
 
     // ── reward constants ─────────────────────────────────────
     private static final double BASE_REWARD         = 1.0;
@@ -21,73 +31,47 @@ public class StrategyDnC {
     private static final double QUAD_CONTROL_BONUS  = 5.0;
     private static final double LOW_OPT_PENALTY     = -5.0;
 
-    // ── constructor ──────────────────────────────────────────
+    private static final int LEAF_CELLS = 9;    // a 3×3 region or smaller is scored directly
+
+    // ── constructors ─────────────────────────────────────────
     public StrategyDnC(GameState state) {
-        this.state = state;
-        this.SIZE  = state.getSize();
+        this.state  = state;
+        this.grid   = state.getGrid();
+        this.top    = state.getTopClues();
+        this.right  = state.getRightClues();
+        this.bottom = state.getBottomClues();
+        this.left   = state.getLeftClues();
+        this.SIZE   = state.getSize();
     }
 
-    //  PUBLIC API
-public int[] findBestMove() {
-        // Divide board into quadrants; each returns its local champion.
-        // Conquer: pick the global best among all champions.
-        int half = SIZE / 2;
-
-        // Four quadrant regions  [rowStart, rowEnd, colStart, colEnd]
-        int[][] quads = {
-                { 0,    half, 0,    half },   // top-left
-                { 0,    half, half, SIZE },   // top-right
-                { half, SIZE, 0,    half },   // bottom-left
-                { half, SIZE, half, SIZE }    // bottom-right
-        };
-
-        List<MoveEval> allCandidates   = new ArrayList<>();
-        List<MoveEval> quadChampions   = new ArrayList<>();
-        List<String>   quadSummaries   = new ArrayList<>();
-        int[]          quadEmptyCounts = new int[4];
-
-        for (int q = 0; q < 4; q++) {
-            int rS = quads[q][0], rE = quads[q][1];
-            int cS = quads[q][2], cE = quads[q][3];
-
-            List<MoveEval> quadMoves = solveQuadrant(rS, rE, cS, cE);
-            quadEmptyCounts[q] = emptyInQuadrant(rS, rE, cS, cE);
-            allCandidates.addAll(quadMoves);
-
-            if (!quadMoves.isEmpty()) {
-                quadMoves.sort(Comparator.comparingDouble(MoveEval::score).reversed());
-                MoveEval champ = quadMoves.get(0);
-                // bonus for controlling the richest quadrant
-                if (quadEmptyCounts[q] == maxOf(quadEmptyCounts)) {
-                    champ = new MoveEval(champ.row, champ.col, champ.value,
-                            champ.score + QUAD_CONTROL_BONUS,
-                            champ.legalOpts, champ.rowDone, champ.colDone);
-                }
-                quadChampions.add(champ);
-                quadSummaries.add(String.format(
-                        "  Q%d [r%d-%d c%d-%d]: best=%d@(%d,%d) score=%.1f empty=%d",
-                        q+1, rS+1, rE, cS+1, cE,
-                        champ.value, champ.row+1, champ.col+1,
-                        champ.score, quadEmptyCounts[q]
-                ));
-            } else {
-                quadSummaries.add(String.format(
-                        "  Q%d [r%d–%d c%d–%d]: NO MOVES (empty=%d)",
-                        q+1, rS+1, rE, cS+1, cE, quadEmptyCounts[q]
-                ));
-            }
-        }
-
-        if (quadChampions.isEmpty()) return null;
+    /** Plays on {@code grid} directly (0 = empty, 0 clue = none); any N from 1 to 31. */
+    public StrategyDnC(int[][] grid, int[] top, int[] right, int[] bottom, int[] left) {
+        if (grid.length < 1 || grid.length > 31)
+            throw new IllegalArgumentException("StrategyDnC supports 1..31, got " + grid.length);
+        this.state  = null;
+        this.grid   = grid;
+        this.top    = top;
+        this.right  = right;
+        this.bottom = bottom;
+        this.left   = left;
+        this.SIZE   = grid.length;
+    }
 
-        // Merge step: pick the global champion
-        quadChampions.sort(Comparator
-                .comparingDouble(MoveEval::score).reversed()
-                .thenComparingInt(m -> -m.legalOpts));   // more options = more control
+    /** Reasoning text of the last findBestMove – also set on the GameState when there is one. */
+    public String getExplanation() { return explanation; }
 
-        MoveEval best = quadChampions.get(0);
-        state.setCpuReasoningExplanation(
-                buildExplanation(best, quadSummaries, allCandidates.size()));
+    //  PUBLIC API
+    public int[] findBestMove() {
+        // Divide the board recursively; every region returns its local champion.
+        // Conquer: merge champions bottom-up into the global best.
+        Masks m = new Masks();
+        Region[] quads = new Region[4];
+        Region all = ForkJoinPool.commonPool().invoke(new Split(m, 0, SIZE, 0, SIZE, null, quads));
+        if (all.best == null) return null;
+
+        MoveEval best = all.best;
+        explanation = buildExplanation(best, quads, all);
+        if (state != null) state.setCpuReasoningExplanation(explanation);
         return new int[]{ best.row, best.col, best.value };
     }
 
@@ -95,101 +79,151 @@ public int[] findBestMove() {
      * Heat-map score for a single cell.
      */
     public double evaluateCell(int row, int col) {
-
-        if (state.getGrid()[row][col] != 0) return 0.0;
-
+        if (grid[row][col] != 0) return 0.0;
+        Masks m = new Masks();
         double max = 0;
+        for (int bits = m.legal(row, col); bits != 0; bits &= bits - 1)
+            max = Math.max(max, localScore(m, row, col, Integer.numberOfTrailingZeros(bits) + 1));
+        return max;
+    }
 
-        for (int v = 1; v <= SIZE; v++) {
+    /** Heat-map scores for the whole board at once, computed by the same parallel decomposition. */
+    public double[][] evaluateBoard() {
+        double[][] heat = new double[SIZE][SIZE];
+        ForkJoinPool.commonPool().invoke(new Split(new Masks(), 0, SIZE, 0, SIZE, heat, null));
+        return heat;
+    }
 
-            if (state.getGraph().hasConflict(state.getGrid(), row, col, v))
-                continue;
+    //  DIVIDE  –  split a region until it is small enough to score
 
-            int[][] after = deepCopy(state.getGrid());
-            after[row][col] = v;
+    private final class Split extends RecursiveTask<Region> {
+        private final Masks m;
+        private final int rS, rE, cS, cE;
+        private final double[][] heat;   // per-cell best score, or null
+        private final Region[] quads;    // top level only: receives the four quadrants
 
-            double score = localScore(after, row, col, v);
-            max = Math.max(max, score);
+        Split(Masks m, int rS, int rE, int cS, int cE, double[][] heat, Region[] quads) {
+            this.m = m; this.rS = rS; this.rE = rE; this.cS = cS; this.cE = cE;
+            this.heat = heat; this.quads = quads;
         }
 
-        return max;
+        @Override
+        protected Region compute() {
+            int rows = rE - rS, cols = cE - cS;
+            if (rows * cols <= LEAF_CELLS || rows < 2 || cols < 2)
+                return solveLeaf(m, rS, rE, cS, cE, heat);
+
+            int rMid = (rS + rE) / 2, cMid = (cS + cE) / 2;
+            Split[] parts = {
+                    new Split(m, rS,   rMid, cS,   cMid, heat, null),   // top-left
+                    new Split(m, rS,   rMid, cMid, cE,   heat, null),   // top-right
+                    new Split(m, rMid, rE,   cS,   cMid, heat, null),   // bottom-left
+                    new Split(m, rMid, rE,   cMid, cE,   heat, null)    // bottom-right
+            };
+            invokeAll(parts);
+
+            Region[] sub = new Region[4];
+            for (int q = 0; q < 4; q++) sub[q] = parts[q].join();
+            if (quads != null) System.arraycopy(sub, 0, quads, 0, 4);
+            return merge(rS, rE, cS, cE, sub, quads != null);
+        }
     }
 
-    //  DIVIDE  –  score every legal move inside one quadrant
+    //  CONQUER  –  keep the better champion; at the top, reward the richest quadrant
+
+    private Region merge(int rS, int rE, int cS, int cE, Region[] sub, boolean topLevel) {
+        int maxEmpty = 0;
+        for (Region r : sub) maxEmpty = Math.max(maxEmpty, r.empty);
+
+        Region out = new Region(rS, rE, cS, cE);
+        for (Region r : sub) {
+            out.empty  += r.empty;
+            out.scanned += r.scanned;
+            out.leaves += r.leaves;
+            out.depth   = Math.max(out.depth, r.depth + 1);
+            MoveEval champ = r.best;
+            if (champ == null) continue;
+            // bonus for controlling the richest quadrant
+            if (topLevel && r.empty == maxEmpty) {
+                champ = new MoveEval(champ.row, champ.col, champ.value,
+                        champ.score + QUAD_CONTROL_BONUS,
+                        champ.legalOpts, champ.rowDone, champ.colDone);
+                r.best = champ;
+            }
+            if (out.best == null || better(champ, out.best)) out.best = champ;
+        }
+        return out;
+    }
+
+    /** Higher score wins; ties go to more legal options (more control). */
+    private static boolean better(MoveEval a, MoveEval b) {
+        if (a.score != b.score) return a.score > b.score;
+        return a.legalOpts > b.legalOpts;
+    }
 
-    private List<MoveEval> solveQuadrant(int rStart, int rEnd, int cStart, int cEnd) {
-        List<MoveEval> moves = new ArrayList<>();
+    //  LEAF  –  score every legal move inside one region
 
+    private Region solveLeaf(Masks m, int rStart, int rEnd, int cStart, int cEnd, double[][] heat) {
+        Region out = new Region(rStart, rEnd, cStart, cEnd);
+        out.leaves = 1;
         for (int r = rStart; r < rEnd; r++) {
             for (int c = cStart; c < cEnd; c++) {
-                if (state.getGrid()[r][c] != 0) continue;
-                for (int v = 1; v <= SIZE; v++) {
-                    if (state.getGraph().hasConflict(state.getGrid(), r, c, v)) continue;
-                    int[][] after = deepCopy(state.getGrid());
-                    after[r][c] = v;
-                    double score    = localScore(after, r, c, v);
-                    int    opts     = legalCount(r, c);
-                    boolean rowDone = isRowComplete(after, r);
-                    boolean colDone = isColComplete(after, c);
-                    moves.add(new MoveEval(r, c, v, score, opts, rowDone, colDone));
+                if (grid[r][c] != 0) continue;
+                out.empty++;
+                int legal = m.legal(r, c);
+                int opts  = Integer.bitCount(legal);
+                for (int bits = legal; bits != 0; bits &= bits - 1) {
+                    int v = Integer.numberOfTrailingZeros(bits) + 1;
+                    double score = localScore(m, r, c, v);
+                    out.scanned++;
+                    if (heat != null) heat[r][c] = Math.max(heat[r][c], score);
+                    MoveEval e = new MoveEval(r, c, v, score, opts,
+                            m.rowFill[r] == SIZE - 1, m.colFill[c] == SIZE - 1);
+                    if (out.best == null || e.score > out.best.score) out.best = e;   // first in scan order on ties
                 }
             }
         }
-
-        // Recursively refine: if quadrant has sub-regions, score them too
-        // (For 4×4 the base case is reached immediately; structure is in place
-        //  for larger N where half > 2 means we recurse further.)
-        if ((rEnd - rStart) > 2 && (cEnd - cStart) > 2) {
-            int rMid = (rStart + rEnd) / 2;
-            int cMid = (cStart + cEnd) / 2;
-            moves.addAll(solveQuadrant(rStart, rMid, cStart, cMid));
-            moves.addAll(solveQuadrant(rStart, rMid, cMid,   cEnd));
-            moves.addAll(solveQuadrant(rMid,   rEnd, cStart, cMid));
-            moves.addAll(solveQuadrant(rMid,   rEnd, cMid,   cEnd));
-        }
-
-        return moves;
+        return out;
     }
 
     //  LOCAL SCORE  (immediate heuristic for a single move)
-    private double localScore(int[][] grid, int row, int col, int value) {
+    private double localScore(Masks m, int row, int col, int value) {
         double score = BASE_REWARD;
 
-        boolean rowDone = isRowComplete(grid, row);
-        boolean colDone = isColComplete(grid, col);
+        boolean rowDone = m.rowFill[row] == SIZE - 1;
+        boolean colDone = m.colFill[col] == SIZE - 1;
 
         if (rowDone) {
             score += ROW_COMPLETE_REWARD;
-            if (rowVisibilityValid(grid, row)) score += VIS_VALID_BONUS;
+            if (rowVisibilityValid(row, col, value)) score += VIS_VALID_BONUS;
         }
         if (colDone) {
             score += COL_COMPLETE_REWARD;
-            if (colVisibilityValid(grid, col)) score += VIS_VALID_BONUS;
+            if (colVisibilityValid(row, col, value)) score += VIS_VALID_BONUS;
         }
         if (rowDone && colDone) score += DOUBLE_BONUS;
 
-        int opts = legalCount(row, col);
+        int opts = Integer.bitCount(m.legal(row, col));
         if (opts <= 1) score += LOW_OPT_PENALTY * 2;
         else if (opts <= 2) score += LOW_OPT_PENALTY;
 
         return score;
     }
 
-    //  VISIBILITY  (Towers clue validation)
+    //  VISIBILITY  (Towers clue validation, with value placed at (row, col))
 
-    private boolean rowVisibilityValid(int[][] grid, int row) {
-        int[] left  = state.getLeftClues();
-        int[] right = state.getRightClues();
-        if (left[row]  != 0 && countVisible(grid[row], false) != left[row])  return false;
-        if (right[row] != 0 && countVisible(grid[row], true)  != right[row]) return false;
+    private boolean rowVisibilityValid(int row, int col, int value) {
+        int[] line = grid[row].clone();
+        line[col] = value;
+        if (left[row]  != 0 && countVisible(line, false) != left[row])  return false;
+        if (right[row] != 0 && countVisible(line, true)  != right[row]) return false;
         return true;
     }
 
-    private boolean colVisibilityValid(int[][] grid, int col) {
-        int[] top    = state.getTopClues();
-        int[] bottom = state.getBottomClues();
+    private boolean colVisibilityValid(int row, int col, int value) {
         int[] colArr = new int[SIZE];
         for (int r = 0; r < SIZE; r++) colArr[r] = grid[r][col];
+        colArr[row] = value;
         if (top[col]    != 0 && countVisible(colArr, false) != top[col])    return false;
         if (bottom[col] != 0 && countVisible(colArr, true)  != bottom[col]) return false;
         return true;
@@ -205,47 +239,34 @@ public int[] findBestMove() {
         return visible;
     }
 
-    //  UTILITY
-    private boolean isRowComplete(int[][] g, int r) {
-        for (int c = 0; c < SIZE; c++) if (g[r][c] == 0) return false;
-        return true;
-    }
-
-    private boolean isColComplete(int[][] g, int c) {
-        for (int r = 0; r < SIZE; r++) if (g[r][c] == 0) return false;
-        return true;
-    }
-
-    private int legalCount(int row, int col) {
-        int count = 0;
-        for (int v = 1; v <= SIZE; v++)
-            if (!state.getGraph().hasConflict(state.getGrid(), row, col, v)) count++;
-        return count;
-    }
-
-    private int emptyInQuadrant(int rS, int rE, int cS, int cE) {
-        int count = 0;
-        for (int r = rS; r < rE; r++)
-            for (int c = cS; c < cE; c++)
-                if (state.getGrid()[r][c] == 0) count++;
-        return count;
-    }
-
-    private int maxOf(int[] arr) {
-        int m = 0;
-        for (int v : arr) if (v > m) m = v;
-        return m;
-    }
+    //  SHARED MASKS  (built once per call, read-only in every task)
+
+    private final class Masks {
+        final int[] rowUsed = new int[SIZE], colUsed = new int[SIZE];   // bit v-1 = height v placed
+        final int[] rowFill = new int[SIZE], colFill = new int[SIZE];
+        final int   full    = (int) ((1L << SIZE) - 1);
+
+        Masks() {
+            for (int r = 0; r < SIZE; r++)
+                for (int c = 0; c < SIZE; c++) {
+                    int v = grid[r][c];
+                    if (v == 0) continue;
+                    rowUsed[r] |= 1 << (v - 1);
+                    colUsed[c] |= 1 << (v - 1);
+                    rowFill[r]++;
+                    colFill[c]++;
+                }
+        }
 
-    private int[][] deepCopy(int[][] src) {
-        int[][] copy = new int[SIZE][SIZE];
-        for (int i = 0; i < SIZE; i++) copy[i] = src[i].clone();
-        return copy;
+        /** Heights (bit v-1) that conflict with nothing in the cell's row or column. */
+        int legal(int r, int c) {
+            return full & ~(rowUsed[r] | colUsed[c]);
+        }
     }
 
     //  EXPLANATION TEXT
 
-    private String buildExplanation(MoveEval best, List<String> quadSummaries, int totalMoves) {
+    private String buildExplanation(MoveEval best, Region[] quads, Region all) {
         StringBuilder sb = new StringBuilder();
         sb.append("【DIVIDE & CONQUER】\n");
         sb.append("════════════════════════════\n");
@@ -257,9 +278,19 @@ public int[] findBestMove() {
         sb.append(String.format(" Col done?    : %s\n",   best.colDone ? "YES ✓" : "no"));
         sb.append("────────────────────────────\n");
         sb.append(" Quadrant analysis:\n");
-        for (String s : quadSummaries) sb.append(s).append("\n");
+        for (int q = 0; q < 4 && quads[q] != null; q++) {
+            Region r = quads[q];
+            if (r.best != null)
+                sb.append(String.format("  Q%d [r%d-%d c%d-%d]: best=%d@(%d,%d) score=%.1f empty=%d\n",
+                        q + 1, r.rS + 1, r.rE, r.cS + 1, r.cE,
+                        r.best.value, r.best.row + 1, r.best.col + 1, r.best.score, r.empty));
+            else
+                sb.append(String.format("  Q%d [r%d-%d c%d-%d]: NO MOVES (empty=%d)\n",
+                        q + 1, r.rS + 1, r.rE, r.cS + 1, r.cE, r.empty));
+        }
         sb.append("────────────────────────────\n");
-        sb.append(String.format(" Total moves scanned: %d\n", totalMoves));
+        sb.append(String.format(" Total moves scanned: %d\n", all.scanned));
+        sb.append(String.format(" Leaf regions       : %d (depth %d)\n", all.leaves, all.depth));
         sb.append("════════════════════════════\n");
         sb.append("STRATEGY: Board split into\n");
         sb.append("quadrants → local champions\n");
@@ -267,7 +298,7 @@ public int[] findBestMove() {
         return sb.toString();
     }
 
-    //  INNER DATA CLASS
+    //  INNER DATA CLASSES
     private static class MoveEval {
         final int    row, col, value, legalOpts;
         final double score;
@@ -279,9 +310,16 @@ public int[] findBestMove() {
             this.score = score; this.legalOpts = legalOpts;
             this.rowDone = rowDone; this.colDone = colDone;
         }
-
-        double score() { return score; }
     }
-}
 
+    /** One region's result: its champion and what it covered. */
+    private static class Region {
+        final int rS, rE, cS, cE;
+        MoveEval best;
+        int empty, scanned, leaves, depth;
 
+        Region(int rS, int rE, int cS, int cE) {
+            this.rS = rS; this.rE = rE; this.cS = cS; this.cE = cE;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package FOR_EVal2;
+
+import TowersPuzzle.SearchCounters;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ┌─────────────────────────────────────────────────────────────────────────┐
+ *  STRATEGY  :  Expectimax                                                  │
+ *  APPROACH  :  CPU turns take the best move; human turns average over     │
+ *               the moves a human is likely to play, weighted by a          │
+ *               HumanMoveModel learned from recorded games. Iterative      │
+ *               deepening under a time budget.                             │
+ * └─────────────────────────────────────────────────────────────────────────┘
+ *
+ * Values are the CPU's future total minus the human's, in tenths of a point.
+ * Human moves less likely than {@link #MIN_PROB} are dropped and the rest
+ * renormalised – that is what keeps chance nodes narrower than the
+ * full-width search alpha-beta needs. Each board's pruned move distribution
+ * is cached, and so is each position's value at the depth it was searched to.
+ */
+public class StrategyExpectimax implements SearchCounters {
+
+    // ── core fields ──────────────────────────────────────────────────────────
+    private final GameState      state;
+    private final int            SIZE;
+    private final HumanMoveModel model;
+
+    /** Wall-clock budget per CPU move. */
+    public volatile long timeBudgetMs = 1000;
+    /** Polled with the deadline; the search stops early once it returns true. */
+    public volatile BooleanSupplier abortWhen = () -> false;
+
+    private static final double MIN_PROB   = 0.02;
+    private static final int    HEAT_DEPTH = 3;
+    private static final int    MAX_MOVES  = GameSim.CELLS * GameSim.SIZE;
+
+    // ── chance-node cache: pruned human move distribution per board ─────────
+    private static final int CACHE_BITS = 16;
+    private static final int CACHE_MASK = (1 << CACHE_BITS) - 1;
+    private final long[]     chanceKey   = new long[1 << CACHE_BITS];
+    private final byte[][]   chanceMoves = new byte[1 << CACHE_BITS][];
+    private final float[][]  chanceProbs = new float[1 << CACHE_BITS][];
+
+    // ── value cache ──────────────────────────────────────────────────────────
+    private static final int    TT_BITS = 18;
+    private static final int    TT_MASK = (1 << TT_BITS) - 1;
+    private static final int    SOLVED  = 127;
+    private final long[]   ttKey   = new long[1 << TT_BITS];
+    private final double[] ttValue = new double[1 << TT_BITS];
+    private final byte[]   ttDepth = new byte[1 << TT_BITS];
+
+    // ── per-search state ─────────────────────────────────────────────────────
+    private GameSim sim;
+    private long    deadline;
+    private boolean aborted, hitHorizon;
+    private long    nodes, chanceHits;
+    private final int[]    moveBuf = new int[MAX_MOVES];
+    private final double[] probBuf = new double[MAX_MOVES];
+    private long modelMoves = -1;     // model.movesSeen() the caches were filled with
+
+    // ── constructor ──────────────────────────────────────────────────────────
+    public StrategyExpectimax(GameState state) {
+        this(state, HumanMoveModel.shared());
+    }
+
+    public StrategyExpectimax(GameState state, HumanMoveModel model) {
+        this.state = state;
+        this.SIZE  = state.getSize();
+        this.model = model;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PUBLIC API
+    // ════════════════════════════════════════════════════════════════════════
+
+    // ── SearchCounters ───────────────────────────────────────────────────────
+    @Override public long nodesSearched()  { return nodes; }
+    @Override public long memoHits()       { return chanceHits; }
+
+    /** Returns int[]{row, col, value} or null if no legal move exists. */
+    public int[] findBestMove() {
+        long start = System.nanoTime();
+        sim = new GameSim(state);
+        sim.humanToMove = false;                       // asked on the CPU's turn
+        deadline = start + timeBudgetMs * 1_000_000L;
+        nodes = chanceHits = 0;
+        syncWithModel();
+
+        int[] rootMoves = new int[MAX_MOVES];
+        int n = 0;
+        for (int cell = 0; cell < GameSim.CELLS; cell++)
+            for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1)
+                rootMoves[n++] = cell * 8 + Integer.numberOfTrailingZeros(bits) + 1;
+        if (n == 0) return null;
+
+        int bestMove = rootMoves[0], depthDone = 0;
+        double bestValue = 0;
+        boolean solved = false;
+        for (int depth = 1; depth <= sim.empty; depth++) {
+            hitHorizon = false;
+            aborted = false;
+            int iterBest = -1;
+            double iterValue = Double.NEGATIVE_INFINITY;
+            // last iteration's best first, so a cut-short iteration still has it
+            moveToFront(rootMoves, n, bestMove);
+            for (int i = 0; i < n; i++) {
+                int m = rootMoves[i];
+                int gain = sim.play(m >> 3, m & 7);
+                double v = gain + value(depth - 1);
+                sim.undo(m >> 3);
+                if (aborted) break;
+                if (v > iterValue) { iterValue = v; iterBest = m; }
+            }
+            if (aborted) break;          // keep the last finished iteration
+            bestMove = iterBest;
+            bestValue = iterValue;
+            depthDone = depth;
+            if (!hitHorizon) { solved = true; break; }
+        }
+
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        state.setCpuReasoningExplanation(buildExplanation(bestMove, bestValue, depthDone, solved, ms));
+        int cell = bestMove >> 3;
+        return new int[]{ cell / SIZE, cell % SIZE, bestMove & 7 };
+    }
+
+    /** Heat-map score: the cell's best expected value at a shallow depth. */
+    public double evaluateCell(int row, int col) {
+        if (state.getGrid()[row][col] != 0) return 0.0;
+        sim = new GameSim(state);
+        sim.humanToMove = false;
+        deadline = Long.MAX_VALUE;
+        aborted = false;
+        syncWithModel();
+
+        int cell = row * SIZE + col;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1) {
+            int v = Integer.numberOfTrailingZeros(bits) + 1;
+            int gain = sim.play(cell, v);
+            best = Math.max(best, gain + value(HEAT_DEPTH - 1));
+            sim.undo(cell);
+        }
+        // shift into a positive range; the GUI normalises by the max
+        return best == Double.NEGATIVE_INFINITY ? 0.0 : Math.max(0.01, 1000.0 + best);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  EXPECTIMAX CORE
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Expected future CPU − human total from here, in tenths. */
+    private double value(int depth) {
+        if ((++nodes & 1023) == 0 && (System.nanoTime() > deadline || abortWhen.getAsBoolean())) aborted = true;
+        if (aborted) return 0;
+
+        if (sim.humanLives <= 0 || sim.cpuLives <= 0) return cpuView(sim.terminalValue());
+
+        long key = sim.key();
+        int slot = (int) (mix(key) & TT_MASK);
+        if (ttKey[slot] == key && ttDepth[slot] >= depth) {
+            if (ttDepth[slot] < SOLVED) hitHorizon = true;
+            return ttValue[slot];
+        }
+        if (depth == 0) {
+            if (!sim.hasMoves()) return cpuView(sim.terminalValue());
+            hitHorizon = true;
+            return 0;
+        }
+
+        boolean horizonBefore = hitHorizon;
+        hitHorizon = false;
+        double result;
+        if (!sim.humanToMove) {
+            result = Double.NEGATIVE_INFINITY;
+            for (int cell = 0; cell < GameSim.CELLS; cell++)
+                for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1) {
+                    int v = Integer.numberOfTrailingZeros(bits) + 1;
+                    int gain = sim.play(cell, v);
+                    result = Math.max(result, gain + value(depth - 1));
+                    sim.undo(cell);
+                    if (aborted) return 0;
+                }
+            if (result == Double.NEGATIVE_INFINITY) result = cpuView(sim.terminalValue());
+        } else {
+            int c = chanceSlot(key);
+            byte[] moves = chanceMoves[c];
+            float[]  probs = chanceProbs[c];
+            if (moves.length == 0) {
+                result = cpuView(sim.terminalValue());
+            } else {
+                result = 0;
+                for (int i = 0; i < moves.length; i++) {
+                    int m = moves[i];
+                    int gain = sim.play(m >> 3, m & 7);
+                    result += probs[i] * (value(depth - 1) - gain);
+                    sim.undo(m >> 3);
+                    if (aborted) return 0;
+                }
+            }
+        }
+
+        ttKey[slot]   = key;
+        ttValue[slot] = result;
+        ttDepth[slot] = (byte) (hitHorizon ? depth : SOLVED);
+        hitHorizon |= horizonBefore;
+        return result;
+    }
+
+    /** Cache slot holding the human's pruned, renormalised move distribution for this board. */
+    private int chanceSlot(long key) {
+        int slot = (int) (mix(key) & CACHE_MASK);
+        if (chanceKey[slot] == key) { chanceHits++; return slot; }
+
+        int n = model.distribution(sim, moveBuf, probBuf);
+        int kept = 0;
+        double mass = 0;
+        for (int i = 0; i < n; i++)
+            if (probBuf[i] >= MIN_PROB) { kept++; mass += probBuf[i]; }
+        double threshold = MIN_PROB;
+        if (kept == 0) { kept = n; mass = 1; threshold = 0; }   // too flat to prune: keep everything
+        byte[]  moves = new byte[kept];
+        float[] probs = new float[kept];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (probBuf[i] < threshold) continue;
+            moves[j] = (byte) moveBuf[i];
+            probs[j++] = (float) (probBuf[i] / mass);
+        }
+        chanceKey[slot]   = key;
+        chanceMoves[slot] = moves;
+        chanceProbs[slot] = probs;
+        return slot;
+    }
+
+    /** Both caches depend on the model; drop them once it has learned more moves. */
+    private void syncWithModel() {
+        if (model.movesSeen() == modelMoves) return;
+        Arrays.fill(chanceKey, -1);
+        Arrays.fill(ttKey, -1);
+        modelMoves = model.movesSeen();
+    }
+
+    private double cpuView(int sideToMoveValue) {
+        return sim.humanToMove ? -sideToMoveValue : sideToMoveValue;
+    }
+
+    private static void moveToFront(int[] moves, int n, int first) {
+        for (int i = 0; i < n; i++) {
+            if (moves[i] != first) continue;
+            System.arraycopy(moves, 0, moves, 1, i);
+            moves[0] = first;
+            return;
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  EXPLANATION TEXT  (shown in reasoning panel)
+    // ════════════════════════════════════════════════════════════════════════
+
+    private String buildExplanation(int move, double value, int depth, boolean solved, long ms) {
+        int cell = move >> 3;
+        return String.format(
+                "【EXPECTIMAX】\n" +
+                        "════════════════════════════\n" +
+                        " Move : %d  at  (%d , %d)\n" +
+                        " Expected (CPU − you): %+.1f\n" +
+                        "────────────────────────────\n" +
+                        " Depth reached : %d plies%s\n" +
+                        " Nodes searched: %d\n" +
+                        " Cached boards : %d hits\n" +
+                        " Learned from  : %d of your moves\n" +
+                        " Time          : %d ms\n" +
+                        "════════════════════════════\n" +
+                        "STRATEGY: Predicts the moves\n" +
+                        "you tend to make instead of\n" +
+                        "assuming perfect replies.",
+                move & 7, cell / SIZE + 1, cell % SIZE + 1,
+                value / 10.0, depth, solved ? " (to the end)" : "",
+                nodes, chanceHits, model.movesSeen(), ms);
+    }
+}
@@ -0,0 +1,338 @@
+package FOR_EVal2;
+
+import TowersPuzzle.SearchCounters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ┌─────────────────────────────────────────────────────────────────────────┐
+ *  STRATEGY  :  Monte Carlo Tree Search (UCT)                               │
+ *  APPROACH  :  Grows a game tree one playout at a time: descend by the     │
+ *               UCB1 rule, expand a leaf, play the rest of the game out    │
+ *               half greedily and half at random, back the result up.      │
+ *               Anytime – stops at the time budget and plays the most      │
+ *               visited move.                                              │
+ * └─────────────────────────────────────────────────────────────────────────┘
+ *
+ * Root-parallel: each worker grows its own tree from the same position with
+ * its own random stream, and the root visit counts are summed at the end.
+ * Trees are flat primitive arrays, reused from one move to the next.
+ *
+ * A playout's reward is 0.5 + 0.5·tanh(Δ / 150). Δ is what the CPU gains
+ * from here to the end of the game minus what the human gains, in tenths,
+ * so a 15-point swing counts almost as a sure win.
+ */
+public class StrategyMCTS implements SearchCounters {
+
+    // ── core fields ──────────────────────────────────────────────────────────
+    private final GameState state;
+    private final int       SIZE;
+
+    /** Wall-clock budget per CPU move. */
+    public volatile long timeBudgetMs = 1000;
+    /** Polled between playout batches; every worker stops once it returns true. */
+    public volatile BooleanSupplier abortWhen = () -> false;
+    /** Independent trees searched in parallel. */
+    public volatile int  workers = Runtime.getRuntime().availableProcessors();
+
+    private static final long   HEAT_BUDGET_MS = 150;    // one search feeds every heat-map cell
+    private static final double EXPLORATION    = 1.2;    // UCB1 constant
+    private static final double REWARD_SCALE   = 150.0;  // tenths of a point
+    private static final double GREEDY_ROLLOUT = 0.5;    // share of playout moves chosen by gain
+    private static final int    MAX_NODES      = 1 << 18;
+
+    private static final ExecutorService POOL = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "mcts-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Tree[] trees = new Tree[0];
+    private long   searchNodes;                           // tree size of the last findBestMove
+    private long   seed = System.nanoTime();
+
+    // ── last search, for the heat map ────────────────────────────────────────
+    private long  heatKey = -1;
+    private final int[] cellVisits = new int[GameSim.CELLS];
+
+    // ── constructor ──────────────────────────────────────────────────────────
+    public StrategyMCTS(GameState state) {
+        this.state = state;
+        this.SIZE  = state.getSize();
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PUBLIC API
+    // ════════════════════════════════════════════════════════════════════════
+
+    // ── SearchCounters ───────────────────────────────────────────────────────
+    @Override public long nodesSearched()  { return searchNodes; }
+    @Override public long memoEntries()    { return searchNodes; }
+
+    /** Returns int[]{row, col, value} or null if no legal move exists. */
+    public int[] findBestMove() {
+        long start = System.nanoTime();
+        Result res = search(timeBudgetMs);
+        searchNodes = res == null ? 0 : res.nodes;
+        if (res == null) return null;
+
+        int best = 0;
+        for (int i = 1; i < res.moves.length; i++)
+            if (res.visits[i] > res.visits[best]) best = i;
+
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        state.setCpuReasoningExplanation(buildExplanation(res, best, ms));
+        int m = res.moves[best], cell = m >> 3;
+        return new int[]{ cell / SIZE, cell % SIZE, m & 7 };
+    }
+
+    /** Heat-map score: the cell's share of root visits in a short search of this position. */
+    public double evaluateCell(int row, int col) {
+        if (state.getGrid()[row][col] != 0) return 0.0;
+        GameSim sim = cpuToMove();
+        if (sim.key() != heatKey) {
+            if (search(HEAT_BUDGET_MS) == null) return 0.0;
+            heatKey = sim.key();
+        }
+        // the GUI normalises by the max
+        return cellVisits[row * SIZE + col];
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  ROOT-PARALLEL SEARCH
+    // ════════════════════════════════════════════════════════════════════════
+
+    private Result search(long budgetMs) {
+        GameSim root = cpuToMove();
+        if (!root.hasMoves()) return null;
+
+        int n = Math.max(1, workers);
+        if (trees.length != n) {
+            trees = new Tree[n];
+            for (int i = 0; i < n; i++) trees[i] = new Tree();
+        }
+        long deadline = System.nanoTime() + budgetMs * 1_000_000L;
+        BooleanSupplier stop = abortWhen;
+        List<Future<?>> running = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Tree t = trees[i];
+            GameSim sim = cpuToMove();
+            SplittableRandom rnd = new SplittableRandom(seed++);
+            if (i == n - 1) t.run(sim, deadline, stop, rnd);        // the caller is a worker too
+            else running.add(POOL.submit(() -> t.run(sim, deadline, stop, rnd)));
+        }
+        try {
+            for (Future<?> f : running) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MCTS search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MCTS worker failed", e.getCause());
+        }
+
+        // every tree expands the root the same way, so child i is the same move in each
+        Tree first = trees[0];
+        int k = first.childCount[0];
+        Result res = new Result(k);
+        Arrays.fill(cellVisits, 0);
+        for (int i = 0; i < k; i++) {
+            res.moves[i] = first.move[first.firstChild[0] + i];
+            for (Tree t : trees) {
+                int c = t.firstChild[0] + i;
+                res.visits[i] += t.visits[c];
+                res.wins[i]   += t.wins[c];
+            }
+            cellVisits[res.moves[i] >> 3] += res.visits[i];
+        }
+        for (Tree t : trees) { res.playouts += t.playouts; res.nodes += t.size; }
+        res.workers = n;
+        return res;
+    }
+
+    private GameSim cpuToMove() {
+        GameSim sim = new GameSim(state);
+        sim.humanToMove = false;                       // asked on the CPU's turn
+        return sim;
+    }
+
+    /** Summed root statistics of all workers. */
+    private static final class Result {
+        final int[]    moves, visits;
+        final double[] wins;
+        long playouts, nodes;
+        int  workers;
+
+        Result(int k) { moves = new int[k]; visits = new int[k]; wins = new double[k]; }
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  ONE WORKER'S TREE
+    // ════════════════════════════════════════════════════════════════════════
+
+    /**
+     * Node 0 is the root. A node's children are contiguous from
+     * {@code firstChild}; {@code wins} are from the view of the player who
+     * made the node's move. Not thread-safe – one per worker.
+     */
+    private static final class Tree {
+        final byte[]   move       = new byte[MAX_NODES];   // cell*8 + value
+        final int[]    firstChild = new int[MAX_NODES];
+        final byte[]   childCount = new byte[MAX_NODES];
+        final int[]    visits     = new int[MAX_NODES];
+        final double[] wins       = new double[MAX_NODES];
+        int  size;
+        long playouts;
+
+        private final int[] path    = new int[GameSim.CELLS + 1];
+        private final int[] played  = new int[GameSim.CELLS];
+        private final int[] moveBuf = new int[GameSim.CELLS * GameSim.SIZE];
+
+        void run(GameSim sim, long deadline, BooleanSupplier stop, SplittableRandom rnd) {
+            size = 1;
+            playouts = 0;
+            childCount[0] = 0;
+            visits[0] = 0;
+            expand(0, sim);
+            do {
+                for (int i = 0; i < 64; i++) iterate(sim, rnd);
+            } while (System.nanoTime() < deadline && !stop.getAsBoolean());
+        }
+
+        private void iterate(GameSim sim, SplittableRandom rnd) {
+            int node = 0, depth = 0, nPlayed = 0, delta = 0;
+            boolean cpu = true;                          // the root is the CPU's turn
+            path[0] = 0;
+
+            // ── selection & expansion ──
+            while (true) {
+                if (childCount[node] == 0) {
+                    if (node != 0 && visits[node] == 0) break;   // fresh leaf: play out from here
+                    if (!expand(node, sim)) break;               // game over or tree full
+                }
+                node = select(node);
+                int m = move[node];
+                int gain = sim.play(m >> 3, m & 7);
+                delta += cpu ? gain : -gain;
+                cpu = !cpu;
+                played[nPlayed++] = m >> 3;
+                path[++depth] = node;
+                if (sim.humanLives <= 0 || sim.cpuLives <= 0) break;
+            }
+
+            // ── rollout ──
+            while (sim.humanLives > 0 && sim.cpuLives > 0) {
+                int m = rolloutMove(sim, rnd);
+                if (m < 0) break;
+                int gain = sim.play(m >> 3, m & 7);
+                delta += cpu ? gain : -gain;
+                cpu = !cpu;
+                played[nPlayed++] = m >> 3;
+            }
+            int end = sim.terminalValue();               // ±KO if someone ran out of lives
+            delta += cpu ? end : -end;
+            while (nPlayed > 0) sim.undo(played[--nPlayed]);
+
+            // ── backpropagation ──
+            double reward = 0.5 + 0.5 * Math.tanh(delta / REWARD_SCALE);
+            visits[0]++;
+            for (int d = 1; d <= depth; d++) {
+                int nd = path[d];
+                visits[nd]++;
+                wins[nd] += (d & 1) == 1 ? reward : 1 - reward;   // odd depths are CPU moves
+            }
+            playouts++;
+        }
+
+        /** UCB1 over the children; unvisited children first. */
+        private int select(int node) {
+            int from = firstChild[node], to = from + childCount[node];
+            double logN = Math.log(Math.max(1, visits[node]));
+            int best = from;
+            double bestScore = -1;
+            for (int c = from; c < to; c++) {
+                if (visits[c] == 0) return c;
+                double score = wins[c] / visits[c] + EXPLORATION * Math.sqrt(logN / visits[c]);
+                if (score > bestScore) { bestScore = score; best = c; }
+            }
+            return best;
+        }
+
+        /** Adds every legal move of {@code sim} as a child of {@code node}; false if there is none or no room. */
+        private boolean expand(int node, GameSim sim) {
+            int n = legalMoves(sim, moveBuf);
+            if (n == 0 || size + n > MAX_NODES) return false;
+            firstChild[node] = size;
+            childCount[node] = (byte) n;
+            for (int i = 0; i < n; i++) {
+                int c = size++;
+                move[c] = (byte) moveBuf[i];
+                firstChild[c] = 0;
+                childCount[c] = 0;
+                visits[c] = 0;
+                wins[c] = 0;
+            }
+            return true;
+        }
+
+        /** Highest immediate gain half the time, uniformly random otherwise; -1 if nobody can move. */
+        private int rolloutMove(GameSim sim, SplittableRandom rnd) {
+            int n = legalMoves(sim, moveBuf);
+            if (n == 0) return -1;
+            if (rnd.nextDouble() >= GREEDY_ROLLOUT) return moveBuf[rnd.nextInt(n)];
+            int best = -1, bestGain = Integer.MIN_VALUE, ties = 0;
+            for (int i = 0; i < n; i++) {
+                int m = moveBuf[i];
+                int gain = sim.previewGain(m >> 3, m & 7);
+                if (gain > bestGain) { bestGain = gain; best = m; ties = 1; }
+                else if (gain == bestGain && rnd.nextInt(++ties) == 0) best = m;
+            }
+            return best;
+        }
+
+        private static int legalMoves(GameSim sim, int[] out) {
+            int n = 0;
+            for (int cell = 0; cell < GameSim.CELLS; cell++)
+                for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1)
+                    out[n++] = cell * 8 + Integer.numberOfTrailingZeros(bits) + 1;
+            return n;
+        }
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  EXPLANATION TEXT  (shown in reasoning panel)
+    // ════════════════════════════════════════════════════════════════════════
+
+    private String buildExplanation(Result res, int best, long ms) {
+        int m = res.moves[best], cell = m >> 3;
+        int total = 0;
+        for (int v : res.visits) total += v;
+        return String.format(
+                "【MONTE CARLO TREE SEARCH】\n" +
+                        "════════════════════════════\n" +
+                        " Move : %d  at  (%d , %d)\n" +
+                        " Visits : %d of %d (%.0f%%)\n" +
+                        " Expected result : %.0f%%\n" +
+                        "────────────────────────────\n" +
+                        " Playouts : %d\n" +
+                        " Workers  : %d\n" +
+                        " Tree size: %d nodes\n" +
+                        " Time     : %d ms\n" +
+                        "════════════════════════════\n" +
+                        "STRATEGY: Plays thousands of\n" +
+                        "quick games from here and\n" +
+                        "picks the move that keeps\n" +
+                        "winning them.",
+                m & 7, cell / SIZE + 1, cell % SIZE + 1,
+                res.visits[best], total, 100.0 * res.visits[best] / Math.max(1, total),
+                100.0 * res.wins[best] / Math.max(1, res.visits[best]),
+                res.playouts, res.workers, res.nodes, ms);
+    }
+}
@@ -0,0 +1,121 @@
+package FOR_EVal2;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ┌─────────────────────────────────────────────────────────────────────────┐
+ *  STRATEGY  :  Perfect play                                                │
+ *  APPROACH  :  Looks every legal move up in the puzzle's GameTablebase     │
+ *               and plays the one with the best exact outcome, assuming    │
+ *               you answer perfectly too. O(1) per move.                   │
+ * └─────────────────────────────────────────────────────────────────────────┘
+ *
+ * The tablebase is mapped from disk if an earlier game saved it, otherwise
+ * it is built on a background thread (about a minute and a half). Until it
+ * is ready, {@link StrategyAlphaBeta} plays instead and the reasoning panel
+ * says so.
+ */
+public class StrategyPerfect {
+
+    // ── core fields ──────────────────────────────────────────────────────────
+    private final GameState state;
+    private final int       SIZE;
+    private final CompletableFuture<GameTablebase> table;
+    private StrategyAlphaBeta fallback;
+
+    // ── constructor ──────────────────────────────────────────────────────────
+    public StrategyPerfect(GameState state) {
+        this.state = state;
+        this.SIZE  = state.getSize();
+        this.table = GameTablebase.request(state);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  PUBLIC API
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** True once the tablebase is loaded and moves are exact. */
+    public boolean isReady() {
+        return table.isDone() && !table.isCompletedExceptionally();
+    }
+
+    /** Returns int[]{row, col, value} or null if no legal move exists. */
+    public int[] findBestMove() {
+        if (!isReady()) {
+            int[] move = fallback().findBestMove();
+            state.setCpuReasoningExplanation(pendingNote() + state.getCpuReasoningExplanation());
+            return move;
+        }
+        long start = System.nanoTime();
+        GameTablebase tb = table.join();
+        GameSim sim = new GameSim(state);
+        sim.humanToMove = false;                       // asked on the CPU's turn
+
+        int best = tb.bestMove(sim);
+        if (best < 0) return null;
+        int bestValue = tb.moveValue(sim, best >> 3, best & 7);
+
+        int moves = 0, optimal = 0;
+        for (int cell = 0; cell < GameSim.CELLS; cell++)
+            for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1) {
+                moves++;
+                if (tb.moveValue(sim, cell, Integer.numberOfTrailingZeros(bits) + 1) == bestValue) optimal++;
+            }
+
+        long us = (System.nanoTime() - start) / 1_000;
+        state.setCpuReasoningExplanation(buildExplanation(best, bestValue, moves, optimal, us));
+        int cell = best >> 3;
+        return new int[]{ cell / SIZE, cell % SIZE, best & 7 };
+    }
+
+    /** Heat-map score: exact value of the cell's best value, shifted positive. */
+    public double evaluateCell(int row, int col) {
+        if (state.getGrid()[row][col] != 0) return 0.0;
+        if (!isReady()) return fallback().evaluateCell(row, col);
+
+        GameTablebase tb = table.join();
+        GameSim sim = new GameSim(state);
+        sim.humanToMove = false;
+        int cell = row * SIZE + col;
+        int best = Integer.MIN_VALUE;
+        for (int bits = sim.legal(cell); bits != 0; bits &= bits - 1)
+            best = Math.max(best, tb.moveValue(sim, cell, Integer.numberOfTrailingZeros(bits) + 1));
+        // shift into a positive range; the GUI normalises by the max
+        return best == Integer.MIN_VALUE ? 0.0 : Math.max(0.01, 1000.0 + best);
+    }
+
+    private StrategyAlphaBeta fallback() {
+        if (fallback == null) fallback = new StrategyAlphaBeta(state);
+        return fallback;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  EXPLANATION TEXT  (shown in reasoning panel)
+    // ════════════════════════════════════════════════════════════════════════
+
+    private String pendingNote() {
+        return table.isCompletedExceptionally()
+                ? "(tablebase unavailable –\n playing alpha-beta)\n\n"
+                : "(tablebase still building –\n playing alpha-beta)\n\n";
+    }
+
+    private String buildExplanation(int move, int value, int moves, int optimal, long us) {
+        int cell = move >> 3;
+        return String.format(
+                "【PERFECT PLAY】\n" +
+                        "════════════════════════════\n" +
+                        " Move : %d  at  (%d , %d)\n" +
+                        " Exact outlook (CPU − you): %+.1f\n" +
+                        "────────────────────────────\n" +
+                        " Legal moves   : %d\n" +
+                        " Equally best  : %d\n" +
+                        " Positions     : %,d\n" +
+                        " Time          : %d µs\n" +
+                        "════════════════════════════\n" +
+                        "STRATEGY: Knows the outcome\n" +
+                        "of every position and never\n" +
+                        "gives away a point.",
+                move & 7, cell / SIZE + 1, cell % SIZE + 1,
+                value / 10.0, moves, optimal, GameTablebase.positionCount(), us);
+    }
+}
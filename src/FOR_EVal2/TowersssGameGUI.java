@@ -8,8 +8,10 @@ import java.awt.geom.*;
 import java.awt.image.BufferedImage;
 import java.util.Random;
 
+import TowersPuzzle.PuzzleBank;
+
 // ─────────────────────────────────────────────────────────────────────────────
-//  MAIN GUI  –  Towers Puzzle  (4 × 4)   •   DP  &  D&C  AI Strategies
+//  MAIN GUI  –  Towers Puzzle  (4 × 4)   •   DP, D&C  &  α-β  AI Strategies
 //  Splash screen → algorithm chooser → full game
 // ─────────────────────────────────────────────────────────────────────────────
 public class TowersssGameGUI extends JFrame {
@@ -23,23 +25,61 @@ public class TowersssGameGUI extends JFrame {
 
     // ── game objects ────────────────────────────────────────────────────────
     private GameState           gameState;
-    private StrategyDP          strategyDP;
-    private StrategyDnC         strategyDnC;
+    // every strategy analyses the board in the background; the chosen one plays
+    private final AnalysisService analysis = new AnalysisService();
 
     // ── selection state ─────────────────────────────────────────────────────
     private int selectedRow = -1, selectedCol = -1;
 
     // ── UI widgets ──────────────────────────────────────────────────────────
     private JButton[][]  cellButtons     = new JButton[N][N];
+    private JLabel[]     topClueLabels   = new JLabel[N], rightClueLabels = new JLabel[N];
+    private JLabel[]     bottomClueLabels = new JLabel[N], leftClueLabels = new JLabel[N];
     private JButton[]    valueButtons    = new JButton[N];
     private JLabel       statusLabel, humanScoreLabel, humanLivesLabel,
             cpuScoreLabel,  cpuLivesLabel;
     private JPanel       valueSelectionPanel;
     private JCheckBox    heatMapToggle;
     private JTextArea    reasoningArea;
+    private JButton[]    algoSwitches    = new JButton[AlgoChoice.values().length];
 
     // ── strategy choice ─────────────────────────────────────────────────────
-    public enum AlgoChoice { DP, DNC }
+    public enum AlgoChoice {
+        DP("DP", "Dynamic Programming",
+           "Memoises sub-problems to\nfind globally optimal moves.\nSmart, but heavy on memory.",
+           new Color(56, 189, 248), new Color(14, 165, 233),      // sky-blue accent
+           new Color(14, 40, 100),  new Color(56, 189, 248)),     // sky-blue → teal heat
+        DNC("D&C", "Divide & Conquer",
+            "Recursively splits the board\ninto sub-problems & merges.\nFast & aggressive.",
+            new Color(167, 139, 250), new Color(139, 92, 246),    // violet accent
+            new Color(50, 14, 100),   new Color(200, 140, 255)),  // purple → violet heat
+        ALPHA_BETA("α-β", "Alpha-Beta Search",
+            "Plays out your replies too,\nwith pruning and a memory\nof positions. Thinks ahead.",
+            new Color(251, 191, 36), new Color(217, 119, 6),      // amber accent
+            new Color(70, 40, 8),    new Color(251, 191, 36)),    // brown → amber heat
+        MCTS("MCTS", "Monte Carlo Tree Search",
+            "Plays thousands of quick\nrandom games from here and\ngoes with what wins most.",
+            new Color(244, 114, 182), new Color(219, 39, 119),    // pink accent
+            new Color(80, 10, 45),    new Color(244, 114, 182)),  // plum → pink heat
+        EXPECTIMAX("E[x]", "Expectimax",
+            "Learns how you play and\nplans for the moves you are\nlikely to make, not the best.",
+            new Color(45, 212, 191), new Color(13, 148, 136),     // teal accent
+            new Color(8, 55, 55),    new Color(45, 212, 191)),    // dark teal → teal heat
+        PERFECT("★", "Perfect Play",
+            "Has solved every position\nof this puzzle in advance.\nNever makes a mistake.",
+            new Color(52, 211, 153), new Color(5, 150, 105),      // emerald accent
+            new Color(6, 60, 45),    new Color(52, 211, 153));    // deep green → emerald heat
+
+        final String tag, title, desc;
+        final Color  accentLight, accentDark, heatLow, heatHigh;
+
+        AlgoChoice(String tag, String title, String desc,
+                   Color accentLight, Color accentDark, Color heatLow, Color heatHigh) {
+            this.tag = tag; this.title = title; this.desc = desc;
+            this.accentLight = accentLight; this.accentDark = accentDark;
+            this.heatLow = heatLow; this.heatHigh = heatHigh;
+        }
+    }
     private AlgoChoice currentAlgo = AlgoChoice.DP;
 
     // ── heat-map ─────────────────────────────────────────────────────────────
@@ -110,35 +150,26 @@ public class TowersssGameGUI extends JFrame {
         chooseLabel.setForeground(new Color(160, 190, 255));
         chooseLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        // ── DP card ──────────────────────────────────────────────────────────
-        AlgoCard dpCard = new AlgoCard(
-                "DP",
-                "Dynamic Programming",
-                "Memoises sub-problems to\nfind globally optimal moves.\nSmart, but heavy on memory.",
-                new Color(56, 189, 248),    // sky-blue accent
-                new Color(14, 165, 233)
-        );
-
-        // ── D&C card ─────────────────────────────────────────────────────────
-        AlgoCard dncCard = new AlgoCard(
-                "D&C",
-                "Divide & Conquer",
-                "Recursively splits the board\ninto sub-problems & merges.\nFast & aggressive.",
-                new Color(167, 139, 250),   // violet accent
-                new Color(139, 92, 246)
-        );
-
-        // single-selection behaviour
-        dpCard .addActionListener(e -> { dpCard.setSelected(true);  dncCard.setSelected(false); currentAlgo = AlgoChoice.DP;  });
-        dncCard.addActionListener(e -> { dpCard.setSelected(false); dncCard.setSelected(true);  currentAlgo = AlgoChoice.DNC; });
-        dpCard.setSelected(true); // default
+        // ── one card per algorithm, single selection ────────────────────────
+        AlgoChoice[] algos = AlgoChoice.values();
+        AlgoCard[] cards = new AlgoCard[algos.length];
+        for (int i = 0; i < algos.length; i++) {
+            AlgoChoice a = algos[i];
+            cards[i] = new AlgoCard(a.tag, a.title, a.desc, a.accentLight, a.accentDark);
+            cards[i].addActionListener(e -> {
+                for (int j = 0; j < cards.length; j++) cards[j].setSelected(algos[j] == a);
+                currentAlgo = a;
+            });
+        }
+        cards[currentAlgo.ordinal()].setSelected(true); // default
 
-        JPanel algoRow = new JPanel(new FlowLayout(FlowLayout.CENTER, 24, 0));
+        int perRow = Math.min(algos.length, 4);
+        int rows   = (algos.length + perRow - 1) / perRow;
+        JPanel algoRow = new JPanel(new GridLayout(rows, perRow, 24, 16));
         algoRow.setOpaque(false);
-        algoRow.add(dpCard);
-        algoRow.add(dncCard);
+        for (AlgoCard c : cards) algoRow.add(c);
         algoRow.setAlignmentX(Component.CENTER_ALIGNMENT);
-        algoRow.setMaximumSize(new Dimension(500, 220));
+        algoRow.setMaximumSize(new Dimension(perRow * 224, rows * 216));
 
         // ── start button ─────────────────────────────────────────────────────
         JButton startBtn = new JButton("START GAME") {
@@ -170,7 +201,7 @@ public class TowersssGameGUI extends JFrame {
 
         startBtn.addActionListener(e -> {
             initGame();
-            updateHeatMap();
+            updateHeatMap(this::updateDisplay);
             updateDisplay();
             cardLayout.show(rootPanel, "GAME");
         });
@@ -392,12 +423,14 @@ public class TowersssGameGUI extends JFrame {
         // top clues
         for (int i = 0; i < N; i++) {
             gbc.gridx = i+1; gbc.gridy = 0;
-            boardPanel.add(makeClueLabel(TOP[i], "↓"), gbc);
+            topClueLabels[i] = makeClueLabel(TOP[i], "↓");
+            boardPanel.add(topClueLabels[i], gbc);
         }
         // grid + side clues
         for (int r = 0; r < N; r++) {
             gbc.gridx = 0; gbc.gridy = r+1;
-            boardPanel.add(makeClueLabel(LEFT[r], "→"), gbc);
+            leftClueLabels[r] = makeClueLabel(LEFT[r], "→");
+            boardPanel.add(leftClueLabels[r], gbc);
 
             for (int c = 0; c < N; c++) {
                 final int row = r, col = c;
@@ -435,12 +468,14 @@ public class TowersssGameGUI extends JFrame {
             }
 
             gbc.gridx = N+1; gbc.gridy = r+1;
-            boardPanel.add(makeClueLabel(RIGHT[r], "←"), gbc);
+            rightClueLabels[r] = makeClueLabel(RIGHT[r], "←");
+            boardPanel.add(rightClueLabels[r], gbc);
         }
         // bottom clues
         for (int i = 0; i < N; i++) {
             gbc.gridx = i+1; gbc.gridy = N+1;
-            boardPanel.add(makeClueLabel(BOTTOM[i], "↑"), gbc);
+            bottomClueLabels[i] = makeClueLabel(BOTTOM[i], "↑");
+            boardPanel.add(bottomClueLabels[i], gbc);
         }
         panel.add(boardPanel, BorderLayout.CENTER);
 
@@ -484,11 +519,16 @@ public class TowersssGameGUI extends JFrame {
         heatMapToggle.setAlignmentX(CENTER_ALIGNMENT);
         heatMapToggle.addActionListener(e -> { showHeatMap = heatMapToggle.isSelected(); updateDisplay(); });
 
-        // back-to-menu button
-        JButton backBtn = buildFancyBtn("Change Algorithm", new Color(80, 100, 200));
-        backBtn.setAlignmentX(CENTER_ALIGNMENT);
-        backBtn.setMaximumSize(new Dimension(290, 46));
-        backBtn.addActionListener(e -> cardLayout.show(rootPanel, "SPLASH"));
+        // in-game strategy switch: each button shows that strategy's move for this board
+        JPanel algoSwitch = new JPanel(new GridLayout(2, 3, 6, 6));
+        algoSwitch.setOpaque(false);
+        algoSwitch.setAlignmentX(CENTER_ALIGNMENT);
+        algoSwitch.setMaximumSize(new Dimension(290, 96));
+        for (AlgoChoice a : AlgoChoice.values()) {
+            JButton b = buildAlgoSwitch(a);
+            algoSwitches[a.ordinal()] = b;
+            algoSwitch.add(b);
+        }
 
         // new game button
         JButton resetBtn = buildFancyBtn("New Game", new Color(22, 160, 120));
@@ -536,7 +576,7 @@ public class TowersssGameGUI extends JFrame {
         rightPanel.add(Box.createVerticalStrut(12));
         rightPanel.add(heatMapToggle);
         rightPanel.add(Box.createVerticalStrut(14));
-        rightPanel.add(backBtn);
+        rightPanel.add(algoSwitch);
         rightPanel.add(Box.createVerticalStrut(8));
         rightPanel.add(resetBtn);
         rightPanel.add(Box.createVerticalStrut(18));
@@ -629,8 +669,22 @@ public class TowersssGameGUI extends JFrame {
         return l;
     }
 
+    private String clueText(int v, String arrow) {
+        return v > 0 ? arrow + " " + v : "·";
+    }
+
+    /** Shows the clues of the puzzle actually being played. */
+    private void refreshClueLabels() {
+        for (int i = 0; i < N; i++) {
+            topClueLabels[i].setText(clueText(gameState.getTopClues()[i], "↓"));
+            rightClueLabels[i].setText(clueText(gameState.getRightClues()[i], "←"));
+            bottomClueLabels[i].setText(clueText(gameState.getBottomClues()[i], "↑"));
+            leftClueLabels[i].setText(clueText(gameState.getLeftClues()[i], "→"));
+        }
+    }
+
     private JLabel makeClueLabel(int v, String arrow) {
-        JLabel l = new JLabel(arrow + " " + v, SwingConstants.CENTER);
+        JLabel l = new JLabel(clueText(v, arrow), SwingConstants.CENTER);
         l.setFont(new Font("Courier New", Font.BOLD, 15));
         l.setForeground(new Color(130, 170, 255));
         l.setOpaque(true);
@@ -665,6 +719,33 @@ public class TowersssGameGUI extends JFrame {
         return btn;
     }
 
+    private JButton buildAlgoSwitch(AlgoChoice a) {
+        JButton btn = new JButton() {
+            @Override protected void paintComponent(Graphics g) {
+                Graphics2D g2 = (Graphics2D) g.create();
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                boolean on = a == currentAlgo;
+                g2.setColor(on ? a.accentDark : getModel().isRollover() ? new Color(24, 36, 72) : new Color(14, 22, 50));
+                g2.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
+                g2.setColor(on ? a.accentLight : new Color(a.accentLight.getRed(), a.accentLight.getGreen(),
+                        a.accentLight.getBlue(), 110));
+                g2.setStroke(new BasicStroke(on ? 2f : 1f));
+                g2.drawRoundRect(1, 1, getWidth() - 2, getHeight() - 2, 10, 10);
+                g2.dispose();
+                super.paintComponent(g);
+            }
+        };
+        btn.setFont(new Font("Courier New", Font.BOLD, 11));
+        btn.setForeground(Color.WHITE);
+        btn.setToolTipText(a.title);
+        btn.setContentAreaFilled(false);
+        btn.setBorderPainted(false);
+        btn.setFocusPainted(false);
+        btn.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        btn.addActionListener(e -> switchAlgo(a));
+        return btn;
+    }
+
     private JPanel buildDarkCard(int maxW, int maxH) {
         JPanel card = new JPanel();
         card.setBackground(new Color(10, 16, 38));
@@ -680,19 +761,58 @@ public class TowersssGameGUI extends JFrame {
     //  GAME INITIALIZATION
     // ════════════════════════════════════════════════════════════════════════
     private void initGame() {
-        PuzzleGenerator generator = new PuzzleGenerator();
-        PuzzleGenerator.PuzzleData puzzle = generator.generatePuzzle();
+        // Memory-mapped puzzle bank first (instant, unique puzzles); generator otherwise
+        PuzzleBank bank = PuzzleBank.openDefault(N);
+        if (bank != null) {
+            TowersPuzzle.PuzzleGenerator.PuzzleData puzzle = bank.random();
+            gameState = new GameState(
+                    puzzle.topClues, puzzle.rightClues,
+                    puzzle.bottomClues, puzzle.leftClues
+            );
+        } else {
+            PuzzleGenerator generator = new PuzzleGenerator();
+            PuzzleGenerator.PuzzleData puzzle = generator.generatePuzzle();
 
-        gameState = new GameState(
-                puzzle.topClues, puzzle.rightClues,
-                puzzle.bottomClues, puzzle.leftClues
-        );
+            gameState = new GameState(
+                    puzzle.topClues, puzzle.rightClues,
+                    puzzle.bottomClues, puzzle.leftClues
+            );
+        }
+        refreshClueLabels();
 
-        strategyDP  = new StrategyDP(gameState);
-        strategyDnC = new StrategyDnC(gameState);
+        heatMapValues = new double[N][N];
+        analysis.newGame(gameState, currentAlgo);
+        analysis.onResult(a -> SwingUtilities.invokeLater(this::refreshAlgoSwitches));
+        analysis.analyse(gameState);
 
         // refresh the algo badge label on the game panel
         updateAlgoBadge();
+        refreshAlgoSwitches();
+    }
+
+    /** Plays on with another strategy; its analysis of this board is usually already in. */
+    private void switchAlgo(AlgoChoice a) {
+        if (a == currentAlgo || gameState == null) return;
+        currentAlgo = a;
+        updateAlgoBadge();
+        refreshAlgoSwitches();
+        boolean heatShown = false;
+        for (double[] row : heatMapValues) for (double h : row) heatShown |= h > 0;
+        if (heatShown) updateHeatMap(this::updateDisplay);
+    }
+
+    /** Each switch button shows its strategy's move for the board on screen. */
+    private void refreshAlgoSwitches() {
+        for (AlgoChoice a : AlgoChoice.values()) {
+            AnalysisService.Analysis r = analysis.ready(a);
+            String line = !analysis.enabled(a) ? "–"
+                    : r == null ? "…"
+                    : r.move == null ? "no move"
+                    : r.move[2] + " @ " + (r.move[0] + 1) + "," + (r.move[1] + 1);
+            algoSwitches[a.ordinal()].setText("<html><center>" + a.tag.replace("&", "&amp;")
+                    + "<br>" + line + "</center></html>");
+            algoSwitches[a.ordinal()].repaint();
+        }
     }
 
     /** Finds the ALGO_NAME label in the game panel and updates it. */
@@ -707,13 +827,8 @@ public class TowersssGameGUI extends JFrame {
             if (comp instanceof JLabel) {
                 JLabel lbl = (JLabel) comp;
                 if ("ALGO_NAME".equals(lbl.getName())) {
-                    if (currentAlgo == AlgoChoice.DP) {
-                        lbl.setText("Dynamic Programming");
-                        lbl.setForeground(new Color(56, 189, 248));
-                    } else {
-                        lbl.setText("Divide && Conquer");
-                        lbl.setForeground(new Color(167, 139, 250));
-                    }
+                    lbl.setText(currentAlgo.title.replace("&", "&&"));
+                    lbl.setForeground(currentAlgo.accentLight);
                     return;
                 }
             }
@@ -749,22 +864,26 @@ public class TowersssGameGUI extends JFrame {
             selectedRow = -1; selectedCol = -1;
             valueSelectionPanel.setVisible(false);
             gameState.setHumanTurn(false);
+            analysis.analyse(gameState);
             updateDisplay();
             new Timer(1500, e -> {
-                if (!checkGameEnd()) { updateHeatMap(); animateHeatMap(0); }
+                if (!checkGameEnd()) animateHeatMap(analysis.heat(currentAlgo), 0);
             }) {{ setRepeats(false); }}.start();
             return;
         }
 
+        // every human move trains the model Expectimax plays against
+        HumanMoveModel.shared().record(gameState, selectedRow, selectedCol, val);
         boolean accepted = gameState.makeMove(selectedRow, selectedCol, val, true);
         selectedRow = -1; selectedCol = -1;
         valueSelectionPanel.setVisible(false);
         if (accepted) gameState.setHumanTurn(false);
+        analysis.analyse(gameState);
         clearHeatMap();
         updateDisplay();
         if (checkGameEnd()) return;
         if (accepted)
-            new Timer(600, e -> { updateHeatMap(); animateHeatMap(0); }) {{ setRepeats(false); }}.start();
+            new Timer(600, e -> animateHeatMap(analysis.heat(currentAlgo), 0)) {{ setRepeats(false); }}.start();
     }
 
     // ════════════════════════════════════════════════════════════════════════
@@ -774,80 +893,90 @@ public class TowersssGameGUI extends JFrame {
         if (gameState.checkForDeadlock(false)) {
             statusLabel.setText("CPU has no legal moves! −5 lives, skipping turn.");
             gameState.setHumanTurn(true);
+            analysis.analyse(gameState);
             updateDisplay();
+            checkGameEnd();
             return;
         }
 
-        int[] move = (currentAlgo == AlgoChoice.DP)
-                ? strategyDP.findBestMove()
-                : strategyDnC.findBestMove();
-
-        if (move == null) {
-            gameState.setStatusMessage("CPU has no valid moves!");
+        // the move was worked out in the background; wait for it if it is still coming
+        int board = analysis.generation();
+        analysis.result(currentAlgo).whenComplete((a, err) -> SwingUtilities.invokeLater(() -> {
+            if (board != analysis.generation()) return;        // new game meanwhile
+            if (err != null) {
+                System.err.println("CPU analysis failed: " + err);
+                gameState.setStatusMessage("CPU could not decide – skipping turn.");
+            } else if (a.move == null) {
+                gameState.setStatusMessage("CPU has no valid moves!");
+            } else {
+                gameState.setCpuReasoningExplanation(a.explanation);
+                reasoningArea.setText(a.explanation);
+                gameState.makeMove(a.move[0], a.move[1], a.move[2], false);
+            }
+            for (int r = 0; r < N; r++)
+                for (int c = 0; c < N; c++)
+                    heatMapValues[r][c] = 0;
             clearHeatMap();
+            gameState.setHumanTurn(true);
+            analysis.analyse(gameState);
             updateDisplay();
-            return;
-        }
-
-        reasoningArea.setText(gameState.getCpuReasoningExplanation());
-        gameState.makeMove(move[0], move[1], move[2], false);
-        for (int r = 0; r < N; r++)
-            for (int c = 0; c < N; c++)
-                heatMapValues[r][c] = 0;
+            checkGameEnd();
+        }));
     }
 
     // ════════════════════════════════════════════════════════════════════════
     //  HEAT MAP
     // ════════════════════════════════════════════════════════════════════════
-    private void updateHeatMap() {
-        double max = 0;
-        for (int r = 0; r < N; r++) {
-            for (int c = 0; c < N; c++) {
-                if (gameState.getGrid()[r][c] == 0) {
-                    double score = (currentAlgo == AlgoChoice.DP)
-                            ? strategyDP.evaluateCell(r, c)
-                            : strategyDnC.evaluateCell(r, c);
-                    heatMapValues[r][c] = score;
-                    max = Math.max(max, score);
-                } else {
-                    heatMapValues[r][c] = 0;
-                }
-            }
+    /** Loads the current strategy's heat map for this board, then runs {@code then}. */
+    private void updateHeatMap(Runnable then) {
+        updateHeatMap(analysis.heat(currentAlgo), then);
+    }
+
+    private void updateHeatMap(AnalysisService.HeatStream heat, Runnable then) {
+        if (heat.board != analysis.generation()) return;        // the board moved on
+        if (!heat.finished()) {
+            new Timer(25, e -> updateHeatMap(heat, then)) {{ setRepeats(false); }}.start();
+            return;
         }
-        if (max > 0)
-            for (int r = 0; r < N; r++)
-                for (int c = 0; c < N; c++)
-                    heatMapValues[r][c] /= max;
+        double max = heat.max(N * N);
+        for (int i = 0; i < N * N; i++) heatMapValues[i / N][i % N] = heat.normalised(i, max);
+        then.run();
     }
 
-    private void animateHeatMap(int idx) {
+    /**
+     * Paints the heat map one cell at a time as the strategy's lane scores
+     * them, then lets the CPU move. A cell that is not in yet is polled for;
+     * a stream for a board that has since changed is dropped.
+     */
+    private void animateHeatMap(AnalysisService.HeatStream heat, int idx) {
+        if (heat.board != analysis.generation()) return;
         if (idx >= N * N) {
+            // final pass: every cell against the board's best
+            double max = heat.max(N * N);
+            for (int i = 0; i < N * N; i++) heatMapValues[i / N][i % N] = heat.normalised(i, max);
+            updateDisplay();
             new Timer(1200, e -> {
-                if (!gameState.isGameOver()) {
-                    doCPUMove();
-                    clearHeatMap();
-                    gameState.setHumanTurn(true);
-                    updateDisplay();
-                    checkGameEnd();
-                }
+                if (!gameState.isGameOver()) doCPUMove();
             }) {{ setRepeats(false); }}.start();
             return;
         }
+        if (heat.ready() <= idx && !heat.finished()) {
+            new Timer(25, e -> animateHeatMap(heat, idx)) {{ setRepeats(false); }}.start();
+            return;
+        }
         int r = idx / N, c = idx % N;
+        // against the best cell so far; the final pass rescales
+        heatMapValues[r][c] = heat.normalised(idx, heat.max(idx + 1));
         if (gameState.getGrid()[r][c] == 0 && showHeatMap)
             cellButtons[r][c].setBackground(heatColor(heatMapValues[r][c]));
 
-        new Timer(70, e -> animateHeatMap(idx + 1)) {{ setRepeats(false); }}.start();
+        new Timer(70, e -> animateHeatMap(heat, idx + 1)) {{ setRepeats(false); }}.start();
     }
 
     private Color heatColor(double h) {
         if (h < 0.01) return new Color(12, 20, 45);
         double t = Math.min(h, 1.0);
-        return (currentAlgo == AlgoChoice.DP)
-                // sky-blue → teal gradient for DP
-                ? blend(new Color(14, 40, 100), new Color(56, 189, 248), t)
-                // purple → violet gradient for D&C
-                : blend(new Color(50, 14, 100), new Color(200, 140, 255), t);
+        return blend(currentAlgo.heatLow, currentAlgo.heatHigh, t);
     }
 
     private Color blend(Color a, Color b, double t) {
@@ -909,8 +1038,7 @@ public class TowersssGameGUI extends JFrame {
         } else if (gameState.isHumanTurn()) {
             statusLabel.setText(selectedRow == -1 ? "✦ Your turn — click a cell" : "✦ Choose a value");
         } else {
-            String algoName = currentAlgo == AlgoChoice.DP ? "DP" : "D&C";
-            statusLabel.setText("⟳  CPU thinking  [ " + algoName + " ] …");
+            statusLabel.setText("⟳  CPU thinking  [ " + currentAlgo.tag + " ] …");
         }
     }
 
@@ -940,7 +1068,7 @@ public class TowersssGameGUI extends JFrame {
         valueSelectionPanel.setVisible(false);
         reasoningArea.setText("New game — watch the CPU think…");
         clearHeatMap();
-        updateHeatMap();
+        updateHeatMap(this::updateDisplay);
         updateDisplay();
         statusLabel.setText("✦ New game started — your turn.");
     }
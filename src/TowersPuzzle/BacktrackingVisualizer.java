@@ -1,9 +1,16 @@
+package TowersPuzzle;
+
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
 
@@ -56,6 +63,7 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
     private final StatsPanel           statsPanel;
     private final TreePanel            treePanel;
     private final ControlPanel         controls;
+    private final ReplayPanel          replay;
     private final ComplexityGraphPanel complexityGraph;
 
     // ── Solver state ──────────────────────────────────────────────────────
@@ -63,11 +71,10 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
     private SolverEngine solver;
     private Thread solverThread;
 
-    // ── Current visual state ──────────────────────────────────────────────
-    private volatile int[][] currentGrid = new int[SolverEngine.N][SolverEngine.N];
-    private volatile int     hlRow = -1, hlCol = -1;
-    private volatile EventType currentEvent = null;
-    private volatile String    currentMsg   = "";
+    // ── Event pipeline: solver thread → ring → one render tick per frame ──
+    private static final int TICK_MS  = 16;     // ≈ 60 Hz
+    private final EventRing          events = new EventRing(1 << 16);
+    private final javax.swing.Timer  renderTick;
 
     // ── Constructor ───────────────────────────────────────────────────────
 
@@ -85,13 +92,14 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
 
         gridPanel       = new GridPanel();
         controls        = new ControlPanel();
+        replay          = new ReplayPanel();
         complexityGraph = new ComplexityGraphPanel();
 
         // Centre column: grid on top, complexity graph below
         JPanel centreCol = new JPanel(new BorderLayout(6, 6));
         centreCol.setBackground(BG_DARK);
         centreCol.add(gridPanel,       BorderLayout.CENTER);
-        centreCol.add(controls,        BorderLayout.SOUTH);
+        centreCol.add(vstack(controls, replay), BorderLayout.SOUTH);
 
         statsPanel = new StatsPanel();
         logPanel   = new LogPanel();
@@ -116,6 +124,8 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
         // Pre-load clues so the grid shows the puzzle on startup
         gridPanel.setClues(PUZZLE_TOP, PUZZLE_BOTTOM, PUZZLE_LEFT, PUZZLE_RIGHT);
 
+        renderTick = new javax.swing.Timer(TICK_MS, e -> drainEvents());
+
         setContentPane(root);
         pack();
         setMinimumSize(new Dimension(1100, 920));
@@ -125,49 +135,135 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
 
     // ── SolverCallback ────────────────────────────────────────────────────
 
+    /** Solver thread: packs the event into the ring; the render tick picks it up. */
     @Override
     public void onEvent(EventType type, int row, int col, int value,
                         int[][] snap, StatsTracker st, String message) {
-        currentGrid  = snap;
-        hlRow        = row;
-        hlCol        = col;
-        currentEvent = type;
-        currentMsg   = message;
-
-        SwingUtilities.invokeLater(() -> {
-            gridPanel.update(snap, row, col, type);
-            statsPanel.update(st);
-            logPanel.addEntry(type, message, st.getCurrentDepth());
-            treePanel.addNode(type, row, col, value, st.getCurrentDepth());
-            complexityGraph.addDataPoint(st.getCurrentDepth(),
-                                         st.getNodesExplored(),
-                                         st.getBranchesPruned());
-        });
+        events.offer(type.ordinal(), row, col, value, st.getCurrentDepth(),
+                     st.getNodesExplored(), st.getBranchesPruned(),
+                     EventRing.packGrid(snap), message);
+    }
+
+    /**
+     * Render tick: drains everything the solver published since the last
+     * frame. The graph, the log and the tree take every event; the grid
+     * and stats jump straight to the latest state.
+     */
+    private void drainEvents() {
+        long from = events.readFrom(), to = events.readTo();
+        long lost = events.takeDropped();
+        if (from == to && lost == 0) {
+            if (solverThread == null || !solverThread.isAlive()) renderTick.stop();
+            return;
+        }
+        EventType[] types = EventType.values();
+
+        if (lost > 0) {
+            logPanel.addDropped(lost, from < to ? events.depth(from) : 0);
+            treePanel.addLost(lost);
+        }
+        for (long s = from; s < to; s++) {
+            EventType type = types[events.type(s)];
+            complexityGraph.addDataPoint(events.depth(s), events.nodes(s), events.pruned(s));
+            logPanel.addEntry(type, events.message(s), events.depth(s));
+            treePanel.addEvent(type, events.row(s), events.col(s), events.value(s));
+        }
+        logPanel.flush();
+        treePanel.flush();
+
+        if (to > from) {
+            long last = to - 1;
+            gridPanel.update(EventRing.unpackGrid(events.grid(last), SolverEngine.N),
+                             events.row(last), events.col(last), types[events.type(last)]);
+        }
+        statsPanel.update(stats.snapshot());
+        events.release(to);
     }
 
     // ── Solver control ────────────────────────────────────────────────────
 
     private void startSolver() {
-        if (solverThread != null && solverThread.isAlive()) {
-            solver.running = false;
-            solverThread.interrupt();
-        }
+        replay.close();
+        haltSolver();
         treePanel.reset();
         logPanel.clear();
         complexityGraph.reset();
 
-        solver = new SolverEngine(stats, this,
+        SearchTraceWriter recorder = null;
+        if (controls.isRecording()) {
+            Path file = Paths.get("search-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".trace");
+            try {
+                recorder = new SearchTraceWriter(file, PUZZLE_TOP, PUZZLE_RIGHT, PUZZLE_BOTTOM, PUZZLE_LEFT);
+            } catch (IOException e) {
+                controls.setStatus("Not recording: " + e.getMessage());
+            }
+        }
+        SearchTraceWriter trace = recorder;
+        SolverEngine.SolverCallback callback = trace == null ? this : (type, r, c, v, snap, st, msg) -> {
+            trace.onEvent(type, r, c, v, snap, st, msg);
+            onEvent(type, r, c, v, snap, st, msg);
+        };
+
+        solver = new SolverEngine(stats, callback,
                     PUZZLE_TOP.clone(), PUZZLE_BOTTOM.clone(),
                     PUZZLE_LEFT.clone(), PUZZLE_RIGHT.clone());
         solver.stepDelay    = controls.getDelay();
         solver.maxSolutions = 1;   // stop after the first solution
+        solver.instant      = controls.isInstant();
 
         gridPanel.setClues(PUZZLE_TOP, PUZZLE_BOTTOM, PUZZLE_LEFT, PUZZLE_RIGHT);
         gridPanel.reset();
 
-        solverThread = new Thread(solver, "Solver");
+        SolverEngine run = solver;
+        solverThread = new Thread(() -> {
+            try {
+                run.run();
+            } finally {
+                if (trace != null) finishRecording(trace);
+            }
+        }, "Solver");
         solverThread.setDaemon(true);
         solverThread.start();
+        renderTick.start();
+    }
+
+    /** Stops any running solve and waits for it, so the ring keeps a single producer. */
+    private void haltSolver() {
+        if (solverThread != null && solverThread.isAlive()) {
+            solver.running = false;
+            solverThread.interrupt();
+            try { solverThread.join(500); } catch (InterruptedException ignored) { }
+        }
+        events.release(events.readTo());
+        events.takeDropped();
+    }
+
+    /** Solver thread: completes the trace file and reports where it went. */
+    private void finishRecording(SearchTraceWriter trace) {
+        String status;
+        try {
+            trace.close();
+            status = String.format("Recorded %,d events", trace.count());
+        } catch (IOException e) {
+            status = "Recording failed: " + e.getMessage();
+        }
+        String s = status;
+        SwingUtilities.invokeLater(() -> controls.setStatus(s));
+    }
+
+    private void openTrace() {
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Search traces", "trace"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            SearchTrace trace = new SearchTrace(chooser.getSelectedFile().toPath());
+            haltSolver();
+            renderTick.stop();
+            replay.open(trace);
+            controls.setStatus(String.format("Replaying %,d events", trace.count()));
+        } catch (IOException e) {
+            controls.setStatus("Cannot open trace: " + e.getMessage());
+        }
     }
 
     private void pauseResume() {
@@ -191,6 +287,13 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
 
     // ══════════════════════════════════════════════════════════════════════
     //  GridPanel – animated 4×4 board
+    //
+    //  Repaints are damage-tracked: a cell asks for its own rectangle when
+    //  its colour or value changes, the highlighted cell for its glow and
+    //  label, and paintComponent skips everything outside the clip. The
+    //  animation timer runs only while a colour is fading or the highlight
+    //  is pulsing, then stops. Buildings, digits, clues and glows are
+    //  rendered once into sprites keyed by value and colour.
     // ══════════════════════════════════════════════════════════════════════
 
     class GridPanel extends JPanel {
@@ -210,6 +313,15 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
 
         private javax.swing.Timer animTimer;
         private float pulsePhase = 0;
+        private long  pulseUntil;                  // the highlight pulses until then, then rests
+
+        private static final int PULSE_MS = 1500;
+        private static final int GLOW     = 26;    // glow and label reach past the highlighted cell
+
+        // ── Sprite cache ──────────────────────────────────────────────────
+        private static final int SPRITE_CELL = 0, SPRITE_CLUE = 1, SPRITE_GLOW = 2;
+        private static final int CLUE_W = 40, CLUE_H = 30, CLUE_BASE = 22;
+        private final Map<Long, BufferedImage> sprites = new HashMap<>();
 
         GridPanel() {
             setBackground(BG_DARK);
@@ -225,25 +337,43 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                 }
             top = left = bot = right = new int[SolverEngine.N];
 
-            animTimer = new javax.swing.Timer(16, e -> {
-                pulsePhase += 0.08f;
-                boolean changed = false;
-                for (int r = 0; r < SolverEngine.N; r++)
-                    for (int cc = 0; cc < SolverEngine.N; cc++) {
-                        Color cur = cellBg[r][cc];
-                        Color tar = cellTarget[r][cc];
-                        if (!cur.equals(tar)) {
-                            cellBg[r][cc] = lerpColor(cur, tar, 0.12f);
-                            changed = true;
-                        }
+            animTimer = new javax.swing.Timer(16, e -> animate());
+        }
+
+        /** One animation frame: fades colours, pulses the highlight, stops when nothing moves. */
+        private void animate() {
+            boolean moving = false;
+            for (int r = 0; r < SolverEngine.N; r++)
+                for (int cc = 0; cc < SolverEngine.N; cc++) {
+                    Color cur = cellBg[r][cc];
+                    Color tar = cellTarget[r][cc];
+                    if (!cur.equals(tar)) {
+                        Color next = lerpColor(cur, tar, 0.12f);
+                        cellBg[r][cc] = next.equals(cur) ? tar : next;   // the last steps round to zero
+                        repaint(cellBounds(r, cc));
+                        moving = true;
                     }
-                if (changed || true) repaint();
-            });
-            animTimer.start();
+                }
+            if (evt != null && hlR >= 0) {
+                if (System.currentTimeMillis() < pulseUntil) {
+                    pulsePhase += 0.08f;
+                    repaint(highlightBounds(hlR, hlC));
+                    moving = true;
+                } else if (pulsePhase != 0) {
+                    pulsePhase = 0;                      // settle on the resting glow
+                    repaint(highlightBounds(hlR, hlC));
+                }
+            }
+            if (!moving) animTimer.stop();
+        }
+
+        private void wake() {
+            if (!animTimer.isRunning()) animTimer.start();
         }
 
         void setClues(int[] t, int[] b, int[] l, int[] r) {
             top = t; bot = b; left = l; right = r;
+            repaint();
         }
 
         void reset() {
@@ -253,11 +383,19 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                 for (int c = 0; c < SolverEngine.N; c++)
                     cellTarget[r][c] = C_IDLE;
             repaint();
+            wake();
         }
 
         void update(int[][] newGrid, int row, int col, EventType type) {
+            int[][] oldGrid = grid;
+            if (row != hlR || col != hlC || type != evt) {
+                if (hlR >= 0) repaint(highlightBounds(hlR, hlC));
+                if (row >= 0) repaint(highlightBounds(row, col));
+                pulsePhase = 0;
+            }
             grid = newGrid;
             hlR  = row; hlC = col; evt = type;
+            if (row >= 0) pulseUntil = System.currentTimeMillis() + PULSE_MS;
             for (int r = 0; r < SolverEngine.N; r++)
                 for (int c = 0; c < SolverEngine.N; c++) {
                     Color target;
@@ -280,7 +418,21 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                         }
                     }
                     cellTarget[r][c] = target;
+                    if (oldGrid[r][c] != newGrid[r][c]) repaint(cellBounds(r, c));
                 }
+            wake();
+        }
+
+        // ── Damage regions ────────────────────────────────────────────────
+
+        private Rectangle cellBounds(int r, int c) {
+            return new Rectangle(PAD + CLUE + c*(CELL+GAP) - 2, PAD + CLUE + r*(CELL+GAP) - 2, CELL + 4, CELL + 4);
+        }
+
+        private Rectangle highlightBounds(int r, int c) {
+            Rectangle b = cellBounds(r, c);
+            b.grow(GLOW, GLOW);
+            return b;
         }
 
         @Override
@@ -294,10 +446,13 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             int ox = PAD + CLUE;
             int oy = PAD + CLUE;
 
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
             GradientPaint gp = new GradientPaint(0, 0, new Color(10,14,28),
                                                  getWidth(), getHeight(), new Color(16,20,42));
             g.setPaint(gp);
-            g.fillRect(0, 0, getWidth(), getHeight());
+            g.fill(clip);
 
             g.setFont(new Font("Monospaced", Font.BOLD, 13));
             g.setColor(ACCENT_CYAN);
@@ -306,8 +461,11 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             drawClues(g, ox, oy, N);
 
             for (int r = 0; r < N; r++)
-                for (int c = 0; c < N; c++)
-                    drawCell(g, ox + c*(CELL+GAP), oy + r*(CELL+GAP), r, c);
+                for (int c = 0; c < N; c++) {
+                    Rectangle reach = (r == hlR && c == hlC) ? highlightBounds(r, c) : cellBounds(r, c);
+                    if (reach.intersects(clip))
+                        drawCell(g, ox + c*(CELL+GAP), oy + r*(CELL+GAP), r, c);
+                }
 
             g.setColor(GRID_LINE);
             g.setStroke(new BasicStroke(1.5f));
@@ -331,13 +489,11 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             Color bg = cellBg[r][c];
 
             if (r == hlR && c == hlC && evt != null) {
-                Color glowC = eventColor(evt);
                 float glowA = 0.15f + 0.12f * (float)Math.sin(pulsePhase);
-                for (int k = 8; k >= 1; k--) {
-                    g.setColor(new Color(glowC.getRed(), glowC.getGreen(), glowC.getBlue(),
-                                         (int)(glowA * 255 / k)));
-                    g.fillRoundRect(cx - k*3, cy - k*3, CELL + k*6, CELL + k*6, 18, 18);
-                }
+                Composite saved = g.getComposite();
+                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, glowA));
+                blit(g, SPRITE_GLOW, 0, eventColor(evt), cx - 24, cy - 24, CELL + 48, CELL + 48);
+                g.setComposite(saved);
             }
 
             g.setColor(bg);
@@ -351,16 +507,64 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             g.setStroke(new BasicStroke(1f));
 
             int val = grid[r][c];
+            Color fg = val == 0 ? TEXT_DIM : r == hlR && c == hlC ? eventColor(evt) : TEXT_PRIMARY;
+            blit(g, SPRITE_CELL, val, fg, cx, cy, CELL, CELL);
+        }
+
+        // ── Sprites ───────────────────────────────────────────────────────
+
+        /**
+         * Draws the cached sprite for (kind, value, colour) at (x, y), rendering
+         * it first if needed. Sprites are rendered at the device scale, so they
+         * stay sharp on HiDPI screens.
+         */
+        private void blit(Graphics2D g, int kind, int value, Color c, int x, int y, int w, int h) {
+            double scale = Math.max(1, g.getTransform().getScaleX());
+            long key = (long) c.getRGB() << 32 | Math.round(scale * 100) << 16 | value << 2 | kind;
+            BufferedImage img = sprites.computeIfAbsent(key, k -> {
+                BufferedImage out = new BufferedImage((int) Math.ceil(w * scale), (int) Math.ceil(h * scale),
+                                                      BufferedImage.TYPE_INT_ARGB);
+                Graphics2D sg = out.createGraphics();
+                sg.scale(scale, scale);
+                sg.setRenderingHint(RenderingHints.KEY_ANTIALIASING,      RenderingHints.VALUE_ANTIALIAS_ON);
+                sg.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                switch (kind) {
+                    case SPRITE_CELL -> renderCell(sg, value, c);
+                    case SPRITE_CLUE -> renderClue(sg, value, c);
+                    default          -> renderGlow(sg, c);
+                }
+                sg.dispose();
+                return out;
+            });
+            g.drawImage(img, x, y, w, h, null);
+        }
+
+        /** A cell's contents on a transparent CELL×CELL tile: building and digit, or the empty dot. */
+        private void renderCell(Graphics2D g, int val, Color c) {
             if (val != 0) {
-                drawBuilding(g, cx, cy, val,
-                    r == hlR && c == hlC ? eventColor(evt) : TEXT_PRIMARY);
+                drawBuilding(g, 0, 0, val, c);
                 g.setFont(new Font("Monospaced", Font.BOLD, 30));
-                g.setColor(r == hlR && c == hlC ? eventColor(evt) : TEXT_PRIMARY);
-                drawCenteredString(g, String.valueOf(val), cx + CELL/2, cy + CELL/2 + 10);
+                g.setColor(c);
+                drawCenteredString(g, String.valueOf(val), CELL/2, CELL/2 + 10);
             } else {
-                g.setColor(TEXT_DIM);
+                g.setColor(c);
                 g.setFont(new Font("Monospaced", Font.PLAIN, 14));
-                drawCenteredString(g, "·", cx + CELL/2, cy + CELL/2 + 5);
+                drawCenteredString(g, "·", CELL/2, CELL/2 + 5);
+            }
+        }
+
+        /** A clue digit (or the dot for no clue), centred with its baseline at CLUE_BASE. */
+        private void renderClue(Graphics2D g, int clue, Color c) {
+            g.setFont(new Font("Monospaced", Font.BOLD, 18));
+            g.setColor(c);
+            drawCenteredString(g, clue > 0 ? String.valueOf(clue) : "·", CLUE_W/2, CLUE_BASE);
+        }
+
+        /** The highlight glow at full strength; it is drawn with the pulse as its alpha. */
+        private void renderGlow(Graphics2D g, Color c) {
+            for (int k = 8; k >= 1; k--) {
+                g.setColor(new Color(c.getRed(), c.getGreen(), c.getBlue(), 255 / k));
+                g.fillRoundRect(24 - k*3, 24 - k*3, CELL + k*6, CELL + k*6, 18, 18);
             }
         }
 
@@ -383,24 +587,14 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
         }
 
         private void drawClues(Graphics2D g, int ox, int oy, int N) {
-            g.setFont(new Font("Monospaced", Font.BOLD, 18));
             for (int i = 0; i < N; i++) {
                 int cc = ox + i*(CELL+GAP) + CELL/2;
                 int rr = oy + i*(CELL+GAP) + CELL/2 + 6;
 
-                g.setColor(top[i]   > 0 ? ACCENT_CYAN : TEXT_DIM);
-                drawCenteredString(g, top[i]   > 0 ? String.valueOf(top[i])   : "·", cc, oy - 12);
-
-                g.setColor(bot[i]   > 0 ? ACCENT_CYAN : TEXT_DIM);
-                drawCenteredString(g, bot[i]   > 0 ? String.valueOf(bot[i])   : "·", cc,
-                                   oy + N*(CELL+GAP) + 24);
-
-                g.setColor(left[i]  > 0 ? ACCENT_CYAN : TEXT_DIM);
-                drawCenteredString(g, left[i]  > 0 ? String.valueOf(left[i])  : "·", ox - 20, rr);
-
-                g.setColor(right[i] > 0 ? ACCENT_CYAN : TEXT_DIM);
-                drawCenteredString(g, right[i] > 0 ? String.valueOf(right[i]) : "·",
-                                   ox + N*(CELL+GAP) + 8, rr);
+                drawClue(g, top[i],   cc,                        oy - 12);
+                drawClue(g, bot[i],   cc,                        oy + N*(CELL+GAP) + 24);
+                drawClue(g, left[i],  ox - 20,                   rr);
+                drawClue(g, right[i], ox + N*(CELL+GAP) + 8,     rr);
             }
             g.setFont(new Font("Monospaced", Font.PLAIN, 10));
             g.setColor(new Color(60, 90, 130));
@@ -410,6 +604,12 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             g.drawString("←", ox + N*(CELL+GAP) + 14, oy + N*(CELL+GAP)/2);
         }
 
+        /** A clue centred on cx with its baseline on cy. */
+        private void drawClue(Graphics2D g, int clue, int cx, int cy) {
+            blit(g, SPRITE_CLUE, clue, clue > 0 ? ACCENT_CYAN : TEXT_DIM,
+                 cx - CLUE_W/2, cy - CLUE_BASE, CLUE_W, CLUE_H);
+        }
+
         private void drawCenteredString(Graphics2D g, String s, int cx, int cy) {
             FontMetrics fm = g.getFontMetrics();
             g.drawString(s, cx - fm.stringWidth(s)/2, cy);
@@ -454,10 +654,13 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
     // ══════════════════════════════════════════════════════════════════════
 
     class StatsPanel extends JPanel {
+        private static final int HIST_H = 54;
+
         private long   nodes, pruned, backtracks, solutions, assignments;
         private int    curDepth, maxDepth;
         private double branchFactor;
         private long   elapsed;
+        private StatsTracker.Snapshot snap;
 
         StatsPanel() {
             setBackground(BG_PANEL);
@@ -465,19 +668,20 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                 new LineBorder(GRID_LINE, 1, true),
                 new EmptyBorder(14, 14, 14, 14)
             ));
-            setPreferredSize(new Dimension(310, 300));
-        }
-
-        void update(StatsTracker st) {
-            nodes        = st.getNodesExplored();
-            pruned       = st.getBranchesPruned();
-            backtracks   = st.getBacktrackCount();
-            solutions    = st.getSolutionsFound();
-            assignments  = st.getTotalAssignments();
-            curDepth     = st.getCurrentDepth();
-            maxDepth     = st.getMaxDepth();
-            branchFactor = st.estimatedBranchingFactor();
-            elapsed      = st.elapsedMs();
+            setPreferredSize(new Dimension(310, 300 + HIST_H + 72));
+        }
+
+        void update(StatsTracker.Snapshot s) {
+            snap         = s;
+            nodes        = s.nodes;
+            pruned       = s.pruned;
+            backtracks   = s.backtracks;
+            solutions    = s.solutions;
+            assignments  = s.assignments;
+            curDepth     = s.currentDepth;
+            maxDepth     = s.maxDepth;
+            branchFactor = s.branchingFactor();
+            elapsed      = s.elapsedMs();
             repaint();
         }
 
@@ -536,6 +740,39 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             g.setColor(TEXT_DIM);
             g.setFont(new Font("Monospaced", Font.PLAIN, 9));
             g.drawString(String.format("vs brute-force 4^16 = 4.3B  |  elapsed: %dms", elapsed), 10, y);
+            y += 14;
+
+            if (snap != null) drawDepthHistogram(g, 10, y, getWidth() - 20, snap);
+        }
+
+        /** Nodes per depth (pruned share in red), branching factor per depth, then phase times. */
+        private void drawDepthHistogram(Graphics2D g, int x, int y, int w, StatsTracker.Snapshot s) {
+            g.setFont(new Font("Monospaced", Font.PLAIN, 9));
+            g.setColor(TEXT_DIM);
+            g.drawString("Nodes / pruned / branching by depth", x, y + 8);
+            int top = y + 12, depths = Math.max(s.depths(), 1);
+            long most = 1;
+            for (int d = 0; d < s.depths(); d++) most = Math.max(most, s.nodesAt(d));
+            int bw = Math.max(1, w / depths);
+            for (int d = 0; d < s.depths(); d++) {
+                int bx = x + d * bw;
+                int h  = (int) (HIST_H * s.nodesAt(d) / most);
+                int ph = (int) (HIST_H * s.prunedAt(d) / most);
+                g.setColor(ACCENT_BLUE);
+                g.fillRect(bx, top + HIST_H - h, Math.max(1, bw - 1), h);
+                g.setColor(ACCENT_RED);
+                g.fillRect(bx, top + HIST_H - ph, Math.max(1, bw - 1), ph);
+                if (bw >= 14 && s.expandedAt(d) > 0) {
+                    g.setColor(ACCENT_AMBER);
+                    g.drawString(String.format("%.1f", s.branchingFactor(d)), bx, top + HIST_H + 10);
+                }
+            }
+            long sel  = s.phaseNanos(StatsTracker.Phase.SELECTION);
+            long prop = s.phaseNanos(StatsTracker.Phase.PROPAGATION);
+            long cb   = s.phaseNanos(StatsTracker.Phase.CALLBACK);
+            g.setColor(TEXT_DIM);
+            g.drawString(String.format("select %.1fms · propagate %.1fms · callback %.1fms",
+                    sel / 1e6, prop / 1e6, cb / 1e6), x, top + HIST_H + 22);
         }
 
         private void drawStatRow(Graphics2D g, String label, String val, Color valColor, int y) {
@@ -560,48 +797,106 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
     }
 
     // ══════════════════════════════════════════════════════════════════════
-    //  LogPanel – scrollable event log
+    //  LogPanel – virtualized event log
+    //
+    //  Rows live in an EventLog ring (packed longs, millions of them); the
+    //  JList asks the model only for the rows on screen, and fixed cell
+    //  sizes keep it from measuring the rest. Filtering by event kind goes
+    //  through the log's per-kind index, so it costs O(visible) too.
     // ══════════════════════════════════════════════════════════════════════
 
     class LogPanel extends JPanel {
-        private final List<LogEntry> entries = new ArrayList<>();
-        private final JScrollPane    scroll;
-        private final JPanel         inner;
+        private static final int CAPACITY = 1 << 21;
+        private static final int ROW_H    = 14;
+
+        private static final String[] FILTER_NAMES = {
+            "All events", "MRV select", "Try", "Prune", "Backtrack", "Solution", "Dropped" };
+        private static final int[] FILTER_KINDS = {
+            -1, EventType.SELECT.ordinal(), EventType.TRY.ordinal(), EventType.PRUNE.ordinal(),
+            EventType.BACKTRACK.ordinal(), EventType.SOLUTION.ordinal(), EventLog.DROPPED };
+
+        private final EventLog    log   = new EventLog(CAPACITY);
+        private final LogModel    model = new LogModel();
+        private final JList<Long> list;
+        private final JScrollPane scroll;
+        private int     filter = -1;          // kind shown, -1 = all
+        private boolean dirty;
 
         LogPanel() {
             setLayout(new BorderLayout());
             setBackground(BG_PANEL);
 
-            inner = new JPanel();
-            inner.setLayout(new BoxLayout(inner, BoxLayout.Y_AXIS));
-            inner.setBackground(new Color(12, 18, 32));
+            list = new JList<>(model);
+            list.setCellRenderer(new RowRenderer());
+            list.setFixedCellHeight(ROW_H);
+            list.setFixedCellWidth(290);
+            list.setBackground(new Color(12, 18, 32));
+            list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-            scroll = new JScrollPane(inner);
+            scroll = new JScrollPane(list);
             scroll.setBackground(new Color(12, 18, 32));
             scroll.getViewport().setBackground(new Color(12, 18, 32));
             scroll.setBorder(BorderFactory.createEmptyBorder());
             scroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
             scroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
             scroll.getVerticalScrollBar().setBackground(BG_PANEL);
+            scroll.getVerticalScrollBar().setUnitIncrement(ROW_H);
 
             JLabel title = new JLabel("  ALGORITHM LOG");
             title.setFont(new Font("Monospaced", Font.BOLD, 12));
             title.setForeground(ACCENT_CYAN);
-            title.setBackground(BG_PANEL);
-            title.setOpaque(true);
-            title.setBorder(new EmptyBorder(8, 6, 8, 6));
 
-            add(title,  BorderLayout.NORTH);
+            JComboBox<String> filterBox = new JComboBox<>(FILTER_NAMES);
+            filterBox.setBackground(BG_CARD);
+            filterBox.setForeground(TEXT_PRIMARY);
+            filterBox.setFont(new Font("Monospaced", Font.PLAIN, 10));
+            filterBox.addActionListener(e -> {
+                filter = FILTER_KINDS[filterBox.getSelectedIndex()];
+                model.changed();
+                if (model.getSize() > 0) list.ensureIndexIsVisible(model.getSize() - 1);
+            });
+
+            JPanel header = new JPanel(new BorderLayout());
+            header.setBackground(BG_PANEL);
+            header.setBorder(new EmptyBorder(6, 6, 6, 6));
+            header.add(title,     BorderLayout.WEST);
+            header.add(filterBox, BorderLayout.EAST);
+
+            add(header, BorderLayout.NORTH);
             add(scroll, BorderLayout.CENTER);
             setPreferredSize(new Dimension(310, 350));
         }
 
         void addEntry(EventType type, String msg, int depth) {
-            if (entries.size() > 500) {
-                entries.remove(0);
-                if (inner.getComponentCount() > 0) inner.remove(0);
-            }
-            Color c = switch(type) {
+            log.add(type.ordinal(), depth, msg);
+            dirty = true;
+        }
+
+        /** One row standing in for events the solver published but the ring had to drop. */
+        void addDropped(long count, int depth) {
+            log.addDropped(count, depth);
+            dirty = true;
+        }
+
+        /** Announces this tick's rows to the list in one go, following the tail if it was. */
+        void flush() {
+            if (!dirty) return;
+            dirty = false;
+            JScrollBar bar = scroll.getVerticalScrollBar();
+            boolean atEnd = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - ROW_H;
+            model.changed();
+            if (atEnd && model.getSize() > 0) list.ensureIndexIsVisible(model.getSize() - 1);
+        }
+
+        void clear() {
+            log.clear();
+            dirty = false;
+            model.changed();
+        }
+
+        private Color kindColor(int kind) {
+            if (kind == EventLog.DROPPED) return TEXT_DIM;
+            return switch(EventType.values()[kind]) {
                 case SELECT    -> ACCENT_BLUE;
                 case TRY       -> ACCENT_AMBER;
                 case PRUNE     -> ACCENT_RED;
@@ -610,7 +905,11 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                 case COMPLETE  -> ACCENT_CYAN;
                 default        -> TEXT_DIM;
             };
-            String icon = switch(type) {
+        }
+
+        private String kindIcon(int kind) {
+            if (kind == EventLog.DROPPED) return "⋯";
+            return switch(EventType.values()[kind]) {
                 case SELECT    -> "◈";
                 case TRY       -> "▶";
                 case PRUNE     -> "✕";
@@ -618,46 +917,94 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                 case SOLUTION  -> "★";
                 default        -> "·";
             };
-            String indent = "  ".repeat(Math.min(depth, 6));
-            JLabel lbl = new JLabel(String.format(
-                "<html><font color='%s'>%s%s</font> <font color='%s'>%s</font></html>",
-                toHex(TEXT_DIM), indent, icon, toHex(c), truncate(msg, 38)));
-            lbl.setFont(new Font("Monospaced", Font.PLAIN, 10));
-            lbl.setBackground(new Color(12, 18, 32));
-            lbl.setOpaque(true);
-            lbl.setBorder(new EmptyBorder(1, 4, 1, 4));
-            inner.add(lbl);
-            inner.revalidate();
-            SwingUtilities.invokeLater(() -> {
-                JScrollBar bar = scroll.getVerticalScrollBar();
-                bar.setValue(bar.getMaximum());
-            });
         }
 
-        void clear() {
-            entries.clear();
-            inner.removeAll();
-            inner.revalidate();
-            inner.repaint();
+        private String truncate(String s, int max) {
+            return s.length() <= max ? s : s.substring(0, max-1) + "…";
         }
 
-        private String toHex(Color c) {
-            return String.format("#%02x%02x%02x", c.getRed(), c.getGreen(), c.getBlue());
+        /** Rows of the current filter, oldest first; elements are log sequences. */
+        private final class LogModel extends AbstractListModel<Long> {
+            private int  size;                 // size last announced
+            private long first = -1;           // sequence of row 0 last announced
+
+            @Override public int  getSize()           { return log.size(filter); }
+            @Override public Long getElementAt(int i) { return log.seq(filter, i); }
+
+            void changed() {
+                int  n     = getSize();
+                long head  = n > 0 ? log.seq(filter, 0) : -1;
+                int  old   = size;
+                boolean shifted = head != first;   // rows evicted or filter switched
+                size = n;
+                first = head;
+                if (n > old)      fireIntervalAdded(this, old, n - 1);
+                else if (n < old) fireIntervalRemoved(this, n, old - 1);
+                if (shifted && n > 0) fireContentsChanged(this, 0, n - 1);
+            }
         }
-        private String truncate(String s, int max) {
-            return s.length() <= max ? s : s.substring(0, max-1) + "…";
+
+        /** Paints one row straight from the packed record – no HTML, no per-row components. */
+        private final class RowRenderer extends JComponent implements ListCellRenderer<Long> {
+            private final Font font = new Font("Monospaced", Font.PLAIN, 10);
+            private int     kind, depth;
+            private String  text;
+            private boolean selected;
+
+            @Override
+            public Component getListCellRendererComponent(JList<? extends Long> l, Long seq, int index,
+                                                          boolean isSelected, boolean hasFocus) {
+                kind     = log.kind(seq);
+                depth    = log.depth(seq);
+                text     = log.text(seq);
+                selected = isSelected;
+                return this;
+            }
+
+            @Override
+            protected void paintComponent(Graphics g0) {
+                Graphics2D g = (Graphics2D) g0;
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g.setColor(selected ? BG_CARD : new Color(12, 18, 32));
+                g.fillRect(0, 0, getWidth(), getHeight());
+                g.setFont(font);
+                FontMetrics fm = g.getFontMetrics();
+                int base = (getHeight() + fm.getAscent() - fm.getDescent()) / 2;
+
+                String lead = "  ".repeat(Math.min(depth, 6)) + kindIcon(kind);
+                g.setColor(TEXT_DIM);
+                g.drawString(lead, 4, base);
+                g.setColor(kindColor(kind));
+                g.drawString(truncate(text, 38), 4 + fm.stringWidth(lead + " "), base);
+            }
         }
-        record LogEntry(EventType type, String msg, int depth) {}
     }
 
     // ══════════════════════════════════════════════════════════════════════
-    //  TreePanel – live recursion tree
+    //  TreePanel – full recursion tree
+    //
+    //  Every TRY and PRUNE becomes a node of a SearchTree (primitive arrays,
+    //  millions of nodes). The canvas paints only the rows in the viewport:
+    //  one labelled row per node when zoomed in, one aggregate line per
+    //  pixel row once rows get too thin to label. Finished subtrees with no
+    //  solution fold into a single row with their node and prune counts;
+    //  clicking a row folds or unfolds it. Ctrl+wheel zooms, dragging pans.
     // ══════════════════════════════════════════════════════════════════════
 
     class TreePanel extends JPanel {
-        private final List<TreeNode> nodes = new ArrayList<>();
-        private final JScrollPane    scroll;
-        private final TreeCanvas     canvas;
+        private static final double MAX_ROW_H   = 17;
+        private static final double MIN_ROW_H   = 1.0 / 4096;
+        private static final double LABEL_ROW_H = 9;     // thinner rows are drawn aggregated
+        private static final int    TOP         = 6;
+        private static final int    INDENT      = 14;
+
+        private final SearchTree  tree   = new SearchTree(SolverEngine.N);
+        private final TreeCanvas  canvas = new TreeCanvas();
+        private final JScrollPane scroll;
+        private final JLabel      info;
+        private double  rowH = MAX_ROW_H;
+        private long    lost;
+        private boolean dirty;
 
         TreePanel() {
             setBackground(BG_PANEL);
@@ -666,86 +1013,214 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             JLabel title = new JLabel("  RECURSION TREE");
             title.setFont(new Font("Monospaced", Font.BOLD, 12));
             title.setForeground(ACCENT_CYAN);
-            title.setBackground(BG_PANEL);
-            title.setOpaque(true);
-            title.setBorder(new EmptyBorder(8, 6, 8, 6));
 
-            canvas = new TreeCanvas(nodes);
+            info = new JLabel();
+            info.setFont(new Font("Monospaced", Font.PLAIN, 9));
+            info.setForeground(TEXT_DIM);
+
+            JPanel header = new JPanel(new BorderLayout());
+            header.setBackground(BG_PANEL);
+            header.setBorder(new EmptyBorder(8, 6, 8, 6));
+            header.add(title, BorderLayout.NORTH);
+            header.add(info,  BorderLayout.SOUTH);
+
             canvas.setBackground(new Color(10, 14, 26));
 
             scroll = new JScrollPane(canvas);
             scroll.setBorder(BorderFactory.createEmptyBorder());
             scroll.getViewport().setBackground(new Color(10, 14, 26));
             scroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+            scroll.getVerticalScrollBar().setUnitIncrement((int) MAX_ROW_H);
 
-            add(title,  BorderLayout.NORTH);
+            add(header, BorderLayout.NORTH);
             add(scroll, BorderLayout.CENTER);
+            relayout();
         }
 
-        void addNode(EventType type, int r, int c, int v, int depth) {
-            if (nodes.size() > 300) nodes.remove(0);
-            nodes.add(new TreeNode(type, r, c, v, depth));
-            canvas.setPreferredSize(new Dimension(250, Math.max(400, nodes.size()*18 + 30)));
-            canvas.revalidate();
-            canvas.repaint();
+        void addEvent(EventType type, int r, int c, int v) {
+            tree.onEvent(type, r, c, v);
+            dirty = true;
+        }
+
+        /** Events the solver published but the ring dropped; the tree is patched over the gap. */
+        void addLost(long count) {
+            lost += count;
+            dirty = true;
+        }
+
+        /** Applies this tick's nodes in one layout pass, following the tail if it was. */
+        void flush() {
+            if (!dirty) return;
+            dirty = false;
             JScrollBar bar = scroll.getVerticalScrollBar();
-            SwingUtilities.invokeLater(() -> bar.setValue(bar.getMaximum()));
+            boolean atEnd = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - MAX_ROW_H;
+            relayout();
+            canvas.repaint();
+            if (atEnd) SwingUtilities.invokeLater(() -> bar.setValue(bar.getMaximum()));
         }
 
-        void reset() { nodes.clear(); canvas.repaint(); }
+        void reset() {
+            tree.clear();
+            lost = 0;
+            dirty = true;
+            flush();
+        }
 
-        record TreeNode(EventType type, int r, int c, int v, int depth) {}
+        private void relayout() {
+            Dimension d = new Dimension(250, Math.max(400, (int) Math.ceil(tree.rows() * rowH) + 2 * TOP));
+            if (!d.equals(canvas.getPreferredSize())) {
+                canvas.setPreferredSize(d);
+                scroll.getViewport().setViewSize(d);
+            }
+            String text = String.format("  %,d nodes · %,d pruned · zoom %s",
+                    tree.size(), tree.prunedIn(0, tree.size()),
+                    rowH >= 1 ? String.format("%.0f px/row", rowH) : String.format("%.0f rows/px", 1 / rowH));
+            if (tree.notStored() > 0) text += String.format(" · %,d not stored", tree.notStored());
+            if (lost > 0)             text += String.format(" · %,d lost", lost);
+            info.setText(text);
+        }
+
+        private void zoom(double factor, int anchorY) {
+            double row = (anchorY - TOP) / rowH;
+            int offset = anchorY - scroll.getViewport().getViewPosition().y;
+            rowH = Math.max(MIN_ROW_H, Math.min(MAX_ROW_H, rowH * factor));
+            relayout();
+            int y = (int) (TOP + row * rowH) - offset;
+            int maxY = canvas.getPreferredSize().height - scroll.getViewport().getExtentSize().height;
+            scroll.getViewport().setViewPosition(new Point(0, Math.max(0, Math.min(y, maxY))));
+            canvas.repaint();
+        }
 
         class TreeCanvas extends JPanel {
-            private final List<TreeNode> ns;
-            TreeCanvas(List<TreeNode> ns) { this.ns = ns; }
+            private Point dragFrom;
+
+            TreeCanvas() {
+                MouseAdapter mouse = new MouseAdapter() {
+                    @Override public void mousePressed(MouseEvent e) { dragFrom = e.getLocationOnScreen(); }
+
+                    @Override public void mouseDragged(MouseEvent e) {
+                        Point now = e.getLocationOnScreen();
+                        JViewport vp = scroll.getViewport();
+                        Point p = vp.getViewPosition();
+                        int maxY = Math.max(0, getHeight() - vp.getExtentSize().height);
+                        int maxX = Math.max(0, getWidth() - vp.getExtentSize().width);
+                        vp.setViewPosition(new Point(
+                                Math.max(0, Math.min(maxX, p.x - (now.x - dragFrom.x))),
+                                Math.max(0, Math.min(maxY, p.y - (now.y - dragFrom.y)))));
+                        dragFrom = now;
+                    }
+
+                    @Override public void mouseClicked(MouseEvent e) {
+                        if (rowH < LABEL_ROW_H) return;
+                        int k = (int) ((e.getY() - TOP) / rowH);
+                        if (k < 0 || k >= tree.rows()) return;
+                        int id = tree.nodeAtRow(k);
+                        tree.setCollapsed(id, !tree.isCollapsed(id));
+                        relayout();
+                        repaint();
+                    }
+
+                    @Override public void mouseWheelMoved(MouseWheelEvent e) {
+                        if (e.isControlDown()) zoom(Math.pow(1.25, -e.getPreciseWheelRotation()), e.getY());
+                        else scroll.dispatchEvent(SwingUtilities.convertMouseEvent(TreeCanvas.this, e, scroll));
+                    }
+                };
+                addMouseListener(mouse);
+                addMouseMotionListener(mouse);
+                addMouseWheelListener(mouse);
+                setToolTipText("Click: fold/unfold · Ctrl+wheel: zoom · Drag: pan");
+            }
 
             @Override
             protected void paintComponent(Graphics g0) {
                 super.paintComponent(g0);
                 Graphics2D g = (Graphics2D) g0;
-                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-                int y = 20;
-                for (int i = 0; i < ns.size(); i++) {
-                    TreeNode n = ns.get(i);
-                    int x = 10 + n.depth() * 14;
+                Rectangle clip = g.getClipBounds();
+                if (rowH >= LABEL_ROW_H) paintRows(g, clip);
+                else                     paintAggregated(g, clip);
+            }
 
-                    if (i > 0 && n.depth() > 0) {
-                        g.setColor(new Color(40, 55, 80));
-                        g.setStroke(new BasicStroke(1f));
-                        g.drawLine(x - 10, y - 9, x - 10, y - 5);
-                        g.drawLine(x - 10, y - 5, x,      y - 5);
+            /** One labelled row per node, for the rows inside the clip only. */
+            private void paintRows(Graphics2D g, Rectangle clip) {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setFont(new Font("Monospaced", Font.PLAIN, 9));
+                g.setStroke(new BasicStroke(1f));
+                Color line = new Color(40, 55, 80);
+                int rows = tree.rows();
+                int k    = Math.max(0, (int) ((clip.y - TOP) / rowH));
+                int kEnd = Math.min(rows, (int) ((clip.y + clip.height - TOP) / rowH) + 2);
+                int dot  = (int) Math.min(7, rowH - 2);
+
+                for (int id = tree.nodeAtRow(k); k < kEnd && id < tree.size(); k++, id = tree.nextRow(id)) {
+                    int y = (int) (TOP + (k + 1) * rowH) - 4;
+                    int x = 10 + tree.depth(id) * INDENT;
+
+                    if (tree.depth(id) > 0) {
+                        g.setColor(line);
+                        g.drawLine(x - 10, (int) (y - rowH + 3), x - 10, y - 5);
+                        g.drawLine(x - 10, y - 5, x, y - 5);
                     }
 
-                    Color c = switch(n.type()) {
-                        case SELECT    -> ACCENT_BLUE;
-                        case TRY       -> ACCENT_AMBER;
-                        case PRUNE     -> ACCENT_RED;
-                        case BACKTRACK -> new Color(100, 110, 140);
-                        case SOLUTION  -> ACCENT_GREEN;
-                        default        -> TEXT_DIM;
+                    boolean folded = tree.isCollapsed(id);
+                    Color c = folded ? TEXT_DIM : switch (tree.type(id)) {
+                        case TRY      -> ACCENT_AMBER;
+                        case PRUNE    -> ACCENT_RED;
+                        case SOLUTION -> ACCENT_GREEN;
+                        default       -> ACCENT_BLUE;
                     };
-                    String icon = switch(n.type()) {
-                        case SELECT    -> "◈";
-                        case TRY       -> "▷";
-                        case PRUNE     -> "✕";
-                        case BACKTRACK -> "↩";
-                        case SOLUTION  -> "★";
-                        default        -> "·";
+                    String icon = folded ? "▸" : switch (tree.type(id)) {
+                        case TRY      -> "▷";
+                        case PRUNE    -> "✕";
+                        case SOLUTION -> "★";
+                        default       -> "◈";
                     };
+                    String label = tree.row(id) < 0
+                        ? icon + " start"
+                        : String.format("%s (%d,%d)=%d", icon, tree.row(id), tree.col(id), tree.value(id));
+                    if (folded) {
+                        int size = tree.subtree(id);
+                        label += String.format("  %,d nodes · %,d ✕", size, tree.prunedIn(id, id + size));
+                    }
 
                     g.setColor(c);
-                    g.fillOval(x-3, y-8, 7, 7);
-                    g.setFont(new Font("Monospaced", Font.PLAIN, 9));
-                    g.setColor(c);
-                    String label = n.v() > 0
-                        ? String.format("%s (%d,%d)=%d", icon, n.r(), n.c(), n.v())
-                        : String.format("%s (%d,%d)",    icon, n.r(), n.c());
+                    g.fillOval(x - 3, y - 4 - dot, dot, dot);
                     g.drawString(label, x + 6, y);
-                    y += 17;
                 }
             }
+
+            /**
+             * Zoomed out: each pixel row stands for the run of rows it covers.
+             * Those rows' nodes are one contiguous id range (preorder), so the
+             * line's length shows the node count and its colour the pruned share.
+             */
+            private void paintAggregated(Graphics2D g, Rectangle clip) {
+                int rows = tree.rows();
+                int a = -1;
+                for (int py = Math.max(TOP, clip.y); py < clip.y + clip.height; py++) {
+                    int k0 = (int) ((py - TOP) / rowH);
+                    if (k0 >= rows) break;
+                    int k1 = Math.min(rows, Math.max(k0 + 1, (int) ((py + 1 - TOP) / rowH)));
+                    if (a < 0) a = tree.nodeAtRow(k0);
+                    int b = k1 < rows ? tree.nodeAtRow(k1) : tree.size();
+                    if (b <= a) continue;
+
+                    int count = b - a;
+                    float pruned = tree.prunedIn(a, b) / (float) count;
+                    Color c = tree.hasSolution(a) && tree.subtree(a) >= count ? ACCENT_GREEN : blend(ACCENT_AMBER, ACCENT_RED, pruned);
+                    int x   = 10 + tree.depth(a) * INDENT;
+                    int len = 4 + (int) (6 * Math.log10(count));
+                    g.setColor(c);
+                    g.drawLine(x, py, x + len, py);
+                    a = b;
+                }
+            }
+
+            private Color blend(Color from, Color to, float t) {
+                return new Color(
+                    (int) (from.getRed()   + (to.getRed()   - from.getRed())   * t),
+                    (int) (from.getGreen() + (to.getGreen() - from.getGreen()) * t),
+                    (int) (from.getBlue()  + (to.getBlue()  - from.getBlue())  * t));
+            }
         }
     }
 
@@ -757,6 +1232,7 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
         private final JSlider speedSlider;
         private final JButton btnStart, btnPause, btnStop;
         private final JLabel  statusLabel;
+        private final JCheckBox instantBox, recordBox;
 
         ControlPanel() {
             setBackground(BG_PANEL);
@@ -795,8 +1271,27 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             statusLabel.setForeground(TEXT_DIM);
             add(statusLabel, gbc);
 
-            // ── Row 3: Legend ─────────────────────────────────────────────
+            // ── Row 3: Instant lookup ─────────────────────────────────────
             gbc.gridy = 3;
+            instantBox = new JCheckBox("Instant – look up in clue table");
+            instantBox.setFont(new Font("Monospaced", Font.PLAIN, 10));
+            instantBox.setForeground(TEXT_DIM);
+            instantBox.setBackground(BG_PANEL);
+            add(instantBox, gbc);
+
+            // ── Row 4: Trace record / replay ──────────────────────────────
+            gbc.gridy = 4; gbc.gridwidth = 2;
+            recordBox = new JCheckBox("Record trace – search-<time>.trace");
+            recordBox.setFont(new Font("Monospaced", Font.PLAIN, 10));
+            recordBox.setForeground(TEXT_DIM);
+            recordBox.setBackground(BG_PANEL);
+            add(recordBox, gbc);
+            gbc.gridx = 2; gbc.gridwidth = 1;
+            JButton btnReplay = button("⏏  REPLAY", ACCENT_PURPLE);
+            add(btnReplay, gbc);
+
+            // ── Row 5: Legend ─────────────────────────────────────────────
+            gbc.gridy = 5; gbc.gridx = 0; gbc.gridwidth = 3;
             add(legendPanel(), gbc);
 
             // ── Actions ───────────────────────────────────────────────────
@@ -813,8 +1308,14 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
                 stopSolver();
                 statusLabel.setText("Stopped.");
             });
+            btnReplay.addActionListener(e -> openTrace());
         }
 
+        boolean isInstant()   { return instantBox.isSelected(); }
+        boolean isRecording() { return recordBox.isSelected(); }
+
+        void setStatus(String text) { statusLabel.setText(text); }
+
         /** Slider 0..1000  →  delay 800ms..10ms (inverse) */
         int getDelay() {
             return (int)(800 - speedSlider.getValue() * 0.79f);
@@ -892,6 +1393,175 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
         }
     }
 
+    // ══════════════════════════════════════════════════════════════════════
+    //  ReplayPanel – seekable playback of a recorded SearchTrace
+    //
+    //  The trace stays memory-mapped and every position is one keyframe
+    //  seek, so the slider can jump anywhere in a 10^8-event trace. Small
+    //  forward steps feed their events to the log, tree and graph as if
+    //  live; jumps and rewinds rebuild those from the REPLAY_WINDOW events
+    //  before the new position rather than from the start of the trace.
+    // ══════════════════════════════════════════════════════════════════════
+
+    class ReplayPanel extends JPanel {
+        private static final int REPLAY_WINDOW = 1 << 12;
+        private static final int FEED_LIMIT    = 1 << 16;
+        private static final int SLIDER_MAX    = 1 << 30;
+        private static final String[] SPEED_NAMES = {
+            "1 ev/s", "10 ev/s", "100 ev/s", "1k ev/s", "10k ev/s", "100k ev/s", "1M ev/s", "10M ev/s" };
+
+        private final JSlider           slider = new JSlider(0, 1, 0);
+        private final JLabel            position = new JLabel();
+        private final JButton           btnRewind, btnPlay, btnStep, btnClose;
+        private final JComboBox<String> speedBox;
+        private final javax.swing.Timer playTimer = new javax.swing.Timer(TICK_MS, e -> play());
+        private final StatsTracker      replayStats = new StatsTracker();
+
+        private SearchTrace trace;
+        private long    shown = -1;           // event on screen
+        private double  cursor;               // playback position, fractional
+        private int     direction;            // +1 play, -1 rewind, 0 paused
+        private long    lastTick;
+        private boolean syncing;              // slider moved by code, not the user
+
+        ReplayPanel() {
+            setBackground(BG_PANEL);
+            setBorder(new CompoundBorder(
+                new LineBorder(GRID_LINE, 1, true),
+                new EmptyBorder(8, 10, 8, 10)
+            ));
+            setLayout(new BorderLayout(6, 6));
+
+            btnRewind = controls.button("◀◀ REWIND", ACCENT_AMBER);
+            btnPlay   = controls.button("▶  PLAY",   ACCENT_GREEN);
+            btnStep   = controls.button("STEP ▶|",   ACCENT_BLUE);
+            btnClose  = controls.button("✕ CLOSE",   ACCENT_RED);
+            speedBox  = controls.combo(SPEED_NAMES);
+            speedBox.setSelectedIndex(2);
+
+            slider.setBackground(BG_PANEL);
+            position.setFont(new Font("Monospaced", Font.PLAIN, 10));
+            position.setForeground(TEXT_DIM);
+
+            JPanel buttons = new JPanel(new GridLayout(1, 5, 6, 0));
+            buttons.setBackground(BG_PANEL);
+            buttons.add(btnRewind);
+            buttons.add(btnPlay);
+            buttons.add(btnStep);
+            buttons.add(speedBox);
+            buttons.add(btnClose);
+
+            add(position, BorderLayout.NORTH);
+            add(slider,   BorderLayout.CENTER);
+            add(buttons,  BorderLayout.SOUTH);
+            setVisible(false);
+
+            btnRewind.addActionListener(e -> setDirection(direction == -1 ? 0 : -1));
+            btnPlay.addActionListener(e -> setDirection(direction == 1 ? 0 : 1));
+            btnStep.addActionListener(e -> {
+                setDirection(0);
+                if (shown + 1 < trace.count()) seek(shown + 1);
+            });
+            btnClose.addActionListener(e -> close());
+            slider.addChangeListener(e -> {
+                if (syncing || trace == null) return;
+                setDirection(0);
+                seek(slider.getValue() * (trace.count() - 1) / Math.max(1, slider.getMaximum()));
+            });
+        }
+
+        boolean isOpen() { return trace != null; }
+
+        void open(SearchTrace t) {
+            close();
+            trace = t;
+            int[][] clues = t.clues();                       // top, right, bottom, left
+            gridPanel.setClues(clues[0], clues[2], clues[3], clues[1]);
+            syncing = true;
+            slider.setMaximum((int) Math.min(Math.max(1, t.count() - 1), SLIDER_MAX));
+            syncing = false;
+            shown = -1;
+            setVisible(true);
+            revalidate();
+            if (t.count() > 0) seek(0);
+        }
+
+        void close() {
+            setDirection(0);
+            if (trace != null) {
+                try { trace.close(); } catch (IOException ignored) { }
+                trace = null;
+                gridPanel.setClues(PUZZLE_TOP, PUZZLE_BOTTOM, PUZZLE_LEFT, PUZZLE_RIGHT);
+            }
+            setVisible(false);
+            revalidate();
+        }
+
+        private void setDirection(int d) {
+            direction = trace == null || trace.count() == 0 ? 0 : d;
+            btnPlay.setText(direction == 1 ? "⏸  PAUSE" : "▶  PLAY");
+            btnRewind.setText(direction == -1 ? "⏸  PAUSE" : "◀◀ REWIND");
+            if (direction == 0) { playTimer.stop(); return; }
+            cursor = shown;
+            lastTick = System.nanoTime();
+            playTimer.start();
+        }
+
+        /** Play tick: moves the cursor by speed × elapsed time, in either direction. */
+        private void play() {
+            long now = System.nanoTime();
+            double speed = Math.pow(10, speedBox.getSelectedIndex());
+            cursor += direction * speed * (now - lastTick) / 1e9;
+            lastTick = now;
+            long last = trace.count() - 1;
+            if (cursor <= 0 || cursor >= last) {
+                cursor = Math.max(0, Math.min(last, cursor));
+                setDirection(0);
+            }
+            if ((long) cursor != shown) seek((long) cursor);
+        }
+
+        /** Shows the state right after event {@code index}. */
+        private void seek(long index) {
+            if (shown >= 0 && index > shown && index - shown <= FEED_LIMIT) {
+                feed(shown + 1, index);
+            } else {
+                treePanel.reset();
+                logPanel.clear();
+                complexityGraph.reset();
+                feed(Math.max(0, index - REPLAY_WINDOW + 1), index);
+            }
+            shown = index;
+
+            SearchTrace.Frame f = trace.frame(index);
+            gridPanel.update(f.grid, trace.row(index), trace.col(index), trace.type(index));
+            replayStats.restore(f.nodes, f.pruned, f.backtracks, f.solutions, f.depth, f.maxDepth, f.elapsedMs);
+            statsPanel.update(replayStats.snapshot());
+
+            position.setText(String.format("REPLAY  event %,d / %,d  ·  %s", index + 1, trace.count(), trace.message(index)));
+            syncing = true;
+            slider.setValue((int) (index * slider.getMaximum() / Math.max(1, trace.count() - 1)));
+            syncing = false;
+        }
+
+        /** Hands events [from, to] to the log, tree and graph, rebuilding their counters on the way. */
+        private void feed(long from, long to) {
+            EventType[] types = EventType.values();
+            long[] state = from > 0 ? trace.state(from - 1) : new long[SearchTrace.STATE_LONGS];
+            for (long i = from; i <= to; i++) {
+                long rec = trace.record(i);
+                SearchTrace.step(state, rec, trace.getSize());
+                EventType type = types[SearchTrace.recType(rec)];
+                int depth = SearchTrace.recDepth(rec);
+                complexityGraph.addDataPoint(depth, state[SearchTrace.S_NODES], state[SearchTrace.S_PRUNED]);
+                logPanel.addEntry(type, trace.message(i), depth);
+                treePanel.addEvent(type, SearchTrace.recRow(rec), SearchTrace.recCol(rec), SearchTrace.recValue(rec));
+            }
+            logPanel.flush();
+            treePanel.flush();
+        }
+    }
+
     // ══════════════════════════════════════════════════════════════════════
     //  ComplexityGraphPanel – live time-complexity chart
     //
@@ -914,12 +1584,13 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
         private       long    maxNodesSeen = 1;
 
         // ── Smoothed "actual" polyline (one point per depth level recorded) ─
-        private final List<long[]> snapshots = new ArrayList<>(); // [depth, nodes, pruned]
+        private final ArrayDeque<long[]> snapshots = new ArrayDeque<>(); // [depth, nodes, pruned]
 
         // ── Animation ────────────────────────────────────────────────────
         private final javax.swing.Timer animTimer;
         private float animPhase = 0f;
         private boolean dirty = false;
+        private long    lastData;                  // the leading dot pulses for a while after it
 
         ComplexityGraphPanel() {
             setBackground(BG_DARK);
@@ -929,10 +1600,16 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             ));
             animTimer = new javax.swing.Timer(32, e -> {
                 animPhase += 0.05f;
-                if (dirty) { repaint(); dirty = false; }
-                else repaint(); // keep pulse alive
+                repaint();
+                if (!dirty && System.currentTimeMillis() - lastData > 1500) ((javax.swing.Timer) e.getSource()).stop();
+                dirty = false;
             });
-            animTimer.start();
+        }
+
+        private void wake() {
+            lastData = System.currentTimeMillis();
+            dirty = true;
+            if (!animTimer.isRunning()) animTimer.start();
         }
 
         void reset() {
@@ -941,7 +1618,7 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             snapshots.clear();
             maxDepthSeen = 0;
             maxNodesSeen = 1;
-            dirty = true;
+            wake();
         }
 
         void addDataPoint(int depth, long nodes, long pruned) {
@@ -951,8 +1628,8 @@ public class BacktrackingVisualizer extends JFrame implements SolverEngine.Solve
             if (depth  > maxDepthSeen) maxDepthSeen = depth;
             if (nodes  > maxNodesSeen) maxNodesSeen = nodes;
             snapshots.add(new long[]{depth, nodes, pruned});
-            if (snapshots.size() > 2000) snapshots.remove(0);
-            dirty = true;
+            if (snapshots.size() > 2000) snapshots.pollFirst();
+            wake();
         }
 
         // ── Paint ─────────────────────────────────────────────────────────
@@ -0,0 +1,438 @@
+package TowersPuzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * BatchSolver – headless command-line solver for whole puzzle files.
+ *
+ * The input is memory-mapped. It is either a {@link PuzzleBank} or a text
+ * pack with one puzzle per line, in {@link PuzzleGenerator.PuzzleData#toLine()}
+ * form or just its four clue fields. Blank lines and lines starting with '#'
+ * are skipped. Work runs as a pipeline:
+ * <ol>
+ *   <li>a reader thread cuts the input into chunks ({@link #CHUNK_BYTES} of
+ *       text, ending on a line break, or {@link #CHUNK_RECORDS} bank records)
+ *       and queues one task per chunk;</li>
+ *   <li>one worker per core parses its chunk, solves every puzzle and formats
+ *       the output lines into a byte array;</li>
+ *   <li>the calling thread takes the chunks back in input order from a
+ *       bounded queue and writes them through a direct buffer to a
+ *       {@link FileChannel}.</li>
+ * </ol>
+ * The queue holds at most {@code QUEUE_DEPTH} chunks per worker, so memory
+ * stays flat for any input size. The output order is the input order for
+ * any thread count.
+ *
+ * Each output line is {@code top right bottom left solution count}: the
+ * clues as read, the first solution in pack form ("-" if there is none),
+ * and the number of solutions, where 2 means two or more.
+ *
+ * The {@link Engine#TABLE table} engine answers from the
+ * {@link ClueDatabase} (sizes up to 5) at over 600,000 4×4 puzzles per
+ * second per core. The {@link Engine#SEARCH search} engine runs
+ * {@link SolverEngine}'s backtracking on 4×4 puzzles. It is orders of
+ * magnitude slower and is meant for cross-checking.
+ */
+public class BatchSolver {
+
+    public enum Engine { TABLE, SEARCH }
+
+    public static final int  CHUNK_BYTES   = 1 << 18;   // text per task
+    public static final int  CHUNK_RECORDS = 4096;      // bank records per task
+    private static final int QUEUE_DEPTH   = 4;         // chunks in flight per worker
+    private static final int MAX_LINE      = 4096;      // longest text line accepted
+    private static final int LIMIT         = 2;         // solutions counted per puzzle
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final int    threads;
+    private final Engine engine;
+
+    public static class Result {
+        public final int  size;
+        public final long puzzles, unique, multiple, unsolvable;
+        public final long bytesIn, bytesOut, elapsedMs;
+
+        Result(int size, long puzzles, long unique, long multiple, long unsolvable,
+               long bytesIn, long bytesOut, long elapsedMs) {
+            this.size = size;
+            this.puzzles = puzzles;
+            this.unique = unique;
+            this.multiple = multiple;
+            this.unsolvable = unsolvable;
+            this.bytesIn = bytesIn;
+            this.bytesOut = bytesOut;
+            this.elapsedMs = elapsedMs;
+        }
+    }
+
+    public BatchSolver(int threads, Engine engine) {
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be >= 1, got " + threads);
+        this.threads = threads;
+        this.engine = engine;
+    }
+
+    /** Solves every puzzle in {@code in} and writes one line per puzzle to {@code out}. */
+    public Result solve(Path in, Path out) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Input input = open(in);
+        int n = input.size();
+        try {
+            if (n > 0 && engine == Engine.TABLE && !ClueDatabase.supports(n))
+                throw new IllegalArgumentException("The table engine supports sizes up to " + ClueDatabase.MAX_SIZE + ", got " + n);
+            if (n > 0 && engine == Engine.SEARCH && n != SolverEngine.N)
+                throw new IllegalArgumentException("The search engine only solves " + SolverEngine.N + "x" + SolverEngine.N + ", got " + n);
+        } catch (IllegalArgumentException e) {
+            input.close();
+            throw e;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "batch-solve");
+            t.setDaemon(true);
+            return t;
+        });
+        BlockingQueue<Future<Chunk>> inFlight = new ArrayBlockingQueue<>(threads * QUEUE_DEPTH);
+
+        Thread reader = new Thread(() -> {
+            try {
+                Callable<Chunk> task;
+                while ((task = input.next()) != null) inFlight.put(pool.submit(task));
+                inFlight.put(CompletableFuture.completedFuture(null));              // end of input
+            } catch (IOException e) {
+                try { inFlight.put(CompletableFuture.failedFuture(e)); } catch (InterruptedException ignored) { }
+            } catch (InterruptedException | RejectedExecutionException e) {
+                // writer failed and shut the pool down
+            }
+        }, "batch-solve-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long puzzles = 0, unique = 0, multiple = 0, unsolvable = 0, written = 0;
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+            Chunk chunk;
+            while ((chunk = inFlight.take().get()) != null) {
+                puzzles    += chunk.puzzles;
+                unique     += chunk.unique;
+                multiple   += chunk.multiple;
+                unsolvable += chunk.unsolvable;
+                written    += chunk.length;
+                if (chunk.length > buf.remaining()) flush(channel, buf);
+                if (chunk.length <= buf.remaining()) {
+                    buf.put(chunk.bytes, 0, chunk.length);
+                } else {                                       // larger than the buffer
+                    ByteBuffer big = ByteBuffer.wrap(chunk.bytes, 0, chunk.length);
+                    while (big.hasRemaining()) channel.write(big);
+                }
+            }
+            flush(channel, buf);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof IllegalArgumentException)
+                throw new IOException(in + ": " + cause.getMessage(), cause);
+            throw new IllegalStateException("Batch solve failed", cause);
+        } finally {
+            reader.interrupt();
+            pool.shutdownNow();
+            for (Future<Chunk> f : inFlight) f.cancel(true);
+            input.close();
+        }
+        return new Result(n, puzzles, unique, multiple, unsolvable, input.bytes(), written,
+                System.currentTimeMillis() - start);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  INPUT
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** A mapped input file, cut into tasks by the reader thread. */
+    private abstract static class Input {
+        abstract int  size();                                   // 0 = no puzzles
+        abstract long bytes();
+        /** The next chunk's task, or null at the end. */
+        abstract Callable<Chunk> next() throws IOException;
+        abstract void close() throws IOException;
+    }
+
+    private Input open(Path in) throws IOException {
+        try (FileChannel channel = FileChannel.open(in, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) { }
+            if (!magic.hasRemaining() && magic.getInt(0) == PuzzleBank.MAGIC) return new BankInput(in);
+        }
+        return new TextInput(in);
+    }
+
+    private final class BankInput extends Input {
+        private final PuzzleBank bank;
+        private final long       bytes;
+        private long             next;
+
+        BankInput(Path file) throws IOException {
+            bank  = new PuzzleBank(file);
+            bytes = PuzzleBank.HEADER_BYTES + bank.count() * PuzzleBank.recordLongs(bank.getSize()) * Long.BYTES;
+        }
+
+        @Override int  size()  { return bank.count() == 0 ? 0 : bank.getSize(); }
+        @Override long bytes() { return bytes; }
+
+        @Override
+        Callable<Chunk> next() {
+            if (next >= bank.count()) return null;
+            long from = next, to = Math.min(bank.count(), from + CHUNK_RECORDS);
+            next = to;
+            return () -> {
+                Puzzles p = new Puzzles(bank.getSize());
+                for (long i = from; i < to; i++) {
+                    bank.clues(i, p.clues);
+                    p.solveAndEmit();
+                }
+                return p.out;
+            };
+        }
+
+        @Override void close() throws IOException { bank.close(); }
+    }
+
+    /**
+     * A text pack, mapped in segments of {@link #SEGMENT_BYTES} that overlap
+     * by {@link #MAX_LINE}, so a chunk starting in a segment always ends in it.
+     */
+    private final class TextInput extends Input {
+        private final Path               file;
+        private final FileChannel        channel;
+        private final MappedByteBuffer[] segments;
+        private final long               length;
+        private final int                n;
+        private long                     next;
+
+        TextInput(Path file) throws IOException {
+            this.file = file;
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                length = channel.size();
+                int count = (int) ((length + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+                segments = new MappedByteBuffer[count];
+                for (int s = 0; s < count; s++) {
+                    long pos = s * SEGMENT_BYTES;
+                    segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+                            Math.min(SEGMENT_BYTES + MAX_LINE, length - pos));
+                }
+                n = detectSize();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /** Digits in the first clue field of the first puzzle line; 0 if there is none. */
+        private int detectSize() throws IOException {
+            if (segments.length == 0) return 0;
+            MappedByteBuffer seg = segments[0];
+            int i = 0, end = seg.limit();
+            for (int line = 1; i < end; line++) {
+                int from = i;
+                while (i < end && isBlank(seg.get(i))) i++;
+                if (i < end && seg.get(i) != '#' && seg.get(i) != '\n') {
+                    int digits = 0;
+                    while (i + digits < end && isDigit(seg.get(i + digits))) digits++;
+                    if (digits == 0) {
+                        int eol = i;
+                        while (eol < end && seg.get(eol) != '\n') eol++;
+                        throw new IOException(file + ": line " + line + ": expected 4 clue fields, got \""
+                                + text(seg, from, eol) + "\"");
+                    }
+                    return digits;
+                }
+                while (i < end && seg.get(i) != '\n') i++;
+                i++;
+            }
+            return 0;
+        }
+
+        @Override int  size()  { return n; }
+        @Override long bytes() { return length; }
+
+        @Override
+        Callable<Chunk> next() throws IOException {
+            if (next >= length || n == 0) return null;
+            int s = (int) (next / SEGMENT_BYTES);
+            long base = s * SEGMENT_BYTES;
+            MappedByteBuffer seg = segments[s];
+            long end = Math.min(Math.min(next + CHUNK_BYTES, base + SEGMENT_BYTES), length);
+            while (end < length && seg.get((int) (end - 1 - base)) != '\n') {
+                if (++end - base > seg.limit())
+                    throw new IOException(file + ": line longer than " + MAX_LINE + " bytes near byte " + end);
+            }
+            int from = (int) (next - base), to = (int) (end - base);
+            next = end;
+            return () -> {
+                Puzzles p = new Puzzles(n);
+                int pos = from;
+                while (pos < to) {
+                    int eol = pos;
+                    while (eol < to && seg.get(eol) != '\n') eol++;
+                    if (parse(seg, pos, eol, base, p.clues)) p.solveAndEmit();
+                    pos = eol + 1;
+                }
+                return p.out;
+            };
+        }
+
+        /** Reads the four clue fields of one line; false for a blank or comment line. */
+        private boolean parse(MappedByteBuffer seg, int pos, int eol, long base, int[] clues) {
+            int i = pos;
+            for (int field = 0; field < 4; field++) {
+                while (i < eol && isBlank(seg.get(i))) i++;
+                if (field == 0 && (i == eol || seg.get(i) == '#')) return false;
+                int start = i;
+                while (i < eol && i - start < n && isDigit(seg.get(i))) clues[field * n + (i - start)] = seg.get(i++) - '0';
+                if (i - start != n || (i < eol && !isBlank(seg.get(i))))
+                    throw new IllegalArgumentException("byte " + (base + pos) + ": expected 4 clue fields of "
+                            + n + " digits, got \"" + text(seg, pos, eol) + "\"");
+            }
+            return true;
+        }
+
+        @Override void close() throws IOException { channel.close(); }
+    }
+
+    private static boolean isBlank(byte b) { return b == ' ' || b == '\t' || b == '\r'; }
+    private static boolean isDigit(byte b) { return b >= '0' && b <= '9'; }
+
+    private static String text(MappedByteBuffer seg, int from, int to) {
+        byte[] b = new byte[Math.min(to - from, 80)];
+        seg.get(from, b);
+        return new String(b, java.nio.charset.StandardCharsets.US_ASCII).trim();
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  SOLVING
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** One task's output lines and tallies. */
+    private static final class Chunk {
+        byte[] bytes = new byte[1 << 14];
+        int    length;
+        long   puzzles, unique, multiple, unsolvable;
+
+        void put(int b) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = (byte) b;
+        }
+    }
+
+    /** Scratch for one task: the clues being solved, the engine and the output. */
+    private final class Puzzles {
+        final int     n;
+        final int[]   clues;                       // top, right, bottom, left
+        final int[]   top, right, bottom, left;
+        final Chunk   out = new Chunk();
+        int[][]       first;
+
+        Puzzles(int n) {
+            this.n = n;
+            clues  = new int[4 * n];
+            top    = new int[n];
+            right  = new int[n];
+            bottom = new int[n];
+            left   = new int[n];
+        }
+
+        void solveAndEmit() {
+            System.arraycopy(clues, 0,     top,    0, n);
+            System.arraycopy(clues, n,     right,  0, n);
+            System.arraycopy(clues, 2 * n, bottom, 0, n);
+            System.arraycopy(clues, 3 * n, left,   0, n);
+            int count = engine == Engine.TABLE ? lookup() : search();
+
+            for (int i = 0; i < 4 * n; i++) {
+                out.put('0' + clues[i]);
+                if (i % n == n - 1) out.put(' ');
+            }
+            if (count == 0) {
+                out.put('-');
+            } else {
+                for (int r = 0; r < n; r++) {
+                    if (r > 0) out.put('/');
+                    for (int c = 0; c < n; c++) out.put('0' + first[r][c]);
+                }
+            }
+            out.put(' ');
+            out.put('0' + count);
+            out.put('\n');
+
+            out.puzzles++;
+            if (count == 0) out.unsolvable++;
+            else if (count == 1) out.unique++;
+            else out.multiple++;
+        }
+
+        private int lookup() {
+            List<int[][]> found = ClueDatabase.forSize(n).solutions(top, right, bottom, left, null, LIMIT);
+            first = found.isEmpty() ? null : found.get(0);
+            return found.size();
+        }
+
+        private int search() {
+            first = null;
+            StatsTracker stats = new StatsTracker();
+            SolverEngine solver = new SolverEngine(stats, (type, r, c, v, grid, st, msg) -> {
+                if (type == SolverEngine.SolverCallback.EventType.SOLUTION && first == null) first = grid;
+            }, top, bottom, left, right);
+            solver.stepDelay    = 0;
+            solver.maxSolutions = LIMIT;
+            solver.run();
+            return (int) stats.getSolutionsFound();
+        }
+    }
+
+    //  ENTRY POINT
+    //  java TowersPuzzle.BatchSolver <in> <out> [threads=#cores] [table|search]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BatchSolver <pack.txt|bank> <out.txt> [threads] [table|search]");
+            System.exit(2);
+        }
+        Path in      = Paths.get(args[0]);
+        Path out     = Paths.get(args[1]);
+        int  threads = args.length > 2 ? Integer.parseInt(args[2])
+                                       : Runtime.getRuntime().availableProcessors();
+        Engine engine = args.length > 3 ? Engine.valueOf(args[3].toUpperCase()) : Engine.TABLE;
+
+        Result r = new BatchSolver(threads, engine).solve(in, out);
+        double secs = Math.max(1, r.elapsedMs) / 1000.0;
+        System.out.printf("Solved %d %dx%d puzzles from %s in %d ms: %d unique, %d with several solutions, %d unsolvable%n",
+                r.puzzles, r.size, r.size, in, r.elapsedMs, r.unique, r.multiple, r.unsolvable);
+        System.out.printf("%.0f puzzles/s, %.1f MB/s in, %.1f MB/s out (%d threads, %s engine)%n",
+                r.puzzles / secs, r.bytesIn / secs / 1e6, r.bytesOut / secs / 1e6,
+                threads, engine.name().toLowerCase());
+    }
+}
@@ -0,0 +1,248 @@
+package TowersPuzzle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * BulkPuzzleGenerator – offline builder for puzzle packs.
+ *
+ * Work is cut into fixed-size chunks. Chunk k draws from the k-th split of a
+ * root {@code SplittableRandom(seed)}. One feeder thread takes the splits in
+ * chunk order, so each chunk's puzzles depend only on the seed. Workers
+ * generate chunks on every core. The writer takes them back in chunk order
+ * from a bounded queue and drops clue vectors it has already written. Each
+ * line is streamed to disk in {@link PuzzleGenerator.PuzzleData#toLine()}
+ * form. The output is byte-identical for any thread count. Memory holds at
+ * most {@code QUEUE_DEPTH} chunks plus one long per distinct puzzle.
+ *
+ * Puzzles are unique-solution, minimal-clue ({@code generateUniquePuzzle}),
+ * so the clue vector identifies a puzzle. Sizes up to 5 pack it into a long.
+ *
+ * With a target {@link DifficultyRater.Difficulty}, every worker rates its
+ * chunk's candidates and keeps only those in the band, so rating runs in
+ * parallel too. A chunk may then hold fewer than {@code CHUNK_SIZE} puzzles.
+ */
+public class BulkPuzzleGenerator {
+
+    public static final int CHUNK_SIZE  = 256;
+    private static final int QUEUE_DEPTH = 4;    // chunks in flight per worker
+    private static final int MAX_DRY_CHUNKS = 64; // chunks in a row with nothing new → give up
+
+    private final int  size;
+    private final long seed;
+    private final int  threads;
+    private final DifficultyRater.Difficulty band;   // null = any difficulty
+
+    /** Why {@link #generate} stopped. */
+    public enum Stop {
+        /** Wrote the requested count. */
+        DONE,
+        /** Candidates kept arriving, but all had been written already. */
+        EXHAUSTED,
+        /** Almost no candidates fell in the difficulty band: it is rare or empty at this size. */
+        BAND_STARVED
+    }
+
+    public static class Result {
+        public final long written, duplicates, offBand, elapsedMs;
+        public final Stop stop;
+
+        Result(long written, long duplicates, long offBand, long elapsedMs, Stop stop) {
+            this.written = written;
+            this.duplicates = duplicates;
+            this.offBand = offBand;
+            this.elapsedMs = elapsedMs;
+            this.stop = stop;
+        }
+    }
+
+    public BulkPuzzleGenerator(int size, long seed, int threads) {
+        this(size, seed, threads, null);
+    }
+
+    public BulkPuzzleGenerator(int size, long seed, int threads, DifficultyRater.Difficulty band) {
+        if (size < 1 || size > 5)
+            throw new IllegalArgumentException("Bulk generation supports sizes 1..5, got " + size);
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be >= 1, got " + threads);
+        this.size = size;
+        this.seed = seed;
+        this.threads = threads;
+        this.band = band;
+    }
+
+    /**
+     * Streams {@code count} distinct puzzles to {@code out}, one per line.
+     * Stops early after {@code MAX_DRY_CHUNKS} chunks in a row add nothing:
+     * {@link Stop#EXHAUSTED} if they held only puzzles already written (at
+     * 4×4 there are only a few tens of thousands of distinct minimal puzzles),
+     * {@link Stop#BAND_STARVED} if they held no puzzles in the band at all.
+     */
+    public Result generate(long count, Path out) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "puzzle-gen");
+            t.setDaemon(true);
+            return t;
+        });
+        BlockingQueue<Future<Chunk>> inFlight = new ArrayBlockingQueue<>(threads * QUEUE_DEPTH);
+
+        Thread feeder = new Thread(() -> {
+            SplittableRandom root = new SplittableRandom(seed);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    SplittableRandom chunkRandom = root.split();
+                    inFlight.put(pool.submit(() -> generateChunk(chunkRandom)));
+                }
+            } catch (InterruptedException | RejectedExecutionException e) {
+                // writer has enough puzzles and shut the pool down
+            }
+        }, "puzzle-gen-feeder");
+        feeder.setDaemon(true);
+        feeder.start();
+
+        long written = 0, duplicates = 0, offBand = 0;
+        int dryChunks = 0;
+        long dryCandidates = 0;                  // in-band candidates seen during the dry run
+        LongHashSet seen = new LongHashSet();
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.US_ASCII)) {
+            while (written < count && dryChunks < MAX_DRY_CHUNKS) {
+                Chunk chunk = inFlight.take().get();
+                offBand += CHUNK_SIZE - chunk.size;
+                long before = written;
+                for (int i = 0; i < chunk.size && written < count; i++) {
+                    if (!seen.add(chunk.keys[i])) { duplicates++; continue; }
+                    w.write(chunk.lines[i]);
+                    w.newLine();
+                    written++;
+                }
+                if (written == before) {
+                    dryChunks++;
+                    dryCandidates += chunk.size;
+                } else {
+                    dryChunks = 0;
+                    dryCandidates = 0;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Puzzle generation failed", e.getCause());
+        } finally {
+            feeder.interrupt();
+            pool.shutdownNow();
+            for (Future<Chunk> f : inFlight) f.cancel(true);
+        }
+        Stop stop = written >= count ? Stop.DONE
+                  : band != null && dryCandidates < dryChunks ? Stop.BAND_STARVED   // under one per chunk
+                  : Stop.EXHAUSTED;
+        return new Result(written, duplicates, offBand, System.currentTimeMillis() - start, stop);
+    }
+
+    private Chunk generateChunk(SplittableRandom random) {
+        PuzzleGenerator generator = new PuzzleGenerator(size, random);
+        DifficultyRater rater = band == null ? null : new DifficultyRater(size);
+        Chunk chunk = new Chunk();
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            PuzzleGenerator.PuzzleData p = generator.generateUniquePuzzle();
+            if (rater != null && rater.rate(p).difficulty != band) continue;
+            chunk.keys[chunk.size]  = clueKey(p);
+            chunk.lines[chunk.size] = p.toLine();
+            chunk.size++;
+        }
+        return chunk;
+    }
+
+    /**
+     * Packs the 4N clues at 3 bits each (≤ 60 bits for N ≤ 5). Bit 63 is
+     * always set so a key is never 0, the hash set's empty marker.
+     */
+    static long clueKey(PuzzleGenerator.PuzzleData p) {
+        long key = 0;
+        for (int[] side : new int[][] { p.topClues, p.rightClues, p.bottomClues, p.leftClues })
+            for (int v : side) key = (key << 3) | v;
+        return key | Long.MIN_VALUE;
+    }
+
+    private static class Chunk {
+        final long[]   keys  = new long[CHUNK_SIZE];
+        final String[] lines = new String[CHUNK_SIZE];
+        int size;
+    }
+
+    /** Open-addressing set of non-zero longs; no boxing for millions of keys. */
+    private static class LongHashSet {
+        private long[] table = new long[1 << 16];
+        private int    size;
+
+        boolean add(long key) {
+            if (size * 2 >= table.length) grow();
+            if (!insert(table, key)) return false;
+            size++;
+            return true;
+        }
+
+        private static boolean insert(long[] t, long key) {
+            int mask = t.length - 1;
+            int i = (int) (mix(key) & mask);
+            while (t[i] != 0) {
+                if (t[i] == key) return false;
+                i = (i + 1) & mask;
+            }
+            t[i] = key;
+            return true;
+        }
+
+        private void grow() {
+            long[] bigger = new long[table.length * 2];
+            for (long k : table) if (k != 0) insert(bigger, k);
+            table = bigger;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
+
+    //  ENTRY POINT
+    //  java TowersPuzzle.BulkPuzzleGenerator <out-file> <count> [size=4] [seed=1] [threads=#cores] [band]
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BulkPuzzleGenerator <out-file> <count> [size] [seed] [threads] [EASY|MEDIUM|HARD|EXPERT]");
+            System.exit(2);
+        }
+        Path out     = Paths.get(args[0]);
+        long count   = Long.parseLong(args[1]);
+        int  size    = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seed    = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        int  threads = args.length > 4 ? Integer.parseInt(args[4])
+                                       : Runtime.getRuntime().availableProcessors();
+        DifficultyRater.Difficulty band = args.length > 5
+                ? DifficultyRater.Difficulty.valueOf(args[5].toUpperCase()) : null;
+
+        Result r = new BulkPuzzleGenerator(size, seed, threads, band).generate(count, out);
+        System.out.printf("Wrote %d %dx%d %spuzzles to %s in %d ms (%.0f/s, %d duplicates skipped, %d threads)%n",
+                r.written, size, size, band == null ? "" : band + " ", out, r.elapsedMs,
+                r.written * 1000.0 / Math.max(1, r.elapsedMs), r.duplicates, threads);
+        switch (r.stop) {
+            case EXHAUSTED -> System.out.println(
+                    "Stopped early: every new puzzle was a duplicate – the puzzle space is exhausted.");
+            case BAND_STARVED -> System.out.printf(
+                    "Stopped early: almost no puzzles are rated %s at %dx%d (%d rated outside the band) – the band is rare or empty.%n",
+                    band, size, size, r.offBand);
+            case DONE -> { }
+        }
+    }
+}
@@ -1,3 +1,4 @@
+package TowersPuzzle;
 
 public class CellEvaluation {
     public int row, col;
@@ -0,0 +1,332 @@
+package TowersPuzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ClueDatabase – every N×N Latin square with its full clue signature, N ≤ 5.
+ *
+ * There are 576 Latin squares of order 4 and 161,280 of order 5, so instead
+ * of searching, a clue set is answered from a table built once per size:
+ * <ul>
+ *   <li>A full clue vector (no zeros) is hashed to its group of squares – O(1).</li>
+ *   <li>A partial clue vector, optionally with some cells already filled, is
+ *       the AND of one bitset per given clue and per filled cell. Each bitset
+ *       marks the squares that agree with it; counting stops at {@code limit}.</li>
+ * </ul>
+ * Squares are stored as row-permutation indices: one short per row.
+ *
+ * The table is built on first use of a size (about 6 MB for N = 5) and is
+ * immutable afterwards, so one instance is shared by all threads.
+ */
+public class ClueDatabase {
+
+    public static final int MAX_SIZE = 5;
+
+    private static final ClueDatabase[] CACHE = new ClueDatabase[MAX_SIZE + 1];
+
+    private final int N;
+    private final int squares;        // number of Latin squares
+    private final int words;          // longs per bitset
+
+    private final int[][] perms;      // perms[p][c] = height in column c
+    private final short[] squareRows; // squareRows[s*N + r] = permutation in row r
+
+    // clueBits[pos][v] – squares whose clue at pos (top, right, bottom, left order) is v
+    private final long[][][] clueBits;
+    private final int[][]    clueCard;   // set bits in clueBits[pos][v]
+    // cellBits[r*N + c][v] – squares with height v at (r, c)
+    private final long[][][] cellBits;
+
+    // Full signature → squares, open addressing; groups are ranges of groupSquares
+    private final long[] sigTable;
+    private final int[]  sigGroup;
+    private final int[]  groupStart;
+    private final int[]  groupSquares;
+
+    /** The shared table for {@code size}, built on first request. */
+    public static ClueDatabase forSize(int size) {
+        if (size < 1 || size > MAX_SIZE)
+            throw new IllegalArgumentException("ClueDatabase supports 1.." + MAX_SIZE + ", got " + size);
+        synchronized (CACHE) {
+            if (CACHE[size] == null) CACHE[size] = new ClueDatabase(size);
+            return CACHE[size];
+        }
+    }
+
+    /** True when {@link #forSize} accepts {@code size}. */
+    public static boolean supports(int size) {
+        return size >= 1 && size <= MAX_SIZE;
+    }
+
+    private ClueDatabase(int size) {
+        this.N = size;
+
+        // ── Row permutations ─────────────────────────────────────────────────
+        int count = 1;
+        for (int i = 2; i <= N; i++) count *= i;
+        perms = new int[count][];
+        int[] line = new int[N];
+        for (int i = 0; i < N; i++) line[i] = i + 1;
+        for (int p = 0; p < count; p++) {
+            perms[p] = line.clone();
+            nextPermutation(line);
+        }
+
+        // ── Enumerate Latin squares row by row ───────────────────────────────
+        List<short[]> found = new ArrayList<>();
+        enumerate(0, new short[N], new int[N], found);
+        squares = found.size();
+        words = (squares + 63) >>> 6;
+        squareRows = new short[squares * N];
+        for (int s = 0; s < squares; s++) System.arraycopy(found.get(s), 0, squareRows, s * N, N);
+
+        // ── Bitsets and signatures ───────────────────────────────────────────
+        clueBits = new long[4 * N][N + 1][words];
+        cellBits = new long[N * N][N + 1][words];
+        long[] sigs = new long[squares];
+        int[] clues = new int[4 * N];
+        for (int s = 0; s < squares; s++) {
+            cluesOf(s, clues);
+            long bit = 1L << (s & 63);
+            int w = s >>> 6;
+            for (int pos = 0; pos < 4 * N; pos++) clueBits[pos][clues[pos]][w] |= bit;
+            for (int r = 0; r < N; r++) {
+                int[] row = perms[squareRows[s * N + r]];
+                for (int c = 0; c < N; c++) cellBits[r * N + c][row[c]][w] |= bit;
+            }
+            sigs[s] = pack(clues);
+        }
+        clueCard = new int[4 * N][N + 1];
+        for (int pos = 0; pos < 4 * N; pos++)
+            for (int v = 1; v <= N; v++)
+                for (long word : clueBits[pos][v]) clueCard[pos][v] += Long.bitCount(word);
+
+        // ── Group squares by full signature ──────────────────────────────────
+        Integer[] order = new Integer[squares];
+        for (int s = 0; s < squares; s++) order[s] = s;
+        Arrays.sort(order, (a, b) -> Long.compare(sigs[a], sigs[b]));
+
+        int groups = 0;
+        for (int i = 0; i < squares; i++)
+            if (i == 0 || sigs[order[i]] != sigs[order[i - 1]]) groups++;
+
+        groupStart   = new int[groups + 1];
+        groupSquares = new int[squares];
+        int tableSize = Integer.highestOneBit(Math.max(1, groups) * 2) * 2;
+        sigTable = new long[tableSize];
+        sigGroup = new int[tableSize];
+        int g = -1;
+        for (int i = 0; i < squares; i++) {
+            int s = order[i];
+            if (i == 0 || sigs[s] != sigs[order[i - 1]]) {
+                groupStart[++g] = i;
+                insert(sigs[s], g);
+            }
+            groupSquares[i] = s;
+        }
+        groupStart[groups] = squares;
+    }
+
+    public int getSize()        { return N; }
+    public int squareCount()    { return squares; }
+    public int signatureCount() { return groupStart.length - 1; }
+
+    /** True when the clue set (0 = no clue) has exactly one solution. */
+    public boolean isUnique(int[] top, int[] right, int[] bottom, int[] left) {
+        return count(top, right, bottom, left, null, 2) == 1;
+    }
+
+    /**
+     * Counts the squares that match the clues (0 = no clue) and every filled
+     * cell of {@code grid} (0 = empty; null for an empty board), stopping at
+     * {@code limit}. A non-positive limit counts them all.
+     */
+    public int count(int[] top, int[] right, int[] bottom, int[] left, int[][] grid, int limit) {
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+        if (grid == null && isFull(top, right, bottom, left)) {
+            int g = findGroup(top, right, bottom, left);
+            return g < 0 ? 0 : Math.min(max, groupStart[g + 1] - groupStart[g]);
+        }
+        long[][] sets = constraints(top, right, bottom, left, grid);
+        if (sets == null) return 0;
+        int found = 0;
+        for (int w = 0; w < words && found < max; w++) {
+            found += Long.bitCount(and(sets, w));
+        }
+        return Math.min(found, max);
+    }
+
+    /** Up to {@code limit} solutions (all if non-positive), in table order. */
+    public List<int[][]> solutions(int[] top, int[] right, int[] bottom, int[] left, int[][] grid, int limit) {
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+        List<int[][]> out = new ArrayList<>();
+        if (grid == null && isFull(top, right, bottom, left)) {
+            int g = findGroup(top, right, bottom, left);
+            if (g < 0) return out;
+            for (int i = groupStart[g]; i < groupStart[g + 1] && out.size() < max; i++)
+                out.add(square(groupSquares[i]));
+            return out;
+        }
+        long[][] sets = constraints(top, right, bottom, left, grid);
+        if (sets == null) return out;
+        for (int w = 0; w < words && out.size() < max; w++) {
+            long m = and(sets, w);
+            while (m != 0 && out.size() < max) {
+                out.add(square((w << 6) + Long.numberOfTrailingZeros(m)));
+                m &= m - 1;
+            }
+        }
+        return out;
+    }
+
+    // ── Queries ──────────────────────────────────────────────────────────────
+
+    /**
+     * The bitsets a query must AND together, most selective first so most
+     * words drop to zero after one or two ANDs. Null if a value is out of range.
+     */
+    private long[][] constraints(int[] top, int[] right, int[] bottom, int[] left, int[][] grid) {
+        long[][] sets = new long[4 * N + N * N][];
+        int[]    card = new int[sets.length];
+        int n = 0;
+        int[][] sides = { top, right, bottom, left };
+        for (int side = 0; side < 4; side++) {
+            for (int i = 0; i < N; i++) {
+                int v = sides[side][i];
+                if (v == 0) continue;
+                if (v < 0 || v > N) return null;
+                sets[n] = clueBits[side * N + i][v];
+                card[n++] = clueCard[side * N + i][v];
+            }
+        }
+        if (grid != null) {
+            for (int r = 0; r < N; r++)
+                for (int c = 0; c < N; c++) {
+                    int v = grid[r][c];
+                    if (v == 0) continue;
+                    if (v < 0 || v > N) return null;
+                    sets[n] = cellBits[r * N + c][v];
+                    card[n++] = squares / N;   // every height fills 1/N of each cell
+                }
+        }
+        for (int i = 1; i < n; i++) {
+            long[] set = sets[i];
+            int k = card[i], j = i - 1;
+            for (; j >= 0 && card[j] > k; j--) { sets[j + 1] = sets[j]; card[j + 1] = card[j]; }
+            sets[j + 1] = set;
+            card[j + 1] = k;
+        }
+        return Arrays.copyOf(sets, n);
+    }
+
+    private long and(long[][] sets, int w) {
+        long m = w == words - 1 && (squares & 63) != 0 ? (1L << (squares & 63)) - 1 : -1L;
+        for (int i = 0; i < sets.length && m != 0; i++) m &= sets[i][w];
+        return m;
+    }
+
+    private boolean isFull(int[] top, int[] right, int[] bottom, int[] left) {
+        for (int[] side : new int[][] { top, right, bottom, left })
+            for (int v : side) if (v == 0) return false;
+        return true;
+    }
+
+    private int findGroup(int[] top, int[] right, int[] bottom, int[] left) {
+        int[] clues = new int[4 * N];
+        int i = 0;
+        for (int[] side : new int[][] { top, right, bottom, left })
+            for (int v : side) {
+                if (v < 1 || v > N) return -1;
+                clues[i++] = v;
+            }
+        long key = pack(clues);
+        int mask = sigTable.length - 1;
+        for (int h = (int) (mix(key) & mask); sigTable[h] != 0; h = (h + 1) & mask)
+            if (sigTable[h] == key) return sigGroup[h];
+        return -1;
+    }
+
+    // ── Build helpers ────────────────────────────────────────────────────────
+
+    private void enumerate(int row, short[] rows, int[] colUsed, List<short[]> out) {
+        if (row == N) {
+            out.add(rows.clone());
+            return;
+        }
+        next:
+        for (int p = 0; p < perms.length; p++) {
+            int[] line = perms[p];
+            for (int c = 0; c < N; c++)
+                if ((colUsed[c] & (1 << line[c])) != 0) continue next;
+            for (int c = 0; c < N; c++) colUsed[c] |= 1 << line[c];
+            rows[row] = (short) p;
+            enumerate(row + 1, rows, colUsed, out);
+            for (int c = 0; c < N; c++) colUsed[c] &= ~(1 << line[c]);
+        }
+    }
+
+    /** Full clue vector of square {@code s} in top, right, bottom, left order. */
+    private void cluesOf(int s, int[] clues) {
+        int[][] g = square(s);
+        int[] col = new int[N];
+        for (int i = 0; i < N; i++) {
+            for (int r = 0; r < N; r++) col[r] = g[r][i];
+            clues[i]         = visible(col, true);
+            clues[N + i]     = visible(g[i], false);
+            clues[2 * N + i] = visible(col, false);
+            clues[3 * N + i] = visible(g[i], true);
+        }
+    }
+
+    private int[][] square(int s) {
+        int[][] g = new int[N][];
+        for (int r = 0; r < N; r++) g[r] = perms[squareRows[s * N + r]].clone();
+        return g;
+    }
+
+    private void insert(long key, int group) {
+        int mask = sigTable.length - 1;
+        int h = (int) (mix(key) & mask);
+        while (sigTable[h] != 0) h = (h + 1) & mask;
+        sigTable[h] = key;
+        sigGroup[h] = group;
+    }
+
+    /** 3 bits per clue (≤ 60 bits for N ≤ 5); bit 63 keeps keys non-zero. */
+    private static long pack(int[] clues) {
+        long key = 0;
+        for (int v : clues) key = (key << 3) | v;
+        return key | Long.MIN_VALUE;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private int visible(int[] line, boolean forward) {
+        int vis = 0, maxH = 0;
+        for (int i = 0; i < N; i++) {
+            int h = line[forward ? i : N - 1 - i];
+            if (h > maxH) { maxH = h; vis++; }
+        }
+        return vis;
+    }
+
+    /** Lexicographic next permutation in place; wraps around after the last one. */
+    private static void nextPermutation(int[] a) {
+        int i = a.length - 2;
+        while (i >= 0 && a[i] >= a[i + 1]) i--;
+        if (i >= 0) {
+            int j = a.length - 1;
+            while (a[j] <= a[i]) j--;
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            int t = a[l]; a[l] = a[r]; a[r] = t;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package TowersPuzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * CpuMoveService – computes the CPU's moves on a managed pool and ponders
+ * while the human thinks.
+ *
+ * On the human's turn, {@link #ponder} snapshots the board and queues the
+ * CPU's reply to every legal human move. The most plausible moves go first:
+ * cells with the fewest legal values, as a human tends to fill forced cells.
+ * When the human's real move lands, {@link #reply} hands back that move's
+ * pondered future, often already complete. It also cancels the rest, which
+ * has not started yet.
+ *
+ * Every search runs on its own {@link GameState#copy()}, so the live state
+ * is never touched off the EDT. Call everything except the returned futures
+ * from the EDT.
+ */
+public class CpuMoveService {
+
+    /** The CPU's answer: int[]{row, col, value} (null = no legal move) and its reasoning text. */
+    public static class Reply {
+        public final int[]   move;
+        public final String  explanation;
+        public final boolean pondered;     // computed before the human moved
+        public final long    computeMicros;
+
+        Reply(int[] move, String explanation, boolean pondered, long computeMicros) {
+            this.move = move;
+            this.explanation = explanation;
+            this.pondered = pondered;
+            this.computeMicros = computeMicros;
+        }
+    }
+
+    private final int N;
+    private final ExecutorService pool;
+    private final Map<Integer, CompletableFuture<Reply>> pondering = new HashMap<>();
+    private long[] ponderedBoard;                                 // board the ponder set was queued for
+    private Function<GameState, int[]> ponderedCpu;
+
+    public CpuMoveService(int size) {
+        this.N = size;
+        AtomicInteger ids = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "cpu-move-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Queues the CPU's reply to each legal human move in {@code s}, most
+     * plausible first. {@code cpu} picks a move on the state it is given.
+     */
+    public void ponder(GameState s, Function<GameState, int[]> cpu) {
+        cancel();
+        if (s.isGameOver()) return;
+        ponderedBoard = snapshot(s);
+        ponderedCpu = cpu;
+
+        List<int[]> moves = new ArrayList<>();            // {row, col, value, options}
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++) {
+                if (s.getGrid()[r][c] != 0) continue;
+                int options = 0;
+                for (int v = 1; v <= N; v++) if (s.checkLegalMove(r, c, v)) options++;
+                for (int v = 1; v <= N; v++)
+                    if (s.checkLegalMove(r, c, v)) moves.add(new int[]{ r, c, v, options });
+            }
+        moves.sort((a, b) -> Integer.compare(a[3], b[3]));
+
+        for (int[] m : moves) {
+            GameState after = s.copy();
+            after.makeMove(m[0], m[1], m[2], true);
+            after.setHumanTurn(false);
+            pondering.put(key(m[0], m[1], m[2]),
+                    CompletableFuture.supplyAsync(() -> compute(after, cpu, true), pool));
+        }
+    }
+
+    /**
+     * The CPU's reply once the human has played {@code value} at (row, col)
+     * in {@code s}; the move is already on {@code s}'s board. Uses the
+     * pondered search when there is one for this board and strategy, and
+     * cancels all other pondering.
+     */
+    public CompletableFuture<Reply> reply(GameState s, int row, int col, int value, Function<GameState, int[]> cpu) {
+        CompletableFuture<Reply> pondered = null;
+        if (cpu == ponderedCpu && ponderedBoard != null) {
+            long[] before = snapshot(s);
+            int cell = row * N + col;
+            before[cell / 21] ^= (long) value << (3 * (cell % 21));   // take the move back off
+            if (Arrays.equals(before, ponderedBoard))
+                pondered = pondering.remove(key(row, col, value));
+        }
+        cancel();
+        if (pondered != null && !pondered.isCancelled()) return pondered;
+        return compute(s, cpu);
+    }
+
+    /** Searches {@code s} from scratch, without pondering. */
+    public CompletableFuture<Reply> compute(GameState s, Function<GameState, int[]> cpu) {
+        GameState snapshot = s.copy();
+        return CompletableFuture.supplyAsync(() -> compute(snapshot, cpu, false), pool);
+    }
+
+    /** Drops all pondered work; queued searches never start. */
+    public void cancel() {
+        for (CompletableFuture<Reply> f : pondering.values()) f.cancel(false);
+        pondering.clear();
+        ponderedBoard = null;
+        ponderedCpu = null;
+    }
+
+    /** Pondered replies still queued or running. */
+    public int pendingCount() {
+        int n = 0;
+        for (CompletableFuture<Reply> f : pondering.values()) if (!f.isDone()) n++;
+        return n;
+    }
+
+    private static Reply compute(GameState s, Function<GameState, int[]> cpu, boolean pondered) {
+        long start = System.nanoTime();
+        int[] move = cpu.apply(s);
+        return new Reply(move, s.getCpuReasoningExplanation(), pondered, (System.nanoTime() - start) / 1_000);
+    }
+
+    private int key(int row, int col, int value) {
+        return (row * N + col) * (N + 1) + value;
+    }
+
+    /** The board as 3-bit cells, 21 per long. */
+    private long[] snapshot(GameState s) {
+        long[] out = new long[(N * N + 20) / 21];
+        int[][] g = s.getGrid();
+        for (int i = 0; i < N * N; i++)
+            out[i / 21] |= (long) g[i / N][i % N] << (3 * (i % 21));
+        return out;
+    }
+}
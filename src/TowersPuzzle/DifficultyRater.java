@@ -0,0 +1,310 @@
+package TowersPuzzle;
+
+import java.util.Arrays;
+
+/**
+ * DifficultyRater – scores a clue set by how much reasoning it takes.
+ *
+ * Three stages run on bitmask domains (bit h-1 set = height h still possible):
+ * <ol>
+ *   <li>Simple rules: the edge caps each clue puts on the cells in front of
+ *       it, then naked and hidden singles to a fixpoint.</li>
+ *   <li>Line reasoning: each row and column keeps only the permutations that
+ *       fit both its clues and the current domains, interleaved with stage 1.</li>
+ *   <li>Search: MRV backtracking with full propagation at every node. The
+ *       nodes, backtracks and branching factor go through a {@link StatsTracker}.</li>
+ * </ol>
+ * The score (0–100) grows with the share of cells stage 1 and stage 2 leave
+ * open, the backtracks and the branching factor. It maps to a {@link Difficulty}.
+ *
+ * Supports 1 ≤ N ≤ 7. An instance reuses its scratch arrays and is not
+ * thread-safe – use one per worker.
+ */
+public class DifficultyRater {
+
+    public enum Difficulty {
+        EASY(0), MEDIUM(20), HARD(40), EXPERT(60);
+
+        /** Lowest score in the band; the band runs up to the next one's minimum. */
+        public final int minScore;
+
+        Difficulty(int minScore) { this.minScore = minScore; }
+
+        public static Difficulty of(double score) {
+            Difficulty d = EASY;
+            for (Difficulty b : values()) if (score >= b.minScore) d = b;
+            return d;
+        }
+    }
+
+    public static class Rating {
+        public final int        openAfterRules;  // cells stage 1 cannot fix
+        public final int        openAfterLines;  // cells stage 2 cannot fix
+        public final long       nodes, backtracks;
+        public final double     branchingFactor;
+        public final double     score;
+        public final Difficulty difficulty;
+        public final boolean    solvable;
+
+        Rating(int openAfterRules, int openAfterLines, long nodes, long backtracks,
+               double branchingFactor, double score, boolean solvable) {
+            this.openAfterRules  = openAfterRules;
+            this.openAfterLines  = openAfterLines;
+            this.nodes           = nodes;
+            this.backtracks      = backtracks;
+            this.branchingFactor = branchingFactor;
+            this.score           = score;
+            this.difficulty      = Difficulty.of(score);
+            this.solvable        = solvable;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%.1f)  open after rules=%d lines=%d  nodes=%d backtracks=%d b=%.2f",
+                    difficulty, score, openAfterRules, openAfterLines, nodes, backtracks, branchingFactor);
+        }
+    }
+
+    private final int N;
+    private final int full;              // all N height bits
+
+    // ── Line permutation tables ──────────────────────────────────────────────
+    private final int[][]   perms;       // perms[p][i] = height bit at position i
+    private final int[][][] lineCands;   // lineCands[a][b] – perms seen a from the front, b from the back (0 = any)
+
+    // ── Scratch ──────────────────────────────────────────────────────────────
+    private final int[][] domains;       // domains[depth][r*N + c]
+    private final int[]   lineUnion;
+    private final StatsTracker stats = new StatsTracker();
+
+    private int[] top, right, bottom, left;
+
+    public DifficultyRater(int size) {
+        if (size < 1 || size > 7)
+            throw new IllegalArgumentException("DifficultyRater supports 1..7, got " + size);
+        this.N = size;
+        this.full = (1 << N) - 1;
+
+        int count = 1;
+        for (int i = 2; i <= N; i++) count *= i;
+        perms = new int[count][];
+        int[] line = new int[N];
+        for (int i = 0; i < N; i++) line[i] = i + 1;
+        int[][] counts = new int[N + 1][N + 1];
+        int[] front = new int[count], back = new int[count];
+        for (int p = 0; p < count; p++) {
+            perms[p] = new int[N];
+            for (int i = 0; i < N; i++) perms[p][i] = 1 << (line[i] - 1);
+            front[p] = visible(line, true);
+            back[p]  = visible(line, false);
+            for (int a : new int[] { 0, front[p] })
+                for (int b : new int[] { 0, back[p] }) counts[a][b]++;
+            nextPermutation(line);
+        }
+        lineCands = new int[N + 1][N + 1][];
+        for (int a = 0; a <= N; a++)
+            for (int b = 0; b <= N; b++) lineCands[a][b] = new int[counts[a][b]];
+        int[][] fill = new int[N + 1][N + 1];
+        for (int p = 0; p < count; p++)
+            for (int a : new int[] { 0, front[p] })
+                for (int b : new int[] { 0, back[p] }) lineCands[a][b][fill[a][b]++] = p;
+
+        domains   = new int[N * N + 1][N * N];
+        lineUnion = new int[N];
+    }
+
+    public int getSize() { return N; }
+
+    public Rating rate(PuzzleGenerator.PuzzleData p) {
+        return rate(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+    }
+
+    /** Rates a clue set (0 = no clue). Unsolvable sets come back unsolvable with score 100. */
+    public Rating rate(int[] top, int[] right, int[] bottom, int[] left) {
+        this.top = top; this.right = right; this.bottom = bottom; this.left = left;
+        stats.reset();
+
+        int[] d = domains[0];
+        Arrays.fill(d, full);
+        applyEdgeCaps(d);
+
+        boolean ok = propagate(d, false);
+        int openRules = ok ? open(d) : N * N;
+        ok = ok && propagate(d, true);
+        int openLines = ok ? open(d) : N * N;
+        boolean solved = ok && search(0);
+
+        double cells = N * N;
+        double score = 30 * openRules / cells
+                     + 30 * openLines / cells
+                     + 10 * log2(1 + stats.getBacktrackCount())
+                     + 10 * Math.max(0, stats.estimatedBranchingFactor() - 1);
+        if (!solved) score = 100;
+        return new Rating(openRules, openLines, stats.getNodesExplored(), stats.getBacktrackCount(),
+                stats.estimatedBranchingFactor(), Math.min(100, score), solved);
+    }
+
+    // ── Stage 3: search ──────────────────────────────────────────────────────
+
+    private boolean search(int depth) {
+        int[] d = domains[depth];
+        int cell = -1, best = N + 1;
+        for (int i = 0; i < N * N; i++) {
+            int k = Integer.bitCount(d[i]);
+            if (k > 1 && k < best) { best = k; cell = i; }
+        }
+        if (cell < 0) {
+            stats.solutionFound();
+            return true;
+        }
+        stats.enterDepth(depth);
+
+        int[] next = domains[depth + 1];
+        for (int m = d[cell]; m != 0; m &= m - 1) {
+            stats.nodeExplored(depth);
+            stats.assignment();
+            System.arraycopy(d, 0, next, 0, N * N);
+            next[cell] = m & -m;
+            if (propagate(next, true) && search(depth + 1)) return true;
+            stats.branchPruned(depth);
+        }
+        stats.backtrack();
+        return false;
+    }
+
+    // ── Stages 1 and 2: propagation ──────────────────────────────────────────
+
+    /** Runs to a fixpoint; false on an empty domain or a line with no fitting permutation. */
+    private boolean propagate(int[] d, boolean lines) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int line = 0; line < 2 * N; line++) {
+                int r = singles(d, line);
+                if (r < 0) return false;
+                if (r > 0) changed = true;
+            }
+            if (lines && !changed) {
+                for (int line = 0; line < 2 * N; line++) {
+                    int r = filterLine(d, line);
+                    if (r < 0) return false;
+                    if (r > 0) changed = true;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Naked and hidden singles in one row (line < N) or column; -1 on contradiction, 1 if changed. */
+    private int singles(int[] d, int line) {
+        int changed = 0;
+        int seenOnce = 0, seenTwice = 0, fixed = 0;
+        for (int i = 0; i < N; i++) {
+            int v = d[cellOf(line, i)];
+            if (v == 0) return -1;
+            seenTwice |= seenOnce & v;
+            seenOnce  |= v;
+            if ((v & (v - 1)) == 0) {
+                if ((fixed & v) != 0) return -1;
+                fixed |= v;
+            }
+        }
+        if (seenOnce != full) return -1;
+        int hidden = seenOnce & ~seenTwice & ~fixed;
+        for (int i = 0; i < N; i++) {
+            int idx = cellOf(line, i);
+            int v = d[idx];
+            if ((v & (v - 1)) == 0) continue;
+            int nv = v & ~fixed;
+            int h = nv & hidden;
+            if (h != 0) {
+                if ((h & (h - 1)) != 0) return -1;   // two values only fit here
+                nv = h;
+            }
+            if (nv == 0) return -1;
+            if (nv != v) { d[idx] = nv; changed = 1; }
+        }
+        return changed;
+    }
+
+    /** Keeps the permutations that fit the line's clues and domains; -1 if none do, 1 if changed. */
+    private int filterLine(int[] d, int line) {
+        int front, back;
+        if (line < N) { front = left[line];     back = right[line]; }
+        else          { front = top[line - N];  back = bottom[line - N]; }
+        Arrays.fill(lineUnion, 0);
+        boolean any = false;
+        next:
+        for (int p : lineCands[front][back]) {
+            int[] perm = perms[p];
+            for (int i = 0; i < N; i++)
+                if ((d[cellOf(line, i)] & perm[i]) == 0) continue next;
+            for (int i = 0; i < N; i++) lineUnion[i] |= perm[i];
+            any = true;
+        }
+        if (!any) return -1;
+        int changed = 0;
+        for (int i = 0; i < N; i++) {
+            int idx = cellOf(line, i);
+            if (d[idx] != lineUnion[i]) { d[idx] = lineUnion[i]; changed = 1; }
+        }
+        return changed;
+    }
+
+    /** A clue k caps the cell {@code dist} steps from its edge at N - k + 1 + dist; a 1 forces N. */
+    private void applyEdgeCaps(int[] d) {
+        for (int i = 0; i < N; i++) {
+            for (int dist = 0; dist < N; dist++) {
+                d[dist * N + i]           &= cap(top[i], dist);
+                d[(N - 1 - dist) * N + i] &= cap(bottom[i], dist);
+                d[i * N + dist]           &= cap(left[i], dist);
+                d[i * N + (N - 1 - dist)] &= cap(right[i], dist);
+            }
+        }
+    }
+
+    private int cap(int clue, int dist) {
+        if (clue == 0) return full;
+        if (clue == 1 && dist == 0) return 1 << (N - 1);
+        int max = Math.min(N, N - clue + 1 + dist);
+        return (1 << max) - 1;
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    /** Cell index of position i along a row (line < N) or column, front to back. */
+    private int cellOf(int line, int i) {
+        return line < N ? line * N + i : i * N + (line - N);
+    }
+
+    private int open(int[] d) {
+        int n = 0;
+        for (int v : d) if ((v & (v - 1)) != 0) n++;
+        return n;
+    }
+
+    private static double log2(double x) { return Math.log(x) / Math.log(2); }
+
+    private int visible(int[] line, boolean forward) {
+        int vis = 0, maxH = 0;
+        for (int i = 0; i < N; i++) {
+            int h = line[forward ? i : N - 1 - i];
+            if (h > maxH) { maxH = h; vis++; }
+        }
+        return vis;
+    }
+
+    /** Lexicographic next permutation in place; wraps around after the last one. */
+    private static void nextPermutation(int[] a) {
+        int i = a.length - 2;
+        while (i >= 0 && a[i] >= a[i + 1]) i--;
+        if (i >= 0) {
+            int j = a.length - 1;
+            while (a[j] <= a[i]) j--;
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            int t = a[l]; a[l] = a[r]; a[r] = t;
+        }
+    }
+}
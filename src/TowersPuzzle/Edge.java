@@ -1,3 +1,4 @@
+package TowersPuzzle;
 
 public class Edge {
     Vertex origin, dest;
@@ -0,0 +1,125 @@
+package TowersPuzzle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EventLog – the visualizer's event history: a fixed-capacity ring of packed
+ * {@code long} records, plus one index per event kind so a filtered view can
+ * find its i-th row in O(1).
+ *
+ * A record holds the kind (3 bits), the depth (5 bits) and a 32-bit payload.
+ * For solver events the payload is an id into a table of distinct message
+ * texts. The solver repeats a small set of messages, so the table stays
+ * small while the ring holds millions of rows. For {@link #DROPPED} rows the
+ * payload is the count. When the ring is full, the oldest row is evicted
+ * from the ring and from its kind's index.
+ *
+ * Not thread-safe; the visualizer only touches it on the EDT.
+ */
+final class EventLog {
+
+    /** Kind of a row standing in for events the solver published but the UI never saw. */
+    static final int DROPPED = 7;
+    static final int KINDS   = 8;
+
+    private final int    mask;
+    private final long[] records;
+    private long         next;                      // sequence of the next record
+
+    private final SeqRing[] byKind = new SeqRing[KINDS];
+
+    private final Map<String, Integer> ids   = new HashMap<>();
+    private final List<String>         texts = new ArrayList<>();
+
+    /** {@code capacity} is rounded up to a power of two. */
+    EventLog(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mask    = size - 1;
+        records = new long[size];
+        for (int k = 0; k < KINDS; k++) byKind[k] = new SeqRing();
+    }
+
+    // ── writing ──────────────────────────────────────────────────────────────
+
+    void add(int kind, int depth, String message) {
+        Integer id = ids.get(message);
+        if (id == null) {
+            id = texts.size();
+            ids.put(message, id);
+            texts.add(message);
+        }
+        append(kind, depth, id);
+    }
+
+    void addDropped(long count, int depth) {
+        append(DROPPED, depth, Math.min(count, 0xFFFF_FFFFL));
+    }
+
+    void clear() {
+        next = 0;
+        for (SeqRing r : byKind) r.clear();
+        ids.clear();
+        texts.clear();
+    }
+
+    private void append(int kind, int depth, long payload) {
+        if (next > mask) byKind[kind(next - records.length)].removeFirst();   // evict the oldest
+        records[(int) next & mask] = kind | (long) Math.min(depth, 31) << 3 | payload << 8;
+        byKind[kind].add(next);
+        next++;
+    }
+
+    // ── reading ──────────────────────────────────────────────────────────────
+
+    /** Rows held, of one kind or of all ({@code kind < 0}). */
+    int size(int kind) {
+        return kind < 0 ? (int) Math.min(next, records.length) : byKind[kind].size();
+    }
+
+    /** Sequence of the {@code index}-th oldest row held, of one kind or of all. */
+    long seq(int kind, int index) {
+        return kind < 0 ? Math.max(0, next - records.length) + index : byKind[kind].get(index);
+    }
+
+    /** Rows ever added, evicted ones included. */
+    long total() { return next; }
+
+    int kind(long seq)  { return (int) (records[(int) seq & mask] & 7); }
+    int depth(long seq) { return (int) (records[(int) seq & mask] >>> 3 & 31); }
+
+    /** Message text, or the dropped count for a {@link #DROPPED} row. */
+    String text(long seq) {
+        long payload = records[(int) seq & mask] >>> 8;
+        return kind(seq) == DROPPED ? payload + " events dropped" : texts.get((int) payload);
+    }
+
+    // ── per-kind index ───────────────────────────────────────────────────────
+
+    /** Growable ring of sequence numbers, oldest first. */
+    private static final class SeqRing {
+        private long[] buf = new long[64];
+        private int    head, size;
+
+        void add(long seq) {
+            if (size == buf.length) {
+                long[] grown = new long[buf.length * 2];
+                for (int i = 0; i < size; i++) grown[i] = buf[(head + i) & (buf.length - 1)];
+                buf = grown;
+                head = 0;
+            }
+            buf[(head + size++) & (buf.length - 1)] = seq;
+        }
+
+        void removeFirst() { head = (head + 1) & (buf.length - 1); size--; }
+
+        long get(int i) { return buf[(head + i) & (buf.length - 1)]; }
+
+        int size() { return size; }
+
+        void clear() { head = size = 0; }
+    }
+}
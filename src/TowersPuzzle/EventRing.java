@@ -0,0 +1,106 @@
+package TowersPuzzle;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EventRing – lock-free single-producer / single-consumer queue of solver
+ * events, kept in parallel primitive arrays.
+ *
+ * The solver thread {@link #offer}s; the UI thread reads the published
+ * range by sequence number, then {@link #release}s it. Each event is packed
+ * into primitive slots: its coordinates, its stats and its board (4 bits per
+ * cell). Publishing one allocates nothing beyond its message string. When
+ * the consumer falls a full ring behind, new events are counted as
+ * {@link #takeDropped() dropped} instead of blocking the solver.
+ */
+final class EventRing {
+
+    private final int      mask;
+    private final long[]   meta;       // type | row+1 | col+1 | value | depth
+    private final long[]   grids;      // board, 4 bits per cell, row-major
+    private final long[]   nodes;
+    private final long[]   pruned;
+    private final String[] messages;
+
+    private final AtomicLong head    = new AtomicLong();   // next sequence to write
+    private final AtomicLong tail    = new AtomicLong();   // next sequence to read
+    private final AtomicLong dropped = new AtomicLong();
+    private long tailCache;                                 // producer's last view of tail
+
+    /** {@code capacity} is rounded up to a power of two. */
+    EventRing(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mask     = size - 1;
+        meta     = new long[size];
+        grids    = new long[size];
+        nodes    = new long[size];
+        pruned   = new long[size];
+        messages = new String[size];
+    }
+
+    // ── producer ─────────────────────────────────────────────────────────────
+
+    /** Publishes one event; false if the ring was full and it was dropped. */
+    boolean offer(int type, int row, int col, int value, int depth,
+                  long nodeCount, long prunedCount, long grid, String message) {
+        long h = head.get();
+        if (h - tailCache > mask) {
+            tailCache = tail.get();
+            if (h - tailCache > mask) { dropped.incrementAndGet(); return false; }
+        }
+        int i = (int) h & mask;
+        meta[i] = type | (row + 1L) << 3 | (col + 1L) << 8 | (long) value << 13 | (long) depth << 18;
+        grids[i]    = grid;
+        nodes[i]    = nodeCount;
+        pruned[i]   = prunedCount;
+        messages[i] = message;
+        head.lazySet(h + 1);                    // ordered after the slot writes
+        return true;
+    }
+
+    // ── consumer ─────────────────────────────────────────────────────────────
+
+    /** First unread sequence. */
+    long readFrom() { return tail.get(); }
+
+    /** One past the last published sequence. */
+    long readTo() { return head.get(); }
+
+    /** Hands sequences below {@code upTo} back to the producer. */
+    void release(long upTo) {
+        for (long s = tail.get(); s < upTo; s++) messages[(int) s & mask] = null;
+        tail.lazySet(upTo);
+    }
+
+    /** Events dropped since the last call. */
+    long takeDropped() { return dropped.getAndSet(0); }
+
+    int    type(long seq)    { return (int) (meta[(int) seq & mask] & 7); }
+    int    row(long seq)     { return (int) (meta[(int) seq & mask] >>> 3 & 31) - 1; }
+    int    col(long seq)     { return (int) (meta[(int) seq & mask] >>> 8 & 31) - 1; }
+    int    value(long seq)   { return (int) (meta[(int) seq & mask] >>> 13 & 31); }
+    int    depth(long seq)   { return (int) (meta[(int) seq & mask] >>> 18 & 255); }
+    long   grid(long seq)    { return grids[(int) seq & mask]; }
+    long   nodes(long seq)   { return nodes[(int) seq & mask]; }
+    long   pruned(long seq)  { return pruned[(int) seq & mask]; }
+    String message(long seq) { return messages[(int) seq & mask]; }
+
+    // ── board packing ────────────────────────────────────────────────────────
+
+    /** Packs an n×n board (n ≤ 4, values ≤ 15) into one long. */
+    static long packGrid(int[][] g) {
+        long out = 0;
+        int n = g.length;
+        for (int r = 0; r < n; r++)
+            for (int c = 0; c < n; c++)
+                out |= (long) g[r][c] << (4 * (r * n + c));
+        return out;
+    }
+
+    static int[][] unpackGrid(long packed, int n) {
+        int[][] g = new int[n][n];
+        for (int i = 0; i < n * n; i++) g[i / n][i % n] = (int) (packed >>> (4 * i) & 15);
+        return g;
+    }
+}
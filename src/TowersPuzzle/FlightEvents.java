@@ -0,0 +1,135 @@
+package TowersPuzzle;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.Supplier;
+
+/**
+ * FlightEvents – custom JDK Flight Recorder events for the CPU strategies,
+ * the backtracking solver and the game rules.
+ *
+ * <ul>
+ *   <li>{@code towers.MoveSearch} – one {@code findBestMove()}: strategy,
+ *       duration, nodes, pruned branches, memo hits and the move chosen;</li>
+ *   <li>{@code towers.CellBatch} – one heat-map pass of {@code evaluateCell};</li>
+ *   <li>{@code towers.SolvePhase} – one phase of a {@link SolverEngine} run;</li>
+ *   <li>{@code towers.MakeMove} – one {@code GameState.makeMove}.</li>
+ * </ul>
+ * All are disabled by default. A disabled event costs an
+ * {@link Event#isEnabled()} check on an object the JIT never allocates, so
+ * the call sites stay in place in normal play. Turn them on per recording,
+ * e.g. {@code -XX:StartFlightRecording:+towers.MoveSearch#enabled=true},
+ * a {@code .jfc} file made with {@code jfr configure}, or
+ * {@code Recording.enable("towers.MoveSearch")} from code.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() { }
+
+    @Name("towers.MoveSearch")
+    @Category({ "Towers", "CPU" })
+    @Label("Move Search")
+    @Description("One findBestMove() of a CPU strategy")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class MoveSearch extends Event {
+        @Label("Strategy")       public String strategy;
+        @Label("Nodes Explored") public long   nodes;
+        @Label("Pruned")         public long   pruned;
+        @Label("Memo Hits")      public long   memoHits;
+        @Label("Row")            public int    row = -1;
+        @Label("Column")         public int    col = -1;
+        @Label("Value")          public int    value;
+    }
+
+    @Name("towers.CellBatch")
+    @Category({ "Towers", "CPU" })
+    @Label("Heat-Map Batch")
+    @Description("One pass of evaluateCell over the empty cells")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class CellBatch extends Event {
+        @Label("Strategy") public String strategy;
+        @Label("Cells")    public int    cells;
+    }
+
+    @Name("towers.SolvePhase")
+    @Category({ "Towers", "Solver" })
+    @Label("Solve Phase")
+    @Description("One phase of a SolverEngine run: init, search or lookup")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class SolvePhase extends Event {
+        @Label("Phase")          public String phase;
+        @Label("Nodes Explored") public long   nodes;
+        @Label("Pruned")         public long   pruned;
+        @Label("Backtracks")     public long   backtracks;
+        @Label("Solutions")      public long   solutions;
+    }
+
+    @Name("towers.MakeMove")
+    @Category({ "Towers", "Game" })
+    @Label("Make Move")
+    @Description("One GameState.makeMove, accepted or rejected")
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class MakeMove extends Event {
+        @Label("Row")         public int     row;
+        @Label("Column")      public int     col;
+        @Label("Value")       public int     value;
+        @Label("Human")       public boolean human;
+        @Label("Placed")      public boolean placed;
+        @Label("Score Delta") public int     scoreDelta;
+        @Label("Lives Delta") public int     livesDelta;
+    }
+
+    // ── helpers ──────────────────────────────────────────────────────────────
+
+    /**
+     * Runs {@code search} (a strategy's {@code findBestMove}) inside a
+     * {@link MoveSearch} event, reading {@code counters} (null for a
+     * strategy that keeps none) once it returns. The search's latency also
+     * goes to the strategy's {@link Metrics}, which are always on.
+     */
+    public static int[] searchMove(String strategy, SearchCounters counters, Supplier<int[]> search) {
+        MoveSearch e = new MoveSearch();
+        long start = System.nanoTime();
+        e.begin();
+        int[] move = search.get();
+        e.end();
+        Metrics.strategy(strategy).moveSearched(System.nanoTime() - start, counters);
+        if (e.shouldCommit()) {
+            e.strategy = strategy;
+            if (counters != null) {
+                e.nodes    = counters.nodesSearched();
+                e.pruned   = counters.branchesPruned();
+                e.memoHits = counters.memoHits();
+            }
+            if (move != null) {
+                e.row   = move[0];
+                e.col   = move[1];
+                e.value = move[2];
+            }
+            e.commit();
+        }
+        return move;
+    }
+
+    /** Commits a {@link SolvePhase} begun by the caller, with the stats so far. */
+    static void endPhase(SolvePhase e, String phase, StatsTracker stats) {
+        e.end();
+        if (!e.shouldCommit()) return;
+        e.phase      = phase;
+        e.nodes      = stats.getNodesExplored();
+        e.pruned     = stats.getBranchesPruned();
+        e.backtracks = stats.getBacktrackCount();
+        e.solutions  = stats.getSolutionsFound();
+        e.commit();
+    }
+}
@@ -1,3 +1,4 @@
+package TowersPuzzle;
 
 public class GameState {
     private static final int SIZE = 4; // Fixed 4x4
@@ -23,7 +24,40 @@ public class GameState {
         System.arraycopy(left, 0, this.leftClues, 0, SIZE);
     }
 
+    /** Independent copy – board, scores, lives, turn and clues – for searching on another thread. */
+    public GameState copy() {
+        GameState s = new GameState(topClues, rightClues, bottomClues, leftClues);
+        for (int r = 0; r < SIZE; r++) System.arraycopy(grid[r], 0, s.grid[r], 0, SIZE);
+        s.humanScore = humanScore;
+        s.cpuScore = cpuScore;
+        s.humanLives = humanLives;
+        s.cpuLives = cpuLives;
+        s.isHumanTurn = isHumanTurn;
+        return s;
+    }
+
     public boolean makeMove(int row, int col, int value, boolean isHuman) {
+        FlightEvents.MakeMove e = new FlightEvents.MakeMove();
+        if (!e.isEnabled()) return applyMove(row, col, value, isHuman);
+        int score = isHuman ? humanScore : cpuScore;
+        int lives = isHuman ? humanLives : cpuLives;
+        e.begin();
+        boolean placed = applyMove(row, col, value, isHuman);
+        e.end();
+        if (e.shouldCommit()) {
+            e.row        = row;
+            e.col        = col;
+            e.value      = value;
+            e.human      = isHuman;
+            e.placed     = placed;
+            e.scoreDelta = (isHuman ? humanScore : cpuScore) - score;
+            e.livesDelta = (isHuman ? humanLives : cpuLives) - lives;
+            e.commit();
+        }
+        return placed;
+    }
+
+    private boolean applyMove(int row, int col, int value, boolean isHuman) {
         if (grid[row][col] != 0) {
             statusMessage = "❌ Cell already filled!";
             return false;
@@ -99,7 +133,9 @@ public class GameState {
     public boolean validateRowVisibility(int row) {
         int leftCount = countVisible(grid[row], true);
         int rightCount = countVisible(grid[row], false);
-        return leftCount == leftClues[row] && rightCount == rightClues[row];
+        // A clue of 0 means the puzzle gives no clue on that side
+        return (leftClues[row] == 0 || leftCount == leftClues[row])
+                && (rightClues[row] == 0 || rightCount == rightClues[row]);
     }
 
     public boolean validateColumnVisibility(int col) {
@@ -108,7 +144,8 @@ public class GameState {
             colVals[r] = grid[r][col];
         int topCount = countVisible(colVals, true);
         int bottomCount = countVisible(colVals, false);
-        return topCount == topClues[col] && bottomCount == bottomClues[col];
+        return (topClues[col] == 0 || topCount == topClues[col])
+                && (bottomClues[col] == 0 || bottomCount == bottomClues[col]);
     }
 
     private int countVisible(int[] buildings, boolean forward) {
@@ -0,0 +1,89 @@
+package TowersPuzzle;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram – lock-free, allocation-free histogram of durations in
+ * nanoseconds, for metrics that stay on in production.
+ *
+ * Buckets are log-linear: each power of two is split into
+ * 2^{@value #SUB_BITS} equal buckets, so a percentile is off by at most
+ * 1/2^{@value #SUB_BITS} (about 6%) of its value, from 1 ns up to
+ * 2^{@value #MAX_BITS} ns (about 18 minutes; longer spans land in the last
+ * bucket). {@link #record} is one bucket increment, one adder and a
+ * compare-and-set only when a new maximum arrives. Reads walk the buckets
+ * while writers keep recording, so a percentile may miss samples that land
+ * during the walk.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BITS = 4;
+    static final int MAX_BITS = 40;
+    private static final int SUB     = 1 << SUB_BITS;
+    private static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder       total  = new LongAdder();
+    private final AtomicLong      max    = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucket(nanos));
+        total.add(nanos);
+        long m = max.get();
+        while (nanos > m && !max.compareAndSet(m, nanos)) m = max.get();
+    }
+
+    /** Samples recorded. */
+    public long count() {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        return n;
+    }
+
+    public long maxNanos() { return max.get(); }
+
+    public double meanNanos() {
+        long n = count();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /** The {@code p}-th percentile (0..100) in nanoseconds: the upper edge of its bucket. */
+    public long percentileNanos(double p) {
+        long[] snap = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += snap[i] = counts.get(i);
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * n)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snap[i];
+            if (seen >= rank) return Math.min(upperEdge(i), max.get());
+        }
+        return max.get();
+    }
+
+    /** Drops every sample; not atomic against concurrent {@link #record}s. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.reset();
+        max.set(0);
+    }
+
+    // ── bucket math ──────────────────────────────────────────────────────────
+
+    static int bucket(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);              // v in [2^exp, 2^(exp+1))
+        if (exp >= MAX_BITS) return BUCKETS - 1;
+        return (exp - SUB_BITS + 1) * SUB + (int) (v >>> (exp - SUB_BITS) & (SUB - 1));
+    }
+
+    /** Largest value that falls in bucket {@code i}. */
+    static long upperEdge(int i) {
+        if (i < SUB) return i;
+        int exp = i / SUB + SUB_BITS - 1, sub = i % SUB;
+        return ((long) (SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,168 @@
+package TowersPuzzle;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics – live operational metrics for long sessions, published as JMX
+ * MBeans so JConsole, VisualVM or any JMX client can watch them.
+ *
+ * <ul>
+ *   <li>{@code TowersPuzzle:type=Strategy,name=<strategy>} – latency
+ *       percentiles of {@code findBestMove} and {@code evaluateCell}, moves
+ *       made, nodes searched and the memo table size after the last move;</li>
+ *   <li>{@code TowersPuzzle:type=Solver} – {@link SolverEngine} runs, their
+ *       latency and the node rate.</li>
+ * </ul>
+ * Recording is lock-free and allocates nothing once a strategy's entry
+ * exists: a {@link LatencyHistogram} bucket, a few {@link LongAdder}s and a
+ * volatile write. Percentiles are worked out only when a client reads them.
+ * Everything counts from startup or the last {@code reset()}.
+ */
+public final class Metrics {
+
+    public static final String DOMAIN = "TowersPuzzle";
+
+    private static final ConcurrentHashMap<String, Strategy> STRATEGIES = new ConcurrentHashMap<>();
+    private static final Solver SOLVER = register(new Solver(), SolverMXBean.class, DOMAIN + ":type=Solver");
+
+    private Metrics() { }
+
+    /** The named strategy's metrics, registered with JMX on first use. */
+    public static Strategy strategy(String name) {
+        Strategy s = STRATEGIES.get(name);
+        return s != null ? s : STRATEGIES.computeIfAbsent(name, n ->
+                register(new Strategy(n), StrategyMXBean.class,
+                         DOMAIN + ":type=Strategy,name=" + ObjectName.quote(n)));
+    }
+
+    public static Solver solver() { return SOLVER; }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  MBEAN INTERFACES
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Latencies are in microseconds. */
+    public interface StrategyMXBean {
+        String getName();
+        long   getMoves();
+        long   getFindBestMoveP50Micros();
+        long   getFindBestMoveP99Micros();
+        long   getFindBestMoveMaxMicros();
+        long   getCellsEvaluated();
+        long   getEvaluateCellP50Micros();
+        long   getEvaluateCellP99Micros();
+        long   getEvaluateCellMaxMicros();
+        long   getNodesSearched();
+        long   getMemoEntries();
+        void   reset();
+    }
+
+    /** Latencies are in microseconds. */
+    public interface SolverMXBean {
+        long   getSolves();
+        long   getNodes();
+        double getNodesPerSecond();
+        long   getSolveP50Micros();
+        long   getSolveP99Micros();
+        long   getSolveMaxMicros();
+        void   reset();
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  RECORDERS
+    // ════════════════════════════════════════════════════════════════════════
+
+    public static final class Strategy implements StrategyMXBean {
+        private final String           name;
+        private final LatencyHistogram moves = new LatencyHistogram();
+        private final LatencyHistogram cells = new LatencyHistogram();
+        private final LongAdder        nodes = new LongAdder();
+        private volatile long          memoEntries;
+
+        Strategy(String name) { this.name = name; }
+
+        /** One {@code findBestMove} that took {@code nanos}; {@code counters} may be null. */
+        public void moveSearched(long nanos, SearchCounters counters) {
+            moves.record(nanos);
+            if (counters != null) {
+                nodes.add(counters.nodesSearched());
+                memoEntries = counters.memoEntries();
+            }
+        }
+
+        /** One {@code evaluateCell} that took {@code nanos}. */
+        public void cellEvaluated(long nanos) { cells.record(nanos); }
+
+        @Override public String getName()                 { return name; }
+        @Override public long getMoves()                  { return moves.count(); }
+        @Override public long getFindBestMoveP50Micros()  { return moves.percentileNanos(50) / 1_000; }
+        @Override public long getFindBestMoveP99Micros()  { return moves.percentileNanos(99) / 1_000; }
+        @Override public long getFindBestMoveMaxMicros()  { return moves.maxNanos() / 1_000; }
+        @Override public long getCellsEvaluated()         { return cells.count(); }
+        @Override public long getEvaluateCellP50Micros()  { return cells.percentileNanos(50) / 1_000; }
+        @Override public long getEvaluateCellP99Micros()  { return cells.percentileNanos(99) / 1_000; }
+        @Override public long getEvaluateCellMaxMicros()  { return cells.maxNanos() / 1_000; }
+        @Override public long getNodesSearched()          { return nodes.sum(); }
+        @Override public long getMemoEntries()            { return memoEntries; }
+
+        @Override
+        public void reset() {
+            moves.reset();
+            cells.reset();
+            nodes.reset();
+        }
+    }
+
+    public static final class Solver implements SolverMXBean {
+        private final LatencyHistogram solves    = new LatencyHistogram();
+        private final LongAdder        nodes     = new LongAdder();
+        private final LongAdder        busyNanos = new LongAdder();
+
+        /** One {@link SolverEngine} run that explored {@code nodeCount} nodes in {@code nanos}. */
+        public void solved(long nanos, long nodeCount) {
+            solves.record(nanos);
+            nodes.add(nodeCount);
+            busyNanos.add(nanos);
+        }
+
+        @Override public long getSolves()         { return solves.count(); }
+        @Override public long getNodes()          { return nodes.sum(); }
+        @Override public long getSolveP50Micros() { return solves.percentileNanos(50) / 1_000; }
+        @Override public long getSolveP99Micros() { return solves.percentileNanos(99) / 1_000; }
+        @Override public long getSolveMaxMicros() { return solves.maxNanos() / 1_000; }
+
+        /** Nodes per second a solver thread explores while it runs. */
+        @Override
+        public double getNodesPerSecond() {
+            long busy = busyNanos.sum();
+            return busy == 0 ? 0 : nodes.sum() * 1e9 / busy;
+        }
+
+        @Override
+        public void reset() {
+            solves.reset();
+            nodes.reset();
+            busyNanos.reset();
+        }
+    }
+
+    // ── JMX ──────────────────────────────────────────────────────────────────
+
+    /** Registers {@code bean}; metrics still record if JMX is unavailable. */
+    private static <I, T extends I> T register(T bean, Class<I> mxbean, String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName id = new ObjectName(name);
+            if (!server.isRegistered(id)) server.registerMBean(new StandardMBean(bean, mxbean, true), id);
+        } catch (JMException | SecurityException e) {
+            System.err.println("Metrics: could not register " + name + ": " + e.getMessage());
+        }
+        return bean;
+    }
+}
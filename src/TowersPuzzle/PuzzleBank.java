@@ -0,0 +1,209 @@
+package TowersPuzzle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * PuzzleBank – memory-mapped, read-only puzzle bank.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   header (32 bytes)
+ *     0  int   magic 'TWRB'
+ *     4  short version (1)
+ *     6  byte  N
+ *     7  byte  longs per record
+ *     8  long  record count
+ *    16  16 bytes reserved (0)
+ *   records, fixed width, back to back
+ *     clue words     – 4N clues (top, right, bottom, left), {@link #clueBits} each, 0 = no clue
+ *     solution words – N² cells row-major, height-1 in {@link #cellBits} each
+ * </pre>
+ * A 4×4 record is two longs: 48 clue bits and 32 solution bits.
+ *
+ * Fetching puzzle i is one offset computation and a few {@code getLong}s on
+ * the mapping – nothing is parsed or loaded up front. Files past 2 GB are
+ * mapped in segments that never split a record.
+ */
+public class PuzzleBank implements Closeable {
+
+    public static final int  MAGIC        = 0x54575242;   // "TWRB"
+    public static final int  VERSION      = 1;
+    public static final int  HEADER_BYTES = 32;
+    public static final int  MAX_SIZE     = 7;
+
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel       channel;
+    private final MappedByteBuffer[] segments;
+    private final int  N;
+    private final int  recordLongs, recordBytes;
+    private final int  recordsPerSegment;
+    private final long count;
+
+    public PuzzleBank(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.BIG_ENDIAN);
+            if (header.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a puzzle bank (bad magic)");
+            if (header.getShort(4) != VERSION)
+                throw new IOException(file + ": unsupported bank version " + header.getShort(4));
+            N           = header.get(6);
+            recordLongs = header.get(7);
+            count       = header.getLong(8);
+            if (N < 1 || N > MAX_SIZE || recordLongs != recordLongs(N))
+                throw new IOException(file + ": corrupt header (N=" + N + ", longs=" + recordLongs + ")");
+
+            recordBytes = recordLongs * Long.BYTES;
+            long dataBytes = count * recordBytes;
+            if (channel.size() < HEADER_BYTES + dataBytes)
+                throw new IOException(file + ": truncated, header says " + count + " records");
+
+            recordsPerSegment = (int) (SEGMENT_BYTES / recordBytes);
+            long segBytes = (long) recordsPerSegment * recordBytes;
+            int n = (int) ((dataBytes + segBytes - 1) / segBytes);
+            segments = new MappedByteBuffer[n];
+            for (int s = 0; s < n; s++) {
+                long pos = HEADER_BYTES + s * segBytes;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+                        Math.min(segBytes, HEADER_BYTES + dataBytes - pos));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int  getSize()  { return N; }
+    public long count()    { return count; }
+
+    /** Raw word {@code w} of record {@code index} – clue words first, then solution words. */
+    public long word(long index, int w) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("puzzle " + index + " of " + count);
+        MappedByteBuffer seg = segments[(int) (index / recordsPerSegment)];
+        return seg.getLong((int) (index % recordsPerSegment) * recordBytes + w * Long.BYTES);
+    }
+
+    /**
+     * The 4N clues of record {@code index} (top, right, bottom, left; 0 = no
+     * clue) into {@code out}, without decoding the solution or allocating.
+     */
+    public void clues(long index, int[] out) {
+        int cb = clueBits(N);
+        for (int i = 0; i < 4 * N; i++) {
+            int bit = i * cb, w = bit >>> 6, off = bit & 63;
+            long v = word(index, w) >>> off;
+            if (off + cb > 64) v |= word(index, w + 1) << (64 - off);
+            out[i] = (int) (v & ((1L << cb) - 1));
+        }
+    }
+
+    public PuzzleGenerator.PuzzleData get(long index) {
+        long[] rec = new long[recordLongs];
+        for (int w = 0; w < recordLongs; w++) rec[w] = word(index, w);
+        return decode(N, rec);
+    }
+
+    public PuzzleGenerator.PuzzleData random() {
+        return get(ThreadLocalRandom.current().nextLong(count));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ── Bank used by the GUIs' "New Game" ────────────────────────────────────
+
+    private static PuzzleBank defaultBank;
+    private static boolean    defaultLoaded;
+
+    /**
+     * The bank named by {@code -Dtowers.bank=<file>}, else
+     * {@code puzzles-NxN.bank} in the working directory. Returns null if
+     * neither exists or the bank is for another size. Mapped once, on first use.
+     */
+    public static synchronized PuzzleBank openDefault(int size) {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            Path file = Paths.get(System.getProperty("towers.bank", "puzzles-" + size + "x" + size + ".bank"));
+            if (Files.isReadable(file)) {
+                try {
+                    defaultBank = new PuzzleBank(file);
+                    System.out.println("Puzzle bank: " + file + " (" + defaultBank.count() + " puzzles)");
+                } catch (IOException e) {
+                    System.err.println("Ignoring puzzle bank " + file + ": " + e.getMessage());
+                }
+            }
+        }
+        if (defaultBank == null || defaultBank.getSize() != size || defaultBank.count() == 0) return null;
+        return defaultBank;
+    }
+
+    // ── Record codec (shared with PuzzleBankWriter) ──────────────────────────
+
+    /** Bits for a clue, 0..N. */
+    static int clueBits(int n) { return 32 - Integer.numberOfLeadingZeros(n); }
+
+    /** Bits for a cell, stored as height-1 in 0..N-1. */
+    static int cellBits(int n) { return Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1)); }
+
+    static int clueLongs(int n) { return (4 * n * clueBits(n) + 63) / 64; }
+
+    static int recordLongs(int n) { return clueLongs(n) + (n * n * cellBits(n) + 63) / 64; }
+
+    static long[] encode(PuzzleGenerator.PuzzleData p) {
+        int n = p.topClues.length;
+        long[] rec = new long[recordLongs(n)];
+        int cb = clueBits(n), sb = cellBits(n), base = clueLongs(n) * 64;
+        int i = 0;
+        for (int[] side : new int[][] { p.topClues, p.rightClues, p.bottomClues, p.leftClues })
+            for (int v : side) put(rec, (i++) * cb, cb, v);
+        for (int r = 0; r < n; r++)
+            for (int c = 0; c < n; c++)
+                put(rec, base + (r * n + c) * sb, sb, p.solution[r][c] - 1);
+        return rec;
+    }
+
+    static PuzzleGenerator.PuzzleData decode(int n, long[] rec) {
+        int cb = clueBits(n), sb = cellBits(n), base = clueLongs(n) * 64;
+        int[] top = new int[n], right = new int[n], bottom = new int[n], left = new int[n];
+        for (int i = 0; i < n; i++) {
+            top[i]    = (int) get(rec, i * cb, cb);
+            right[i]  = (int) get(rec, (n + i) * cb, cb);
+            bottom[i] = (int) get(rec, (2 * n + i) * cb, cb);
+            left[i]   = (int) get(rec, (3 * n + i) * cb, cb);
+        }
+        int[][] sol = new int[n][];
+        for (int r = 0; r < n; r++) {
+            int[] row = new int[n];
+            for (int c = 0; c < n; c++) row[c] = (int) get(rec, base + (r * n + c) * sb, sb) + 1;
+            sol[r] = row;
+        }
+        return new PuzzleGenerator.PuzzleData(top, right, bottom, left, sol);
+    }
+
+    private static void put(long[] rec, int bit, int width, long v) {
+        int w = bit >>> 6, off = bit & 63;
+        rec[w] |= v << off;
+        if (off + width > 64) rec[w + 1] |= v >>> (64 - off);
+    }
+
+    private static long get(long[] rec, int bit, int width) {
+        int w = bit >>> 6, off = bit & 63;
+        long v = rec[w] >>> off;
+        if (off + width > 64) v |= rec[w + 1] << (64 - off);
+        return v & ((1L << width) - 1);
+    }
+}
@@ -0,0 +1,101 @@
+package TowersPuzzle;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * PuzzleBankWriter – appends fixed-width records in the {@link PuzzleBank}
+ * format. The record count in the header is filled in on {@link #close()}.
+ */
+public class PuzzleBankWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final ByteBuffer  buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.BIG_ENDIAN);
+    private final int N, recordLongs;
+    private long count;
+
+    public PuzzleBankWriter(Path file, int size) throws IOException {
+        if (size < 1 || size > PuzzleBank.MAX_SIZE)
+            throw new IllegalArgumentException("Puzzle banks support sizes 1.." + PuzzleBank.MAX_SIZE + ", got " + size);
+        this.N = size;
+        this.recordLongs = PuzzleBank.recordLongs(size);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buf.put(header(0));
+    }
+
+    public void add(PuzzleGenerator.PuzzleData p) throws IOException {
+        if (p.topClues.length != N)
+            throw new IllegalArgumentException("Bank is " + N + "x" + N + ", puzzle is " + p.topClues.length);
+        if (buf.remaining() < recordLongs * Long.BYTES) flush();
+        for (long w : PuzzleBank.encode(p)) buf.putLong(w);
+        count++;
+    }
+
+    public long count() { return count; }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.write(header(count), 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    private ByteBuffer header(long records) {
+        ByteBuffer h = ByteBuffer.allocate(PuzzleBank.HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        h.putInt(PuzzleBank.MAGIC);
+        h.putShort((short) PuzzleBank.VERSION);
+        h.put((byte) N);
+        h.put((byte) recordLongs);
+        h.putLong(records);
+        h.position(PuzzleBank.HEADER_BYTES);
+        return h.flip();
+    }
+
+    //  ENTRY POINT – convert a text pack (BulkPuzzleGenerator output) to a bank
+    //  java TowersPuzzle.PuzzleBankWriter <pack.txt> <out.bank>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: PuzzleBankWriter <pack.txt> <out.bank>");
+            System.exit(2);
+        }
+        Path in = Paths.get(args[0]), out = Paths.get(args[1]);
+        long start = System.currentTimeMillis();
+        PuzzleBankWriter writer = null;
+        try (BufferedReader r = Files.newBufferedReader(in, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank()) continue;
+                PuzzleGenerator.PuzzleData p = PuzzleGenerator.PuzzleData.fromLine(line);
+                if (writer == null) writer = new PuzzleBankWriter(out, p.topClues.length);
+                writer.add(p);
+            }
+        } finally {
+            if (writer != null) writer.close();
+        }
+        if (writer == null) {
+            System.err.println(in + " holds no puzzles");
+            System.exit(1);
+        }
+        System.out.printf("Wrote %d puzzles to %s in %d ms%n",
+                writer.count(), out, System.currentTimeMillis() - start);
+    }
+}
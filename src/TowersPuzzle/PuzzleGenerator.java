@@ -1,12 +1,35 @@
+package TowersPuzzle;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class PuzzleGenerator {
-    private static final int N = 4;
-    private Random random = new Random();
+    private final int N;
+    private RandomGenerator random;
+    private SolutionCounter counter;   // N > 5 only, created on first unique-puzzle request
+    private DifficultyRater rater;     // created on first rated request
+
+    /** Candidates {@link #generateUniquePuzzle(DifficultyRater.Difficulty)} tries before giving up. */
+    public static final int MAX_RATED_ATTEMPTS = 10_000;
+
+    public PuzzleGenerator() {
+        this(4, new Random());
+    }
+
+    /** Reproducible puzzle stream – used for fixed benchmark / test sets. */
+    public PuzzleGenerator(long seed) {
+        this(4, new Random(seed));
+    }
+
+    public PuzzleGenerator(int size, long seed) {
+        this(size, new Random(seed));
+    }
+
+    /** Draws from the caller's generator, e.g. one {@code SplittableRandom} split per worker. */
+    public PuzzleGenerator(int size, RandomGenerator random) {
+        this.N = size;
+        this.random = random;
+    }
 
     public static class PuzzleData {
         public int[] topClues;
@@ -22,6 +45,43 @@ public class PuzzleGenerator {
             this.leftClues = left;
             this.solution = sol;
         }
+
+        /**
+         * One-line text form used by puzzle packs:
+         * {@code top right bottom left solution}, one digit per clue (0 = none)
+         * and solution rows joined by '/', e.g.
+         * {@code 2143 2312 3412 1322 1234/2341/3412/4123}.
+         */
+        public String toLine() {
+            StringBuilder sb = new StringBuilder();
+            for (int[] side : new int[][] { topClues, rightClues, bottomClues, leftClues }) {
+                for (int v : side) sb.append((char) ('0' + v));
+                sb.append(' ');
+            }
+            for (int r = 0; r < solution.length; r++) {
+                if (r > 0) sb.append('/');
+                for (int v : solution[r]) sb.append((char) ('0' + v));
+            }
+            return sb.toString();
+        }
+
+        /** Parses the {@link #toLine()} form. */
+        public static PuzzleData fromLine(String line) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length != 5)
+                throw new IllegalArgumentException("Expected 5 fields, got " + parts.length + ": " + line);
+            String[] rows = parts[4].split("/");
+            int[][] sol = new int[rows.length][];
+            for (int r = 0; r < rows.length; r++) sol[r] = digits(rows[r]);
+            return new PuzzleData(digits(parts[0]), digits(parts[1]),
+                    digits(parts[2]), digits(parts[3]), sol);
+        }
+
+        private static int[] digits(String s) {
+            int[] out = new int[s.length()];
+            for (int i = 0; i < out.length; i++) out[i] = s.charAt(i) - '0';
+            return out;
+        }
     }
 
     public PuzzleData generatePuzzle() {
@@ -42,6 +102,63 @@ public class PuzzleGenerator {
         return new PuzzleData(topClues, rightClues, bottomClues, leftClues, grid);
     }
 
+    /**
+     * Generates a puzzle with exactly one solution and a minimal clue set.
+     *
+     * Random full-clue puzzles are drawn until the {@link ClueDatabase} (or,
+     * above 5×5, the bounded counter) confirms uniqueness. Clues are then
+     * visited in random order and dropped (set to 0) whenever the puzzle stays
+     * unique without them. No remaining clue can be removed afterwards.
+     */
+    public PuzzleData generateUniquePuzzle() {
+        PuzzleData p = generatePuzzle();
+        while (!isUnique(p)) {
+            p = generatePuzzle();
+        }
+
+        int[][] sides = { p.topClues, p.rightClues, p.bottomClues, p.leftClues };
+        int[] order = new int[4 * N];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+
+        for (int idx : order) {
+            int[] side = sides[idx / N];
+            int pos = idx % N;
+            int clue = side[pos];
+            side[pos] = 0;
+            if (!isUnique(p)) {
+                side[pos] = clue;
+            }
+        }
+        return p;
+    }
+
+    /**
+     * A unique, minimal-clue puzzle whose {@link DifficultyRater} band is
+     * {@code target}. Throws IllegalStateException if none turns up in
+     * {@link #MAX_RATED_ATTEMPTS} candidates, e.g. EXPERT on a tiny board.
+     */
+    public PuzzleData generateUniquePuzzle(DifficultyRater.Difficulty target) {
+        if (rater == null) rater = new DifficultyRater(N);
+        for (int i = 0; i < MAX_RATED_ATTEMPTS; i++) {
+            PuzzleData p = generateUniquePuzzle();
+            if (rater.rate(p).difficulty == target) return p;
+        }
+        throw new IllegalStateException("No " + target + " " + N + "x" + N + " puzzle in "
+                + MAX_RATED_ATTEMPTS + " candidates");
+    }
+
+    /** Table lookup up to 5×5, bounded search above. */
+    private boolean isUnique(PuzzleData p) {
+        if (ClueDatabase.supports(N))
+            return ClueDatabase.forSize(N).isUnique(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+        if (counter == null) counter = new SolutionCounter(N);
+        return counter.isUnique(p.topClues, p.rightClues, p.bottomClues, p.leftClues);
+    }
+
     private int[][] generateValidGrid() {
         int[][] grid = new int[N][N];
         if (fillGrid(grid, 0, 0)) {
@@ -56,9 +173,12 @@ public class PuzzleGenerator {
         int nextRow = (col == N - 1) ? row + 1 : row;
         int nextCol = (col == N - 1) ? 0 : col + 1;
 
-        List<Integer> values = new ArrayList<>();
-        for (int i = 1; i <= N; i++) values.add(i);
-        Collections.shuffle(values, random);
+        int[] values = new int[N];
+        for (int i = 0; i < N; i++) values[i] = i + 1;
+        for (int i = N - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i]; values[i] = values[j]; values[j] = t;
+        }
 
         for (int val : values) {
             if (isValidPlacement(grid, row, col, val)) {
@@ -117,11 +237,10 @@ public class PuzzleGenerator {
     }
 
     private int[][] createSimpleValidGrid() {
-        return new int[][] {
-                {1, 2, 3, 4},
-                {2, 3, 4, 1},
-                {3, 4, 1, 2},
-                {4, 1, 2, 3}
-        };
+        int[][] grid = new int[N][N];
+        for (int r = 0; r < N; r++)
+            for (int c = 0; c < N; c++)
+                grid[r][c] = (r + c) % N + 1;
+        return grid;
     }
 }
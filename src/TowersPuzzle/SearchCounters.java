@@ -0,0 +1,22 @@
+package TowersPuzzle;
+
+/**
+ * SearchCounters – what a CPU strategy counted during its last
+ * {@code findBestMove()}, for {@link FlightEvents#searchMove} and
+ * {@link Metrics}. A strategy resets its counters at the start of each
+ * search.
+ */
+public interface SearchCounters {
+
+    /** Positions the last search visited. */
+    long nodesSearched();
+
+    /** Branches it cut off without searching them. */
+    default long branchesPruned() { return 0; }
+
+    /** Positions it answered from a memo, transposition or chance table. */
+    default long memoHits() { return 0; }
+
+    /** Entries in its memo or search tree after the last search, for {@link Metrics}. */
+    default long memoEntries() { return 0; }
+}
@@ -0,0 +1,248 @@
+package TowersPuzzle;
+
+import TowersPuzzle.SolverEngine.SolverCallback.EventType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * SearchTrace – memory-mapped, read-only recording of a {@link SolverEngine}
+ * run, written by {@link SearchTraceWriter}.
+ *
+ * File layout (big-endian):
+ * <pre>
+ *   header (64 bytes)
+ *     0  int   magic 'TWRT'
+ *     4  short version (1)
+ *     6  byte  N
+ *     7  byte  keyframe shift – a keyframe every 2^shift events
+ *     8  long  event count
+ *    16  long  keyframe section offset
+ *    24  long  keyframe count
+ *    32  long  string table offset
+ *    40  4N bytes clues (top, right, bottom, left), 0 = no clue
+ *   events, one long each, back to back
+ *     bits  0..2  type      3..5  row+1    6..8  col+1
+ *     bits  9..12 value    13..17 depth   32..63 message id
+ *   keyframes, {@link #KEYFRAME_LONGS} longs each, by event index
+ *     index, board (4 bits per cell), nodes, pruned, backtracks, solutions,
+ *     elapsed ms &lt;&lt; 8 | max depth
+ *   string table
+ *     int count, then per message: int length, UTF-8 bytes
+ * </pre>
+ * An event does not carry the board or the counters: both follow from the
+ * event itself (a TRY or PRUNE sets its cell and counts a node, a BACKTRACK
+ * clears its cell, ...). {@link #frame} therefore starts from the nearest
+ * keyframe at or before the index and replays at most 2^shift - 1 events,
+ * so any index is reached in constant time. The writer adds an extra
+ * keyframe wherever that rule does not hold, such as a clue-table lookup
+ * filling the whole board at once.
+ *
+ * Only the keyframes and the message table are read into the heap; events
+ * stay in the mapping, so traces of 10^8 events open instantly.
+ */
+public class SearchTrace implements Closeable {
+
+    public static final int MAGIC          = 0x54575254;   // "TWRT"
+    public static final int VERSION        = 1;
+    public static final int HEADER_BYTES   = 64;
+    public static final int MAX_SIZE       = 4;            // the board packs into one long
+    static final int        KEYFRAME_LONGS = 7;
+
+    private static final long SEGMENT_BYTES       = 1L << 30;
+    private static final int  EVENTS_PER_SEGMENT  = (int) (SEGMENT_BYTES / Long.BYTES);
+
+    /** Board and counters right after one event. */
+    public static final class Frame {
+        public final long    index;
+        public final int[][] grid;
+        public final long    nodes, pruned, backtracks, solutions;
+        public final int     depth, maxDepth;
+        public final long    elapsedMs;
+
+        Frame(long index, long[] state, int depth, int n) {
+            this.index      = index;
+            this.grid       = EventRing.unpackGrid(state[S_GRID], n);
+            this.nodes      = state[S_NODES];
+            this.pruned     = state[S_PRUNED];
+            this.backtracks = state[S_BACKTRACKS];
+            this.solutions  = state[S_SOLUTIONS];
+            this.depth      = depth;
+            this.maxDepth   = (int) (state[S_TIME] & 0xFF);
+            this.elapsedMs  = state[S_TIME] >>> 8;
+        }
+    }
+
+    // ── replay state: a keyframe minus its index ─────────────────────────────
+    static final int S_GRID = 0, S_NODES = 1, S_PRUNED = 2, S_BACKTRACKS = 3, S_SOLUTIONS = 4, S_TIME = 5;
+    static final int STATE_LONGS = 6;
+
+    private final FileChannel        channel;
+    private final MappedByteBuffer[] segments;
+    private final int      N;
+    private final int      keyframeShift;
+    private final long     count;
+    private final int[][]  clues;           // top, right, bottom, left
+    private final long[]   keyIndex;
+    private final long[][] keyState;
+    private final String[] messages;
+
+    public SearchTrace(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < HEADER_BYTES)
+                throw new IOException(file + " is not a search trace (too short)");
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            header.order(ByteOrder.BIG_ENDIAN);
+            if (header.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a search trace (bad magic)");
+            if (header.getShort(4) != VERSION)
+                throw new IOException(file + ": unsupported trace version " + header.getShort(4));
+            N             = header.get(6);
+            keyframeShift = header.get(7);
+            count         = header.getLong(8);
+            long keyOffset   = header.getLong(16);
+            long keyCount    = header.getLong(24);
+            long textOffset  = header.getLong(32);
+            if (N < 1 || N > MAX_SIZE || keyframeShift < 0 || keyframeShift > 30)
+                throw new IOException(file + ": corrupt header (N=" + N + ", shift=" + keyframeShift + ")");
+            if (keyOffset != HEADER_BYTES + count * Long.BYTES
+                    || textOffset != keyOffset + keyCount * KEYFRAME_LONGS * Long.BYTES
+                    || channel.size() < textOffset + Integer.BYTES)
+                throw new IOException(file + ": truncated or unfinished, header says " + count + " events");
+
+            clues = new int[4][N];
+            for (int i = 0; i < 4 * N; i++) clues[i / N][i % N] = header.get(40 + i);
+
+            int n = (int) ((count + EVENTS_PER_SEGMENT - 1) / EVENTS_PER_SEGMENT);
+            segments = new MappedByteBuffer[n];
+            for (int s = 0; s < n; s++) {
+                long pos = HEADER_BYTES + s * SEGMENT_BYTES;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(SEGMENT_BYTES, keyOffset - pos));
+            }
+
+            ByteBuffer keys = read(keyOffset, (int) (keyCount * KEYFRAME_LONGS * Long.BYTES));
+            keyIndex = new long[(int) keyCount];
+            keyState = new long[(int) keyCount][];
+            for (int k = 0; k < keyCount; k++) {
+                keyIndex[k] = keys.getLong();
+                long[] state = new long[STATE_LONGS];
+                for (int i = 0; i < STATE_LONGS; i++) state[i] = keys.getLong();
+                keyState[k] = state;
+            }
+
+            ByteBuffer text = read(textOffset, (int) (channel.size() - textOffset));
+            messages = new String[text.getInt()];
+            for (int i = 0; i < messages.length; i++) {
+                byte[] utf8 = new byte[text.getInt()];
+                text.get(utf8);
+                messages[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private ByteBuffer read(long pos, int bytes) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(bytes).order(ByteOrder.BIG_ENDIAN);
+        while (b.hasRemaining())
+            if (channel.read(b, pos + b.position()) < 0) throw new IOException("unexpected end of trace");
+        return b.flip();
+    }
+
+    public int   getSize() { return N; }
+    public long  count()   { return count; }
+
+    /** Clues as {top, right, bottom, left}. */
+    public int[][] clues() {
+        int[][] out = new int[4][];
+        for (int s = 0; s < 4; s++) out[s] = clues[s].clone();
+        return out;
+    }
+
+    // ── events ───────────────────────────────────────────────────────────────
+
+    /** Raw packed event {@code index}. */
+    public long record(long index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("event " + index + " of " + count);
+        return segments[(int) (index / EVENTS_PER_SEGMENT)].getLong((int) (index % EVENTS_PER_SEGMENT) * Long.BYTES);
+    }
+
+    public EventType type(long index) { return EventType.values()[recType(record(index))]; }
+    public int row(long index)        { return recRow(record(index)); }
+    public int col(long index)        { return recCol(record(index)); }
+    public int value(long index)      { return recValue(record(index)); }
+    public int depth(long index)      { return recDepth(record(index)); }
+    public String message(long index) { return messages[(int) (record(index) >>> 32)]; }
+
+    // ── seeking ──────────────────────────────────────────────────────────────
+
+    /** Board and counters right after event {@code index}. */
+    public Frame frame(long index) {
+        return new Frame(index, state(index), recDepth(record(index)), N);
+    }
+
+    /** Raw state after event {@code index}: nearest keyframe, then the events since. */
+    long[] state(long index) {
+        if (index < 0 || index >= count)
+            throw new IndexOutOfBoundsException("event " + index + " of " + count);
+        int k = Arrays.binarySearch(keyIndex, index);
+        if (k < 0) k = -k - 2;                        // last keyframe before index
+        long[] state;
+        long from;
+        if (k >= 0) {
+            state = keyState[k].clone();
+            from  = keyIndex[k] + 1;
+        } else {
+            state = new long[STATE_LONGS];
+            from  = 0;
+        }
+        for (long i = from; i <= index; i++) step(state, record(i), N);
+        return state;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ── Event codec (shared with SearchTraceWriter) ──────────────────────────
+
+    static long encode(int type, int row, int col, int value, int depth, int message) {
+        return type | (row + 1L) << 3 | (col + 1L) << 6 | (long) value << 9
+                | (long) Math.min(depth, 31) << 13 | (long) message << 32;
+    }
+
+    static int recType(long rec)  { return (int) (rec & 7); }
+    static int recRow(long rec)   { return (int) (rec >>> 3 & 7) - 1; }
+    static int recCol(long rec)   { return (int) (rec >>> 6 & 7) - 1; }
+    static int recValue(long rec) { return (int) (rec >>> 9 & 15); }
+    static int recDepth(long rec) { return (int) (rec >>> 13 & 31); }
+
+    /** Advances {@code state} over one event, the way {@link SolverEngine} does. */
+    static void step(long[] state, long rec, int n) {
+        int type = recType(rec);
+        int cell = recRow(rec) * n + recCol(rec);
+        if (type == EventType.TRY.ordinal() || type == EventType.PRUNE.ordinal()) {
+            state[S_GRID] = state[S_GRID] & ~(15L << 4 * cell) | (long) recValue(rec) << 4 * cell;
+            state[S_NODES]++;
+            if (type == EventType.PRUNE.ordinal()) state[S_PRUNED]++;
+        } else if (type == EventType.BACKTRACK.ordinal()) {
+            state[S_GRID] &= ~(15L << 4 * cell);
+            state[S_BACKTRACKS]++;
+        } else if (type == EventType.SOLUTION.ordinal()) {
+            state[S_SOLUTIONS]++;
+        }
+        if (recDepth(rec) > (state[S_TIME] & 0xFF)) state[S_TIME] = state[S_TIME] & ~0xFFL | recDepth(rec);
+    }
+}
@@ -0,0 +1,251 @@
+package TowersPuzzle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SearchTraceWriter – records every event of a {@link SolverEngine} run in
+ * the {@link SearchTrace} format. Use it as (or chain it into) the solver's
+ * callback; it runs on the solver thread.
+ *
+ * Events stream out through a direct buffer as one long each. Keyframes and
+ * the message table stay in memory, then go after the events on
+ * {@link #close()}, which also fills in the header. A write error stops the
+ * recording without disturbing the solver; {@code close()} reports it.
+ *
+ * The channel itself is only touched by a writer thread of its own: STOP
+ * interrupts the solver thread, and an interrupted thread writing to a
+ * {@link FileChannel} closes it. Full buffers are handed over and the solver
+ * carries on in the spare one.
+ */
+public class SearchTraceWriter implements Closeable, SolverEngine.SolverCallback {
+
+    public static final int DEFAULT_KEYFRAME_SHIFT = 12;   // a keyframe every 4096 events
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel     channel;
+    private final ExecutorService io;        // the only thread that touches the channel
+    private final BlockingQueue<ByteBuffer> spare = new ArrayBlockingQueue<>(1);
+    private ByteBuffer            buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.BIG_ENDIAN);
+    private final int      N;
+    private final int      keyframeShift;
+    private final byte[]   clues;
+    private final long[]   shadow = new long[SearchTrace.STATE_LONGS];   // state the reader will derive
+    private long[]         keyframes = new long[64 * SearchTrace.KEYFRAME_LONGS];
+    private int            keyframeCount;
+    private long           count;
+    private volatile IOException failure;
+
+    private final Map<String, Integer> ids   = new HashMap<>();
+    private final List<String>         texts = new ArrayList<>();
+
+    public SearchTraceWriter(Path file, int[] top, int[] right, int[] bottom, int[] left) throws IOException {
+        this(file, top, right, bottom, left, DEFAULT_KEYFRAME_SHIFT);
+    }
+
+    public SearchTraceWriter(Path file, int[] top, int[] right, int[] bottom, int[] left,
+                             int keyframeShift) throws IOException {
+        int n = top.length;
+        if (n < 1 || n > SearchTrace.MAX_SIZE)
+            throw new IllegalArgumentException("Search traces support sizes 1.." + SearchTrace.MAX_SIZE + ", got " + n);
+        if (right.length != n || bottom.length != n || left.length != n)
+            throw new IllegalArgumentException("Clue sides differ in length");
+        if (keyframeShift < 0 || keyframeShift > 30)
+            throw new IllegalArgumentException("Keyframe shift must be 0..30, got " + keyframeShift);
+        this.N = n;
+        this.keyframeShift = keyframeShift;
+        this.clues = new byte[4 * n];
+        int i = 0;
+        for (int[] side : new int[][] { top, right, bottom, left })
+            for (int v : side) clues[i++] = (byte) v;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        io = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "trace-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        spare.add(ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.BIG_ENDIAN));
+        buf.put(header(0, 0, 0, 0));
+    }
+
+    @Override
+    public void onEvent(EventType type, int row, int col, int value,
+                        int[][] gridSnapshot, StatsTracker stats, String message) {
+        if (failure != null) return;
+        long rec = SearchTrace.encode(type.ordinal(), row, col, value, stats.getCurrentDepth(), intern(message));
+        if (buf.remaining() < Long.BYTES) flush();
+        buf.putLong(rec);
+
+        SearchTrace.step(shadow, rec, N);
+        long grid = EventRing.packGrid(gridSnapshot);
+        boolean drifted = shadow[SearchTrace.S_GRID]       != grid
+                       || shadow[SearchTrace.S_NODES]      != stats.getNodesExplored()
+                       || shadow[SearchTrace.S_PRUNED]     != stats.getBranchesPruned()
+                       || shadow[SearchTrace.S_BACKTRACKS] != stats.getBacktrackCount()
+                       || shadow[SearchTrace.S_SOLUTIONS]  != stats.getSolutionsFound()
+                       || (shadow[SearchTrace.S_TIME] & 0xFF) != stats.getMaxDepth();
+        if (drifted || (count & ((1L << keyframeShift) - 1)) == 0) {
+            shadow[SearchTrace.S_GRID]       = grid;
+            shadow[SearchTrace.S_NODES]      = stats.getNodesExplored();
+            shadow[SearchTrace.S_PRUNED]     = stats.getBranchesPruned();
+            shadow[SearchTrace.S_BACKTRACKS] = stats.getBacktrackCount();
+            shadow[SearchTrace.S_SOLUTIONS]  = stats.getSolutionsFound();
+            shadow[SearchTrace.S_TIME]       = stats.elapsedMs() << 8 | Math.min(stats.getMaxDepth(), 255);
+            keyframe(count);
+        }
+        count++;
+    }
+
+    public long count() { return count; }
+
+    /** The write error that stopped the recording, or null. */
+    public IOException failure() { return failure; }
+
+    /**
+     * Writes the keyframes, messages and header and closes the file. Safe to
+     * call on an interrupted thread: it waits for the writer uninterruptibly
+     * and leaves the interrupt flag as it found it.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (failure == null) finish();
+            await(io.submit(() -> {
+                channel.close();
+                return null;
+            }));
+        } finally {
+            io.shutdown();
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void finish() {
+        flush();
+        long keyOffset  = SearchTrace.HEADER_BYTES + count * Long.BYTES;
+        long textOffset = keyOffset + (long) keyframeCount * SearchTrace.KEYFRAME_LONGS * Long.BYTES;
+        for (int i = 0; i < keyframeCount * SearchTrace.KEYFRAME_LONGS; i++) {
+            if (buf.remaining() < Long.BYTES) flush();
+            buf.putLong(keyframes[i]);
+        }
+        if (buf.remaining() < Integer.BYTES) flush();
+        buf.putInt(texts.size());
+        for (String t : texts) {
+            byte[] utf8 = t.getBytes(StandardCharsets.UTF_8);
+            if (buf.remaining() < Integer.BYTES + utf8.length) flush();
+            buf.putInt(utf8.length);
+            if (utf8.length <= buf.remaining()) {
+                buf.put(utf8);
+            } else {                                     // longer than the buffer
+                flush();
+                write(ByteBuffer.wrap(utf8), -1, false);
+            }
+        }
+        flush();
+        write(header(count, keyOffset, keyframeCount, textOffset), 0, false);
+    }
+
+    private void keyframe(long index) {
+        int at = keyframeCount * SearchTrace.KEYFRAME_LONGS;
+        if (at == keyframes.length) keyframes = Arrays.copyOf(keyframes, keyframes.length * 2);
+        keyframes[at] = index;
+        System.arraycopy(shadow, 0, keyframes, at + 1, SearchTrace.STATE_LONGS);
+        keyframeCount++;
+    }
+
+    private int intern(String message) {
+        Integer id = ids.get(message);
+        if (id == null) {
+            id = texts.size();
+            ids.put(message, id);
+            texts.add(message);
+        }
+        return id;
+    }
+
+    /** Hands the filled buffer to the writer and carries on in the spare one. */
+    private void flush() {
+        ByteBuffer next = uninterruptibly(spare::take);   // before the handover, or both may be spare
+        write(buf.flip(), -1, true);
+        buf = next;
+    }
+
+    /**
+     * Queues {@code data} for the writer thread, at {@code position} or, if
+     * negative, after what went before. A recycled buffer comes back to
+     * {@link #spare} once written, even after a failure.
+     */
+    private void write(ByteBuffer data, long position, boolean recycle) {
+        io.execute(() -> {
+            try {
+                if (failure != null) return;
+                if (position < 0) while (data.hasRemaining()) channel.write(data);
+                else              channel.write(data, position);
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                if (recycle) spare.add(data.clear());
+            }
+        });
+    }
+
+    private void await(Future<?> job) throws IOException {
+        try {
+            uninterruptibly(job::get);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ioe ? ioe : new IOException(e.getCause());
+        }
+    }
+
+    private interface Wait<T, E extends Exception> { T get() throws InterruptedException, E; }
+
+    /** Waits through interrupts (STOP's, on the solver thread), then restores the flag. */
+    private static <T, E extends Exception> T uninterruptibly(Wait<T, E> wait) throws E {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return wait.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private ByteBuffer header(long events, long keyOffset, long keyCount, long textOffset) {
+        ByteBuffer h = ByteBuffer.allocate(SearchTrace.HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        h.putInt(SearchTrace.MAGIC);
+        h.putShort((short) SearchTrace.VERSION);
+        h.put((byte) N);
+        h.put((byte) keyframeShift);
+        h.putLong(events);
+        h.putLong(keyOffset);
+        h.putLong(keyCount);
+        h.putLong(textOffset);
+        h.put(clues);
+        h.position(SearchTrace.HEADER_BYTES);
+        return h.flip();
+    }
+}
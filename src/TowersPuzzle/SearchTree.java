@@ -0,0 +1,212 @@
+package TowersPuzzle;
+
+import TowersPuzzle.SolverEngine.SolverCallback.EventType;
+
+/**
+ * SearchTree – the solver's full recursion tree, rebuilt from its events and
+ * kept in primitive parallel arrays.
+ *
+ * Node 0 is the empty board; every TRY adds a child of the node that selected
+ * the cell, and every PRUNE adds a dead leaf. The solver is depth-first, so
+ * ids come out in preorder: a node's subtree is the id range
+ * {@code [id, id + subtree(id))}, and its next sibling starts right after
+ * it. Counts are kept up to date as nodes arrive, by walking the (at most
+ * N*N deep) ancestor chain:
+ * <ul>
+ *   <li>{@code subtree} – nodes in the subtree, itself included;</li>
+ *   <li>{@code shown} – rows the subtree takes on screen (1 when collapsed);</li>
+ *   <li>{@code prunedBefore} – prefix count of pruned nodes, so any id range's
+ *       prune count is one subtraction.</li>
+ * </ul>
+ * A finished subtree with no solution and at least {@link #AUTO_COLLAPSE}
+ * nodes collapses into a single aggregate row. Not thread-safe; the
+ * visualizer feeds and paints it on the EDT.
+ */
+final class SearchTree {
+
+    static final int AUTO_COLLAPSE = 32;
+    static final int MAX_NODES     = 1 << 22;
+
+    // ── flags ────────────────────────────────────────────────────────────────
+    private static final int TYPE_MASK    = 7;        // EventType ordinal
+    private static final int COLLAPSED    = 1 << 3;
+    private static final int HAS_SOLUTION = 1 << 4;
+
+    private final int n;                             // board side
+
+    private int[]  parent       = new int[4096];
+    private int[]  subtree      = new int[4096];
+    private int[]  shown        = new int[4096];
+    private int[]  prunedBefore = new int[4097];
+    private byte[] depth        = new byte[4096];
+    private byte[] cell         = new byte[4096];    // r*n + c, -1 for the root
+    private byte[] value        = new byte[4096];
+    private byte[] flags        = new byte[4096];
+    private int    count;
+    private long   notStored;                        // nodes past MAX_NODES
+
+    // ── open path: stack[i] is the node at depth i, sel[i] the cell it selected ─
+    private final int[] stack;
+    private final int[] sel;
+    private int         top;
+
+    SearchTree(int n) {
+        this.n = n;
+        stack = new int[n * n + 2];
+        sel   = new int[n * n + 2];
+        clear();
+    }
+
+    void clear() {
+        count = 0;
+        notStored = 0;
+        prunedBefore[0] = 0;
+        top = 0;
+        add(-1, -1, 0, EventType.RESET.ordinal());
+        stack[0] = 0;
+        sel[0] = -1;
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  BUILDING
+    // ════════════════════════════════════════════════════════════════════════
+
+    /** Feeds one solver event. */
+    void onEvent(EventType type, int row, int col, int v) {
+        int c = row >= 0 ? row * n + col : -1;
+        switch (type) {
+            case SELECT -> sel[top] = c;
+            case TRY -> {
+                popTo(c);
+                int id = add(stack[top], c, v, type.ordinal());
+                if (id < 0 || top + 1 >= stack.length) return;
+                stack[++top] = id;
+                sel[top] = -1;
+            }
+            case PRUNE -> {
+                popTo(c);
+                add(stack[top], c, v, type.ordinal());
+            }
+            case BACKTRACK -> {
+                popTo(c);
+                if (top > 0) close(top--);
+            }
+            case SOLUTION -> {
+                for (int a = stack[top]; a >= 0; a = parent[a]) flags[a] |= HAS_SOLUTION;
+                int id = stack[top];
+                flags[id] = (byte) (flags[id] & ~TYPE_MASK | EventType.SOLUTION.ordinal());
+            }
+            case COMPLETE -> { while (top > 0) close(top--); }
+            default -> { }
+        }
+    }
+
+    /** Closes open levels until the top one is the node that selected {@code c}. */
+    private void popTo(int c) {
+        int k = top;
+        while (k > 0 && sel[k] != c) k--;
+        if (sel[k] != c) return;                     // events were dropped – keep the path
+        while (top > k) close(top--);
+    }
+
+    private void close(int level) {
+        int id = stack[level];
+        if (subtree[id] >= AUTO_COLLAPSE && (flags[id] & HAS_SOLUTION) == 0) setCollapsed(id, true);
+    }
+
+    private int add(int p, int c, int v, int type) {
+        if (count == MAX_NODES) { notStored++; return -1; }
+        if (count == parent.length) grow();
+        int id = count++;
+        parent[id]  = p;
+        subtree[id] = 1;
+        shown[id]   = 1;
+        depth[id]   = (byte) (p < 0 ? 0 : depth[p] + 1);
+        cell[id]    = (byte) c;
+        value[id]   = (byte) v;
+        flags[id]   = (byte) type;
+        prunedBefore[id + 1] = prunedBefore[id] + (type == EventType.PRUNE.ordinal() ? 1 : 0);
+        boolean visible = true;
+        for (int a = p; a >= 0; a = parent[a]) {
+            subtree[a]++;
+            if (visible) {
+                if (isCollapsed(a)) visible = false;
+                else shown[a]++;
+            }
+        }
+        return id;
+    }
+
+    private void grow() {
+        int size = Math.min(parent.length * 2, MAX_NODES);
+        parent       = java.util.Arrays.copyOf(parent, size);
+        subtree      = java.util.Arrays.copyOf(subtree, size);
+        shown        = java.util.Arrays.copyOf(shown, size);
+        prunedBefore = java.util.Arrays.copyOf(prunedBefore, size + 1);
+        depth        = java.util.Arrays.copyOf(depth, size);
+        cell         = java.util.Arrays.copyOf(cell, size);
+        value        = java.util.Arrays.copyOf(value, size);
+        flags        = java.util.Arrays.copyOf(flags, size);
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  COLLAPSING
+    // ════════════════════════════════════════════════════════════════════════
+
+    boolean isCollapsed(int id) { return (flags[id] & COLLAPSED) != 0; }
+
+    void setCollapsed(int id, boolean collapse) {
+        if (isCollapsed(id) == collapse || subtree[id] == 1) return;
+        int before = shown[id];
+        if (collapse) {
+            flags[id] |= COLLAPSED;
+            shown[id] = 1;
+        } else {
+            flags[id] &= ~COLLAPSED;
+            int rows = 1;
+            for (int c = id + 1; c < id + subtree[id]; c += subtree[c]) rows += shown[c];
+            shown[id] = rows;
+        }
+        int delta = shown[id] - before;
+        for (int a = parent[id]; a >= 0 && !isCollapsed(a); a = parent[a])
+            shown[a] += delta;                       // a folded ancestor stays one row
+    }
+
+    // ════════════════════════════════════════════════════════════════════════
+    //  READING
+    // ════════════════════════════════════════════════════════════════════════
+
+    int  size()      { return count; }
+    long notStored() { return notStored; }
+
+    /** Rows on screen with the current collapsing. */
+    int rows() { return shown[0]; }
+
+    /** Node on screen row {@code k}: one descent, O(depth × branching). */
+    int nodeAtRow(int k) {
+        int id = 0;
+        while (k > 0) {
+            k--;
+            int c = id + 1, end = id + subtree[id];
+            while (c < end && k >= shown[c]) { k -= shown[c]; c += subtree[c]; }
+            if (c >= end) return count;              // past the last row
+            id = c;
+        }
+        return id;
+    }
+
+    /** Node on the row after {@code id}'s. */
+    int nextRow(int id) { return isCollapsed(id) ? id + subtree[id] : id + 1; }
+
+    /** Pruned nodes with ids in {@code [from, to)}. */
+    int prunedIn(int from, int to) { return prunedBefore[to] - prunedBefore[from]; }
+
+    int     parent(int id)      { return parent[id]; }
+    int     subtree(int id)     { return subtree[id]; }
+    int     depth(int id)       { return depth[id]; }
+    int     row(int id)         { return cell[id] < 0 ? -1 : cell[id] / n; }
+    int     col(int id)         { return cell[id] < 0 ? -1 : cell[id] % n; }
+    int     value(int id)       { return value[id]; }
+    EventType type(int id)      { return EventType.values()[flags[id] & TYPE_MASK]; }
+    boolean hasSolution(int id) { return (flags[id] & HAS_SOLUTION) != 0; }
+}
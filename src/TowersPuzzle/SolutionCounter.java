@@ -0,0 +1,266 @@
+package TowersPuzzle;
+
+/**
+ * SolutionCounter – bounded solution counter for N×N Skyscraper clue sets.
+ *
+ * Fills the board one row at a time from a precomputed table of row
+ * permutations. Each permutation carries its left/right visibility and a
+ * column-occupancy bitboard, so the per-row filter is one AND per candidate.
+ * Column clues contribute twice: a static per-row mask of heights they rule
+ * out (a clue k forbids heights above N-k+1+d at distance d from its edge),
+ * and top-down visibility bounds checked while the board fills.
+ *
+ * A clue of 0 means "no clue". The search stops as soon as {@code limit}
+ * solutions are found – {@code count(..., 2)} is the uniqueness test.
+ *
+ * Supports 1 ≤ N ≤ 7 (the bitboard needs N² bits). An instance reuses its
+ * scratch arrays and is not thread-safe.
+ */
+public class SolutionCounter {
+
+    private final int  N;
+    private final long lineMask;   // N low bits – one column of the bitboard
+    private final long fullMask;   // N² low bits – the whole bitboard
+
+    // ── Row permutation table ────────────────────────────────────────────────
+    private final int[][] perms;      // perms[p][c]   = height in column c
+    private final int[]   permLeft;   // visible from the left
+    private final int[]   permRight;  // visible from the right
+    private final long[]  permBits;   // bit (c*N + h-1) set for each column
+
+    // ── Search scratch (reused between calls) ────────────────────────────────
+    private final int[][] rowCand;    // candidate permutations per row
+    private final int[]   rowCandCount;
+    private final int[][] chosen;     // line placed in each row
+    private final int[]   lastLine;   // the forced last row
+    private long          lastBlocked;
+    private int           lastLeft, lastRight;
+    private final int[][] colMax;     // colMax[depth][c] – tallest so far from the top
+    private final int[][] colVis;     // colVis[depth][c] – visible so far from the top
+
+    private int[] top, bottom;
+    private int   limit, found;
+
+    public SolutionCounter(int size) {
+        if (size < 1 || size > 7)
+            throw new IllegalArgumentException("SolutionCounter supports 1..7, got " + size);
+        this.N = size;
+        this.lineMask = (1L << N) - 1;
+        this.fullMask = N * N == 64 ? -1L : (1L << (N * N)) - 1;
+
+        int count = 1;
+        for (int i = 2; i <= N; i++) count *= i;
+
+        perms     = new int[count][];
+        permLeft  = new int[count];
+        permRight = new int[count];
+        permBits  = new long[count];
+
+        int[] line = new int[N];
+        for (int i = 0; i < N; i++) line[i] = i + 1;
+        for (int p = 0; p < count; p++) {
+            perms[p]     = line.clone();
+            permLeft[p]  = visible(line, true);
+            permRight[p] = visible(line, false);
+            long bits = 0;
+            for (int c = 0; c < N; c++) bits |= 1L << (c * N + line[c] - 1);
+            permBits[p] = bits;
+            nextPermutation(line);
+        }
+
+        rowCand      = new int[N][count];
+        rowCandCount = new int[N];
+        chosen       = new int[N][];
+        lastLine     = new int[N];
+        colMax       = new int[N + 1][N];
+        colVis       = new int[N + 1][N];
+    }
+
+    public int getSize() { return N; }
+
+    /** True when the clue set has exactly one solution. */
+    public boolean isUnique(int[] top, int[] right, int[] bottom, int[] left) {
+        return count(top, right, bottom, left, 2) == 1;
+    }
+
+    /**
+     * Counts solutions, stopping once {@code limit} are found.
+     * A non-positive limit counts them all.
+     */
+    public int count(int[] top, int[] right, int[] bottom, int[] left, int limit) {
+        // Row clues filter candidates exactly while column clues only prune, and
+        // the top side prunes during the descent while the bottom is checked at
+        // the leaves – so put the busier axis on the rows and the busier side on top.
+        // Transposing or flipping the board does not change the solution count.
+        if (clueCount(top) + clueCount(bottom) > clueCount(left) + clueCount(right)) {
+            int[] t = top; top = left; left = t;
+            t = bottom; bottom = right; right = t;
+        }
+        if (clueCount(bottom) > clueCount(top)) {
+            int[] t = top; top = bottom; bottom = t;
+            left = reversed(left); right = reversed(right);
+        }
+        this.lastLeft  = left[N - 1];
+        this.lastRight = right[N - 1];
+
+        for (int r = 0; r < N; r++) {
+            long blocked = 0;
+            for (int c = 0; c < N; c++) {
+                blocked |= blockedHeights(top[c], r, c);
+                blocked |= blockedHeights(bottom[c], N - 1 - r, c);
+            }
+            if (r == N - 1) lastBlocked = blocked;
+
+            int n = 0;
+            for (int p = 0; p < perms.length; p++) {
+                if (left[r]  != 0 && permLeft[p]  != left[r])  continue;
+                if (right[r] != 0 && permRight[p] != right[r]) continue;
+                if ((permBits[p] & blocked) != 0) continue;
+                rowCand[r][n++] = p;
+            }
+            if (n == 0) return 0;
+            rowCandCount[r] = n;
+        }
+
+        this.top    = top;
+        this.bottom = bottom;
+        this.limit  = limit > 0 ? limit : Integer.MAX_VALUE;
+        this.found  = 0;
+        search(0, 0L);
+        return found;
+    }
+
+    // ── Core search ──────────────────────────────────────────────────────────
+
+    private void search(int row, long used) {
+        if (row == N - 1) {
+            if (placeLastRow(used) && bottomCluesHold()) found++;
+            return;
+        }
+
+        int[] cand = rowCand[row];
+        int[] prevMax = colMax[row], prevVis = colVis[row];
+        int[] nextMax = colMax[row + 1], nextVis = colVis[row + 1];
+
+        for (int i = 0, n = rowCandCount[row]; i < n; i++) {
+            int p = cand[i];
+            if ((permBits[p] & used) != 0) continue;
+
+            if (!advanceColumns(perms[p], prevMax, prevVis, nextMax, nextVis, row)) continue;
+
+            chosen[row] = perms[p];
+            search(row + 1, used | permBits[p]);
+            if (found >= limit) return;
+        }
+    }
+
+    /**
+     * Once N-1 rows are placed every column is missing exactly one height, so
+     * the last row is forced: read it off the free bits instead of scanning
+     * the candidate list, then check it like any other row.
+     */
+    private boolean placeLastRow(long used) {
+        long free = ~used & fullMask;
+        if ((free & lastBlocked) != 0) return false;
+        for (int c = 0; c < N; c++) {
+            long colBits = (free >>> (c * N)) & lineMask;
+            lastLine[c] = Long.numberOfTrailingZeros(colBits) + 1;
+        }
+        if (lastLeft  != 0 && visible(lastLine, true)  != lastLeft)  return false;
+        if (lastRight != 0 && visible(lastLine, false) != lastRight) return false;
+        if (!advanceColumns(lastLine, colMax[N - 1], colVis[N - 1], colMax[N], colVis[N], N - 1))
+            return false;
+        chosen[N - 1] = lastLine;
+        return true;
+    }
+
+    /**
+     * Extends the top-down visibility of every column by one row and checks it
+     * against the top clues. While {@code max < N} the tallest tower is still
+     * to come and adds at least one more visible building; at most
+     * min(rows left, N - max) more can appear.
+     */
+    private boolean advanceColumns(int[] line, int[] prevMax, int[] prevVis,
+                                   int[] nextMax, int[] nextVis, int row) {
+        int rowsLeft = N - 1 - row;
+        for (int c = 0; c < N; c++) {
+            int h = line[c];
+            int max = prevMax[c], vis = prevVis[c];
+            if (h > max) { max = h; vis++; }
+            nextMax[c] = max;
+            nextVis[c] = vis;
+
+            int clue = top[c];
+            if (clue == 0) continue;
+            if (vis + (max < N ? 1 : 0) > clue) return false;
+            if (vis + Math.min(rowsLeft, N - max) < clue) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Heights a single clue forbids in the cell {@code dist} steps from its edge,
+     * as bits of column {@code col}: a clue k caps that cell at N - k + 1 + dist,
+     * and a clue of 1 forces N next to the edge.
+     */
+    private long blockedHeights(int clue, int dist, int col) {
+        if (clue == 0) return 0;
+        long blocked = 0;
+        int cap = N - clue + 1 + dist;
+        for (int h = 1; h <= N; h++) {
+            boolean forbidden = h > cap || (clue == 1 && dist == 0 && h != N);
+            if (forbidden) blocked |= 1L << (col * N + h - 1);
+        }
+        return blocked;
+    }
+
+    private boolean bottomCluesHold() {
+        for (int c = 0; c < N; c++) {
+            if (bottom[c] == 0) continue;
+            int vis = 0, maxH = 0;
+            for (int r = N - 1; r >= 0; r--) {
+                int h = chosen[r][c];
+                if (h > maxH) { maxH = h; vis++; }
+            }
+            if (vis != bottom[c]) return false;
+        }
+        return true;
+    }
+
+    // ── Helpers ──────────────────────────────────────────────────────────────
+
+    private static int clueCount(int[] clues) {
+        int n = 0;
+        for (int c : clues) if (c != 0) n++;
+        return n;
+    }
+
+    private static int[] reversed(int[] a) {
+        int[] b = new int[a.length];
+        for (int i = 0; i < a.length; i++) b[i] = a[a.length - 1 - i];
+        return b;
+    }
+
+    private int visible(int[] line, boolean forward) {
+        int vis = 0, maxH = 0;
+        for (int i = 0; i < N; i++) {
+            int h = line[forward ? i : N - 1 - i];
+            if (h > maxH) { maxH = h; vis++; }
+        }
+        return vis;
+    }
+
+    /** Lexicographic next permutation in place; wraps around after the last one. */
+    private static void nextPermutation(int[] a) {
+        int i = a.length - 2;
+        while (i >= 0 && a[i] >= a[i + 1]) i--;
+        if (i >= 0) {
+            int j = a.length - 1;
+            while (a[j] <= a[i]) j--;
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+        for (int l = i + 1, r = a.length - 1; l < r; l++, r--) {
+            int t = a[l]; a[l] = a[r]; a[r] = t;
+        }
+    }
+}
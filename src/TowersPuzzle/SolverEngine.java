@@ -1,3 +1,5 @@
+package TowersPuzzle;
+
 import java.util.*;
 
 /**
@@ -21,6 +23,7 @@ public class SolverEngine implements Runnable {
     public volatile boolean paused    = false;
     public volatile long    stepDelay = 300;   // ms between steps
     public int              maxSolutions = 5;
+    public volatile boolean instant   = false; // answer from the ClueDatabase instead of searching
 
     private final StatsTracker  stats;
     private final SolverCallback callback;
@@ -44,6 +47,9 @@ public class SolverEngine implements Runnable {
 
     @Override
     public void run() {
+        long start = System.nanoTime();
+        FlightEvents.SolvePhase phase = new FlightEvents.SolvePhase();
+        phase.begin();
         for (int[] row : grid) Arrays.fill(row, 0);
         for (int r = 0; r < N; r++)
             for (int c = 0; c < N; c++) {
@@ -52,7 +58,15 @@ public class SolverEngine implements Runnable {
             }
         stats.reset();
         fire(SolverCallback.EventType.RESET, -1, -1, 0, "Initialised");
-        backtrack(0);
+        FlightEvents.endPhase(phase, "init", stats);
+
+        boolean fromTable = instant && ClueDatabase.supports(N);
+        phase = new FlightEvents.SolvePhase();
+        phase.begin();
+        if (fromTable) lookup();
+        else backtrack(0);
+        FlightEvents.endPhase(phase, fromTable ? "lookup" : "search", stats);
+        Metrics.solver().solved(System.nanoTime() - start, stats.getNodesExplored());
         fire(SolverCallback.EventType.COMPLETE, -1, -1, 0,
              "Search complete. Solutions: " + stats.getSolutionsFound());
     }
@@ -76,9 +90,11 @@ public class SolverEngine implements Runnable {
         stats.enterDepth(filled);
 
         // MRV
+        long t0 = System.nanoTime();
         int[] cell = selectMRV();
         int r = cell[0], c = cell[1];
         List<Integer> values = orderLCV(r, c);
+        stats.addTime(StatsTracker.Phase.SELECTION, System.nanoTime() - t0);
 
         fire(SolverCallback.EventType.SELECT, r, c, 0,
              "MRV → (" + r + "," + c + ")  domain=" + values);
@@ -88,27 +104,34 @@ public class SolverEngine implements Runnable {
             if (stats.getSolutionsFound() >= maxSolutions && maxSolutions > 0) return;
 
             waitIfPaused();
-            stats.nodeExplored();
+            stats.nodeExplored(filled);
             stats.assignment();
             grid[r][c] = v;
 
+            t0 = System.nanoTime();
             Map<int[], Integer> removed = forwardCheck(r, c, v);
             boolean wipeout = (removed == null);
+            boolean consistent = !wipeout && isConsistentPartial(r, c);
+            stats.addTime(StatsTracker.Phase.PROPAGATION, System.nanoTime() - t0);
 
-            if (!wipeout && isConsistentPartial(r, c)) {
+            if (consistent) {
                 fire(SolverCallback.EventType.TRY, r, c, v,
                      "Try " + v + " at (" + r + "," + c + ")  depth=" + filled);
                 sleep(stepDelay);
                 backtrack(filled + 1);
             } else {
-                stats.branchPruned();
+                stats.branchPruned(filled);
                 fire(SolverCallback.EventType.PRUNE, r, c, v,
                      "PRUNE " + v + " at (" + r + "," + c + ") – constraint violated");
                 sleep(stepDelay);
             }
 
             grid[r][c] = 0;
-            if (removed != null) restoreDomains(removed);
+            if (removed != null) {
+                t0 = System.nanoTime();
+                restoreDomains(removed);
+                stats.addTime(StatsTracker.Phase.PROPAGATION, System.nanoTime() - t0);
+            }
         }
 
         stats.backtrack();
@@ -117,6 +140,22 @@ public class SolverEngine implements Runnable {
         sleep(stepDelay / 2);
     }
 
+    // ── Table lookup ─────────────────────────────────────────────────────────
+
+    /** Every solution is a row of the clue table – replay them without a search. */
+    private void lookup() {
+        List<int[][]> solutions = ClueDatabase.forSize(N).solutions(
+                topClues, rightClues, bottomClues, leftClues, null, maxSolutions);
+        for (int[][] sol : solutions) {
+            if (!running) return;
+            for (int r = 0; r < N; r++) grid[r] = sol[r].clone();
+            stats.solutionFound();
+            fire(SolverCallback.EventType.SOLUTION, -1, -1, 0,
+                 "✦ SOLUTION #" + stats.getSolutionsFound() + " FOUND! (clue table)");
+            sleep(stepDelay * 4);
+        }
+    }
+
     // ── MRV ──────────────────────────────────────────────────────────────────
 
     private int[] selectMRV() {
@@ -244,7 +283,9 @@ public class SolverEngine implements Runnable {
     private void fire(SolverCallback.EventType type, int r, int c, int v, String msg) {
         int[][] snap = new int[N][N];
         for (int i = 0; i < N; i++) snap[i] = grid[i].clone();
+        long t0 = System.nanoTime();
         callback.onEvent(type, r, c, v, snap, stats, msg);
+        stats.addTime(StatsTracker.Phase.CALLBACK, System.nanoTime() - t0);
     }
 
     private void sleep(long ms) {
@@ -1,47 +1,201 @@
+package TowersPuzzle;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * StatsTracker – live complexity metrics for the backtracking search.
+ *
+ * Safe to share between search threads. Every counter is a {@link LongAdder},
+ * so threads bumping the same counter land on separate cells instead of
+ * fighting over one cache line. Besides the totals it keeps, per search
+ * depth, the nodes tried, the branches pruned and the nodes expanded (one
+ * {@link #enterDepth} each), which gives a branching factor per level. Phase
+ * timers add up {@code System.nanoTime()} spans of selection, propagation
+ * and callback work.
+ *
+ * Readers never block the search: {@link #snapshot()} reads the adders
+ * while they move. Counters are read in the reverse of the order the solver
+ * bumps them (solutions, backtracks and prunes before nodes), so a snapshot
+ * never shows more prunes than nodes or more backtracks than expansions.
  */
 public class StatsTracker {
-    private long nodesExplored;
-    private long branchesPruned;
-    private int  currentDepth;
-    private int  maxDepth;
-    private long totalAssignments;
-    private long backtrackCount;
-    private long solutionsFound;
-    private long startTime;
+
+    /** Depth histogram buckets; deeper levels share the last one. */
+    public static final int MAX_DEPTH = 64;
+
+    /** Timed parts of a search step. */
+    public enum Phase { SELECTION, PROPAGATION, CALLBACK }
+
+    private final LongAdder nodesExplored    = new LongAdder();
+    private final LongAdder branchesPruned   = new LongAdder();
+    private final LongAdder totalAssignments = new LongAdder();
+    private final LongAdder backtrackCount   = new LongAdder();
+    private final LongAdder solutionsFound   = new LongAdder();
+    private final AtomicInteger maxDepth     = new AtomicInteger();
+    private volatile int  currentDepth;
+    private volatile long startNanos;
+
+    // ── per-depth histograms ─────────────────────────────────────────────────
+    private final LongAdder[] nodesAt    = adders(MAX_DEPTH);
+    private final LongAdder[] prunedAt   = adders(MAX_DEPTH);
+    private final LongAdder[] expandedAt = adders(MAX_DEPTH);
+
+    private final LongAdder[] phaseNanos = adders(Phase.values().length);
 
     public StatsTracker() { reset(); }
 
+    /** Zeroes everything; call it between runs, not while a search is counting. */
     public void reset() {
-        nodesExplored = branchesPruned = totalAssignments = backtrackCount = solutionsFound = 0;
-        currentDepth = maxDepth = 0;
-        startTime = System.currentTimeMillis();
+        for (LongAdder a : new LongAdder[] { nodesExplored, branchesPruned, totalAssignments,
+                                             backtrackCount, solutionsFound }) a.reset();
+        for (LongAdder[] h : new LongAdder[][] { nodesAt, prunedAt, expandedAt, phaseNanos })
+            for (LongAdder a : h) a.reset();
+        currentDepth = 0;
+        maxDepth.set(0);
+        startNanos = System.nanoTime();
     }
 
-    public void nodeExplored()  { nodesExplored++; }
-    public void branchPruned()  { branchesPruned++; }
-    public void assignment()    { totalAssignments++; }
-    public void backtrack()     { backtrackCount++; }
-    public void solutionFound() { solutionsFound++; }
+    // ── counting ─────────────────────────────────────────────────────────────
 
+    /** A node tried at the depth last entered. */
+    public void nodeExplored()  { nodeExplored(currentDepth); }
+    /** A branch pruned at the depth last entered. */
+    public void branchPruned()  { branchPruned(currentDepth); }
+
+    public void nodeExplored(int depth) {
+        nodesExplored.increment();
+        nodesAt[bucket(depth)].increment();
+    }
+
+    public void branchPruned(int depth) {
+        branchesPruned.increment();
+        prunedAt[bucket(depth)].increment();
+    }
+
+    public void assignment()    { totalAssignments.increment(); }
+    public void backtrack()     { backtrackCount.increment(); }
+    public void solutionFound() { solutionsFound.increment(); }
+
+    /** A node expanded at depth {@code d}. */
     public void enterDepth(int d) {
         currentDepth = d;
-        if (d > maxDepth) maxDepth = d;
+        expandedAt[bucket(d)].increment();
+        if (d > maxDepth.get()) maxDepth.accumulateAndGet(d, Math::max);
+    }
+
+    /** Adds {@code nanos} to a phase timer; pair it with a {@code System.nanoTime()} taken before. */
+    public void addTime(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    /** Jumps to a recorded state, e.g. when replaying a {@link SearchTrace}. Histograms stay empty. */
+    public void restore(long nodes, long pruned, long backtracks, long solutions,
+                        int depth, int maxDepth, long elapsedMs) {
+        reset();
+        nodesExplored.add(nodes);
+        totalAssignments.add(nodes);       // the solver counts one assignment per node
+        branchesPruned.add(pruned);
+        backtrackCount.add(backtracks);
+        solutionsFound.add(solutions);
+        currentDepth = depth;
+        this.maxDepth.set(maxDepth);
+        startNanos = System.nanoTime() - elapsedMs * 1_000_000L;
     }
 
-    public long getNodesExplored()  { return nodesExplored; }
-    public long getBranchesPruned() { return branchesPruned; }
+    // ── reading ──────────────────────────────────────────────────────────────
+
+    public long getNodesExplored()  { return nodesExplored.sum(); }
+    public long getBranchesPruned() { return branchesPruned.sum(); }
     public int  getCurrentDepth()   { return currentDepth; }
-    public int  getMaxDepth()       { return maxDepth; }
-    public long getBacktrackCount() { return backtrackCount; }
-    public long getSolutionsFound() { return solutionsFound; }
-    public long getTotalAssignments(){ return totalAssignments; }
+    public int  getMaxDepth()       { return maxDepth.get(); }
+    public long getBacktrackCount() { return backtrackCount.sum(); }
+    public long getSolutionsFound() { return solutionsFound.sum(); }
+    public long getTotalAssignments(){ return totalAssignments.sum(); }
 
     public double estimatedBranchingFactor() {
-        long d = backtrackCount + solutionsFound + 1;
-        return (double) totalAssignments / d;
+        long d = backtrackCount.sum() + solutionsFound.sum() + 1;
+        return (double) totalAssignments.sum() / d;
+    }
+
+    public long elapsedMs()    { return elapsedNanos() / 1_000_000; }
+    public long elapsedNanos() { return System.nanoTime() - startNanos; }
+
+    /** Everything at once, for a display; see the class comment for what "at once" means. */
+    public Snapshot snapshot() {
+        long solutions  = solutionsFound.sum();
+        long backtracks = backtrackCount.sum();
+        int  top        = Math.min(maxDepth.get(), MAX_DEPTH - 1) + 1;
+        long[] pruned   = sums(prunedAt, top);
+        long   prunes   = branchesPruned.sum();
+        long assigns    = totalAssignments.sum();
+        long nodes      = nodesExplored.sum();
+        long[] tried    = sums(nodesAt, top);
+        long[] expanded = sums(expandedAt, top);
+        return new Snapshot(nodes, prunes, backtracks, solutions, assigns,
+                currentDepth, maxDepth.get(), elapsedNanos(),
+                tried, pruned, expanded, sums(phaseNanos, phaseNanos.length));
+    }
+
+    /** An immutable copy of the tracker's counters. */
+    public static final class Snapshot {
+        public final long nodes, pruned, backtracks, solutions, assignments;
+        public final int  currentDepth, maxDepth;
+        public final long elapsedNanos;
+        private final long[] nodesAt, prunedAt, expandedAt, phaseNanos;
+
+        Snapshot(long nodes, long pruned, long backtracks, long solutions, long assignments,
+                 int currentDepth, int maxDepth, long elapsedNanos,
+                 long[] nodesAt, long[] prunedAt, long[] expandedAt, long[] phaseNanos) {
+            this.nodes        = nodes;
+            this.pruned       = pruned;
+            this.backtracks   = backtracks;
+            this.solutions    = solutions;
+            this.assignments  = assignments;
+            this.currentDepth = currentDepth;
+            this.maxDepth     = maxDepth;
+            this.elapsedNanos = elapsedNanos;
+            this.nodesAt      = nodesAt;
+            this.prunedAt     = prunedAt;
+            this.expandedAt   = expandedAt;
+            this.phaseNanos   = phaseNanos;
+        }
+
+        /** Depths with histogram data: 0 .. depths() - 1. */
+        public int  depths()            { return nodesAt.length; }
+        public long nodesAt(int d)      { return d < nodesAt.length ? nodesAt[d] : 0; }
+        public long prunedAt(int d)     { return d < prunedAt.length ? prunedAt[d] : 0; }
+        public long expandedAt(int d)   { return d < expandedAt.length ? expandedAt[d] : 0; }
+        public long phaseNanos(Phase p) { return phaseNanos[p.ordinal()]; }
+        public long elapsedMs()         { return elapsedNanos / 1_000_000; }
+
+        /** Children tried per node expanded at depth {@code d}; 0 if none was. */
+        public double branchingFactor(int d) {
+            long e = expandedAt(d);
+            return e == 0 ? 0 : (double) nodesAt(d) / e;
+        }
+
+        /** Same estimate as {@link StatsTracker#estimatedBranchingFactor()}. */
+        public double branchingFactor() {
+            return (double) assignments / (backtracks + solutions + 1);
+        }
+    }
+
+    // ── helpers ──────────────────────────────────────────────────────────────
+
+    private static int bucket(int depth) {
+        return Math.max(0, Math.min(depth, MAX_DEPTH - 1));
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] a = new LongAdder[n];
+        for (int i = 0; i < n; i++) a[i] = new LongAdder();
+        return a;
     }
 
-    public long elapsedMs() { return System.currentTimeMillis() - startTime; }
-}
\ No newline at end of file
+    private static long[] sums(LongAdder[] a, int n) {
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) out[i] = a[i].sum();
+        return out;
+    }
+}
@@ -1,4 +1,6 @@
-public class StrategyBTForwardCheck {
+package TowersPuzzle;
+
+public class StrategyBTForwardCheck implements SearchCounters {
 
     private final GameState state;
     private final int SIZE;
@@ -12,6 +14,10 @@ public class StrategyBTForwardCheck {
         this.SIZE = state.getSize();
     }
 
+    // ── SearchCounters ───────────────────────────────────────────────────────
+    @Override public long nodesSearched()  { return nodesExplored; }
+    @Override public long branchesPruned() { return pruned; }
+
     public int[] findBestMove() {
 
         nodesExplored = 0;
@@ -1,10 +1,12 @@
+package TowersPuzzle;
+
 import java.util.*;
 
 /**
  * STRATEGY : Backtracking (The "Trap Setter")
  * Utilizes Exhaustive DFS optimized by MRV/LCV Heuristics.
  */
-public class StrategyBTTrapSetter {
+public class StrategyBTTrapSetter implements SearchCounters {
 
     private final GameState state;
     private final int SIZE;
@@ -20,6 +22,10 @@ public class StrategyBTTrapSetter {
         this.SIZE = state.getSize();
     }
 
+    // ── SearchCounters ───────────────────────────────────────────────────────
+    @Override public long nodesSearched()  { return nodesExplored; }
+    @Override public long branchesPruned() { return pruned; }
+
     
     //THE ADVERSARIAL WRAPPER
     
@@ -81,6 +87,11 @@ public class StrategyBTTrapSetter {
     private int countSolutions(int[][] grid, int currentCount) {
         if (currentCount >= SOLUTION_LIMIT)
             return currentCount;
+        // Up to 5x5 every completion is a row of the clue table – no search needed
+        if (ClueDatabase.supports(SIZE)) {
+            return currentCount + ClueDatabase.forSize(SIZE).count(state.getTopClues(), state.getRightClues(),
+                    state.getBottomClues(), state.getLeftClues(), grid, SOLUTION_LIMIT - currentCount);
+        }
 
         //Use MRV to find the most constrained cell
         CellEvaluation bestCell = getBestCellMRV(grid);
@@ -1,3 +1,4 @@
+package TowersPuzzle;
 
 import java.util.ArrayList;
 import java.util.List;
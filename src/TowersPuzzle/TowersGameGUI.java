@@ -1,3 +1,5 @@
+package TowersPuzzle;
+
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
@@ -9,6 +11,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 //  TOWERS PUZZLE  ·  Complete UI  ·  4 Strategies  ·  Live Heat-Map
     public class TowersGameGUI extends JFrame {
@@ -48,6 +52,19 @@ import java.util.Comparator;
     private StrategyBTForwardCheck stratFC;
     private StrategyBTTrapSetter   stratTS;
 
+    // ── CPU moves: searched on a managed pool, pondered on the human's turn ──
+    private static final Function<GameState, int[]> FC_CPU = s -> {
+        StrategyBTForwardCheck p = new StrategyBTForwardCheck(s);
+        return FlightEvents.searchMove("FC", p, p::findBestMove);
+    };
+    private static final Function<GameState, int[]> TS_CPU = s -> {
+        StrategyBTTrapSetter p = new StrategyBTTrapSetter(s);
+        return FlightEvents.searchMove("TS", p, p::findBestMove);
+    };
+    private final CpuMoveService cpuMoves = new CpuMoveService(N);
+    private CompletableFuture<CpuMoveService.Reply> pendingReply;   // reply to the human's last move
+    private int gameId;                                             // bumped per game; drops stale replies
+
     // ── Selection ────────────────────────────────────────────────────────────
     private int selRow = -1, selCol = -1;
 
@@ -57,6 +74,8 @@ import java.util.Comparator;
 
     // ── UI widgets ───────────────────────────────────────────────────────────
     private JButton[][]  cell   = new JButton[N][N];
+    private JLabel[]     topClueLbl    = new JLabel[N], rightClueLbl = new JLabel[N];
+    private JLabel[]     bottomClueLbl = new JLabel[N], leftClueLbl  = new JLabel[N];
     private JButton[]    valBtn = new JButton[N];
     private JLabel       statusLbl, humanScoreLbl, humanLivesLbl, cpuScoreLbl, cpuLivesLbl;
     private JLabel       algoBadgeLbl;
@@ -360,12 +379,14 @@ int[] left   = {1, 3, 2, 2};
         // top clues
         for (int i = 0; i < N; i++) {
             gc.gridx = i+1; gc.gridy = 0;
-            wrap.add(clueLabel(top[i], "↓"), gc);
+            topClueLbl[i] = clueLabel(top[i], "↓");
+            wrap.add(topClueLbl[i], gc);
         }
         // rows
         for (int r = 0; r < N; r++) {
             gc.gridx=0; gc.gridy=r+1;
-            wrap.add(clueLabel(left[r], "→"), gc);
+            leftClueLbl[r] = clueLabel(left[r], "→");
+            wrap.add(leftClueLbl[r], gc);
 
             for (int c = 0; c < N; c++) {
                 final int fr=r, fc=c;
@@ -375,12 +396,14 @@ int[] left   = {1, 3, 2, 2};
                 wrap.add(cell[r][c], gc);
             }
             gc.gridx=N+1; gc.gridy=r+1;
-            wrap.add(clueLabel(right[r], "←"), gc);
+            rightClueLbl[r] = clueLabel(right[r], "←");
+            wrap.add(rightClueLbl[r], gc);
         }
         // bottom clues
         for (int i = 0; i < N; i++) {
             gc.gridx=i+1; gc.gridy=N+1;
-            wrap.add(clueLabel(bottom[i], "↑"), gc);
+            bottomClueLbl[i] = clueLabel(bottom[i], "↑");
+            wrap.add(bottomClueLbl[i], gc);
         }
         return wrap;
     }
@@ -427,8 +450,21 @@ int[] left   = {1, 3, 2, 2};
     }
 
 
+    private String clueText(int v, String arrow) {
+        return v > 0 ? arrow + " " + v : "·";
+    }
+
+    private void refreshClueLabels() {
+        for (int i = 0; i < N; i++) {
+            topClueLbl[i].setText(clueText(gameState.getTopClues()[i], "↓"));
+            rightClueLbl[i].setText(clueText(gameState.getRightClues()[i], "←"));
+            bottomClueLbl[i].setText(clueText(gameState.getBottomClues()[i], "↑"));
+            leftClueLbl[i].setText(clueText(gameState.getLeftClues()[i], "→"));
+        }
+    }
+
     private JLabel clueLabel(int v, String arrow) {
-        JLabel l = new JLabel(arrow + " " + v, SwingConstants.CENTER);
+        JLabel l = new JLabel(clueText(v, arrow), SwingConstants.CENTER);
         l.setFont(new Font("Monospaced", Font.BOLD, 14));
         l.setForeground(GOLD_LIGHT);
         l.setOpaque(true);
@@ -600,8 +636,16 @@ int[] left   = {1, 3, 2, 2};
 int[] right  = {2, 3, 1, 2};
 int[] bottom = {3, 4, 1, 2};
 int[] left   = {1, 3, 2, 2};
+
+    // Draw from the memory-mapped puzzle bank when one is available
+    PuzzleBank bank = PuzzleBank.openDefault(N);
+    if (bank != null) {
+        PuzzleGenerator.PuzzleData p = bank.random();
+        top = p.topClues; right = p.rightClues; bottom = p.bottomClues; left = p.leftClues;
+    }
     
     gameState = new GameState(top, right, bottom, left);
+    refreshClueLabels();
     
     System.out.println("=== PUZZLE LOADED ===");
     System.out.println("Top:    " + java.util.Arrays.toString(top));
@@ -612,8 +656,19 @@ int[] left   = {1, 3, 2, 2};
     stratFC  = new StrategyBTForwardCheck(gameState);
     stratTS  = new StrategyBTTrapSetter(gameState);
     refreshAlgoBadge();
+
+    gameId++;
+    pendingReply = null;
+    cpuMoves.ponder(gameState, cpuSolver());
 }
 
+    private Function<GameState, int[]> cpuSolver() {
+        return switch (currentAlgo) {
+            case FC -> FC_CPU;
+            case TS -> TS_CPU;
+        };
+    }
+
     private void refreshAlgoBadge() {
         int idx = currentAlgo.ordinal();
         String[] names = {"Constraint Enforcer", "Trap-Setter"};
@@ -648,6 +703,8 @@ int[] left   = {1, 3, 2, 2};
             selRow=-1; selCol=-1;
             valuePanel.setVisible(false);
             gameState.setHumanTurn(false);
+            cpuMoves.cancel();                 // the penalty changed the state pondered on
+            pendingReply = null;
             updateDisplay();
 
             // ── FIX: explicit javax.swing.Timer (no anonymous double-brace) ──
@@ -659,88 +716,87 @@ int[] left   = {1, 3, 2, 2};
             return;
         }
 
-        boolean ok = gameState.makeMove(selRow, selCol, val, true);
+        int row = selRow, col = selCol;
+        boolean ok = gameState.makeMove(row, col, val, true);
         selRow=-1; selCol=-1;
         valuePanel.setVisible(false);
         if (ok) gameState.setHumanTurn(false);
         clearHeat();
         updateDisplay();
-        if (checkGameEnd()) return;
+        if (checkGameEnd()) { cpuMoves.cancel(); return; }
 
         if (ok) {
-            // ── FIX: explicit javax.swing.Timer ──────────────────────────────
-            javax.swing.Timer cpuMoveTimer = new javax.swing.Timer(500, e -> {
-                updateHeat();
-                animateHeat(0);
-            });
-            cpuMoveTimer.setRepeats(false);
-            cpuMoveTimer.start();
+            pendingReply = cpuMoves.reply(gameState, row, col, val, cpuSolver());
+            // a pondered reply is already there – play it without the heat sweep
+            if (pendingReply.isDone()) doCPUMove();
+            else { updateHeat(); animateHeat(0); }
         }
     }
 
     private void doCPUMove() {
-    new Thread(() -> {
-
-
-
-        // 2. Safety Check
         if (gameState.checkForDeadlock(false)) {
-            SwingUtilities.invokeLater(() -> {
-                statusLbl.setText("CPU has no legal moves! Skipping.");
-                gameState.setHumanTurn(true);
-                updateDisplay();
-            });
+            statusLbl.setText("CPU has no legal moves! Skipping.");
+            pendingReply = null;
+            gameState.setHumanTurn(true);
+            updateDisplay();
+            if (!checkGameEnd()) cpuMoves.ponder(gameState, cpuSolver());
             return;
         }
 
-        // 3. The Algorithm (This is where the visualization data is generated)
-        int[] move = switch (currentAlgo) {
-            case FC  -> stratFC.findBestMove(); 
-            case TS  -> stratTS.findBestMove();
-        };
+        CompletableFuture<CpuMoveService.Reply> reply =
+                pendingReply != null ? pendingReply : cpuMoves.compute(gameState, cpuSolver());
+        pendingReply = null;
+        int game = gameId;
+        reply.whenComplete((r, err) -> SwingUtilities.invokeLater(() -> applyCpuReply(game, r, err)));
+    }
 
-        // 4. Update the Game Board on the UI thread
-        SwingUtilities.invokeLater(() -> {
-            if (move != null) {
-                if (gameState.getGrid()[move[0]][move[1]] == 0) {
-                    reasonArea.setText(gameState.getCpuReasoningExplanation());
-                    gameState.makeMove(move[0], move[1], move[2], false);
-                }
-            }
-            clearHeat();
-            gameState.setHumanTurn(true);
-            updateDisplay();
-            checkGameEnd();
-        });
-    }).start();
-}
+    private void applyCpuReply(int game, CpuMoveService.Reply r, Throwable err) {
+        if (game != gameId || gameState.isGameOver()) return;     // reset while the CPU thought
+        if (err != null) {
+            System.err.println("CPU search failed: " + err);
+        } else if (r.move != null && gameState.getGrid()[r.move[0]][r.move[1]] == 0) {
+            gameState.setCpuReasoningExplanation(r.explanation);
+            reasonArea.setText(r.explanation + (r.pondered
+                    ? "\n(pondered during your turn)" : ""));
+            gameState.makeMove(r.move[0], r.move[1], r.move[2], false);
+        }
+        clearHeat();
+        gameState.setHumanTurn(true);
+        updateDisplay();
+        if (!checkGameEnd()) cpuMoves.ponder(gameState, cpuSolver());
+    }
 
     //  HEAT MAP
     private void updateHeat() {
+        FlightEvents.CellBatch batch = new FlightEvents.CellBatch();
+        batch.begin();
+        Metrics.Strategy metrics = Metrics.strategy(currentAlgo.name());
         double max = 0;
         for (int r = 0; r < N; r++) for (int c = 0; c < N; c++) {
             if (gameState.getGrid()[r][c] == 0) {
+                long t = System.nanoTime();
                 heat[r][c] = switch (currentAlgo) {
                     case FC  -> stratFC.evaluateCell(r, c);
                     case TS  -> stratTS.evaluateCell(r, c);
                 };
+                metrics.cellEvaluated(System.nanoTime() - t);
                 max = Math.max(max, heat[r][c]);
             } else heat[r][c] = 0;
         }
         if (max > 0) for (int r=0;r<N;r++) for(int c=0;c<N;c++) heat[r][c] /= max;
+        batch.end();
+        if (batch.shouldCommit()) {
+            batch.strategy = currentAlgo.name();
+            batch.cells    = N * N;
+            batch.commit();
+        }
     }
 
     private void animateHeat(int idx) {
         if (idx >= N*N) {
             // ── FIX: explicit javax.swing.Timer ──────────────────────────────
-            javax.swing.Timer postHeatTimer = new javax.swing.Timer(1100, e -> {
-                if (!gameState.isGameOver()) {
-                    doCPUMove();
-                    clearHeat();
-                    gameState.setHumanTurn(true);
-                    updateDisplay();
-                    checkGameEnd();
-                }
+            javax.swing.Timer postHeatTimer = new javax.swing.Timer(300, e -> {
+                if (!gameState.isGameOver()) doCPUMove();
             });
             postHeatTimer.setRepeats(false);
             postHeatTimer.start();
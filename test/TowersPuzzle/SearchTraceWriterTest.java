@@ -0,0 +1,66 @@
+package TowersPuzzle;
+
+import TowersPuzzle.SolverEngine.SolverCallback.EventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchTraceWriterTest {
+
+    private static final int[] TOP    = {1, 3, 2, 2};
+    private static final int[] BOTTOM = {3, 1, 2, 2};
+    private static final int[] LEFT   = {1, 3, 2, 2};
+    private static final int[] RIGHT  = {3, 2, 1, 2};
+
+    @TempDir Path dir;
+
+    /** What STOP does to a recorded run: interrupt the solver thread, which then closes the trace. */
+    @Test
+    void stoppingARecordingMidSearchKeepsTheTrace() throws Exception {
+        Path file = dir.resolve("stopped.trace");
+        SearchTraceWriter trace = new SearchTraceWriter(file, TOP, RIGHT, BOTTOM, LEFT);
+        SolverEngine[] solver = new SolverEngine[1];
+        solver[0] = new SolverEngine(new StatsTracker(), (type, r, c, v, snap, st, msg) -> {
+            trace.onEvent(type, r, c, v, snap, st, msg);
+            if (trace.count() == 20) {                       // STOP lands mid-search
+                solver[0].running = false;
+                Thread.currentThread().interrupt();
+            }
+        }, TOP.clone(), BOTTOM.clone(), LEFT.clone(), RIGHT.clone());
+        solver[0].stepDelay = 1;
+        solver[0].maxSolutions = 1;
+
+        AtomicReference<IOException> closeFailure = new AtomicReference<>();
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            try {
+                solver[0].run();
+            } finally {
+                try {
+                    trace.close();
+                } catch (IOException e) {
+                    closeFailure.set(e);
+                }
+                stillInterrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        t.start();
+        t.join(10_000);
+
+        assertNull(closeFailure.get());
+        assertTrue(stillInterrupted.get(), "close() should leave the interrupt flag set");
+        try (SearchTrace read = new SearchTrace(file)) {
+            assertEquals(trace.count(), read.count());
+            assertTrue(read.count() >= 20);
+            assertEquals(EventType.RESET, read.type(0));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package TowersPuzzle;
+
+import TowersPuzzle.SolverEngine.SolverCallback.EventType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchTreeTest {
+
+    /** Root → one TRY at (0,0) → {@code leaves} pruned values at (0,1), left open. */
+    private static SearchTree openBranch(int leaves) {
+        SearchTree t = new SearchTree(4);
+        t.onEvent(EventType.SELECT, 0, 0, 0);
+        t.onEvent(EventType.TRY, 0, 0, 1);
+        t.onEvent(EventType.SELECT, 0, 1, 0);
+        for (int i = 0; i < leaves; i++) t.onEvent(EventType.PRUNE, 0, 1, 1 + i % 4);
+        return t;
+    }
+
+    @Test
+    void autoCollapseUnderAFoldedRootKeepsItOneRow() {
+        SearchTree t = openBranch(40);
+        assertEquals(42, t.rows());
+
+        t.setCollapsed(0, true);                     // the user folds the root mid-search
+        assertEquals(1, t.rows());
+
+        t.onEvent(EventType.BACKTRACK, 0, 0, 0);     // closes the 41-node branch, which auto-collapses
+        assertTrue(t.isCollapsed(1));
+        assertEquals(1, t.rows());
+
+        t.setCollapsed(0, false);
+        assertEquals(2, t.rows());                   // root plus the collapsed branch
+        t.setCollapsed(1, false);
+        assertEquals(42, t.rows());
+    }
+
+    @Test
+    void foldingAnOpenNodeThenItsChildKeepsCounts() {
+        SearchTree t = openBranch(40);
+        t.setCollapsed(1, true);
+        assertEquals(2, t.rows());
+
+        t.onEvent(EventType.PRUNE, 0, 1, 2);         // a leaf arriving under a folded row adds none
+        assertEquals(2, t.rows());
+        assertEquals(42, t.subtree(1));
+
+        t.setCollapsed(1, false);
+        assertEquals(43, t.rows());
+    }
+}